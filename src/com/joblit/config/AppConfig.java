@@ -0,0 +1,288 @@
+package com.joblit.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * AppConfig.java
+ * All the settings of the program in one place, instead of constants spread over the code.
+ * Each setting is found in this order (later ones win):
+ * 1. The built-in default (see DEFAULTS below).
+ * 2. The settings file: ~/.joblit/joblit.properties, or the file given with -Djoblit.config=...
+ * 3. An environment variable: the key in capitals with '.' as '_' and JOBLIT_ in front,
+ *    e.g. db.url -> JOBLIT_DB_URL.
+ * The settings file is watched while the program runs. When it is saved, the settings are
+ * read again, so tuning values (cache sizes, page sizes, timeouts...) change without a restart.
+ * Settings used only when something is first made (database address, pool and thread counts)
+ * still need a restart.
+ * A number outside its allowed range (see RANGES) is replaced by its default when the
+ * settings are read, with a message, so e.g. a pool size of 0 can't stop the program.
+ * Use AppConfig.get() to get the one shared object.
+ */
+public class AppConfig {
+
+    // --- Setting names (keys) ---
+    // Database connection (read at start-up only).
+    public static final String DB_URL = "db.url";
+    public static final String DB_USER = "db.user";
+    public static final String DB_PASSWORD = "db.password";
+    public static final String DB_REPLICAS = "db.replicas"; // Comma-separated JDBC URLs of read-only copies.
+    public static final String DB_READ_YOUR_WRITES_MILLIS = "db.readYourWritesMillis";
+    public static final String DB_POOL_SIZE = "db.pool.size";
+    // Tunable while running.
+    public static final String DB_POOL_WAIT_MILLIS = "db.pool.waitMillis";
+    public static final String DB_QUERY_TIMEOUT_SECONDS = "db.queryTimeoutSeconds";
+    public static final String DB_RETRY_ATTEMPTS = "db.retry.attempts";
+    public static final String DB_RETRY_BASE_DELAY_MILLIS = "db.retry.baseDelayMillis";
+    public static final String DB_BREAKER_FAILURES = "db.breaker.failureThreshold"; // Start-up only.
+    public static final String DB_BREAKER_OPEN_MILLIS = "db.breaker.openMillis"; // Start-up only.
+    public static final String DB_EXPORT_FETCH_SIZE = "db.export.fetchSize";
+    public static final String CACHE_PROFILE_SIZE = "cache.profile.size";
+    public static final String JOBS_LIFETIME_DAYS = "jobs.lifetimeDays";
+    public static final String JOBS_ARCHIVE_BATCH_SIZE = "jobs.archive.batchSize";
+    public static final String JOBS_ARCHIVE_ENABLED = "jobs.archive.enabled"; // false on clients that shouldn't archive.
+    public static final String GRAPH_RELOAD_MINUTES = "applicationGraph.reloadMinutes";
+    public static final String AUDIT_SEGMENT_BYTES = "audit.segmentBytes";
+    public static final String AUDIT_MAX_SEGMENTS = "audit.maxSegments";
+    public static final String DASHBOARD_LOADER_THREADS = "dashboard.loader.threads"; // Start-up only.
+    public static final String DASHBOARD_DEADLINE_MILLIS = "dashboard.deadlineMillis";
+    public static final String UI_BEST_MATCHES_PAGE_SIZE = "ui.bestMatches.pageSize";
+    public static final String UI_INBOX_SIZE = "ui.inbox.size";
+    public static final String UI_SIMILAR_JOBS_SIZE = "ui.similarJobs.size";
+    public static final String UI_ALSO_APPLIED_SIZE = "ui.alsoApplied.size";
+    public static final String UI_APPLICANTS_PAGE_SIZE = "ui.applicants.pageSize";
+    public static final String UI_INBOX_CHECK_MILLIS = "ui.inbox.checkMillis";
+
+    private static final Properties DEFAULTS = new Properties();
+    // Smallest and biggest allowed value of each number setting.
+    private static final Map<String, long[]> RANGES = new HashMap<>();
+
+    static {
+        DEFAULTS.setProperty(DB_URL, "jdbc:mysql://127.0.0.1:3306/joblit_db?useSSL=false&serverTimezone=UTC&rewriteBatchedStatements=true");
+        DEFAULTS.setProperty(DB_USER, "root");
+        DEFAULTS.setProperty(DB_PASSWORD, "Ivanio29");
+        DEFAULTS.setProperty(DB_REPLICAS, "");
+        DEFAULTS.setProperty(DB_READ_YOUR_WRITES_MILLIS, "5000");
+        DEFAULTS.setProperty(DB_POOL_SIZE, "4");
+        DEFAULTS.setProperty(DB_POOL_WAIT_MILLIS, "5000");
+        DEFAULTS.setProperty(DB_QUERY_TIMEOUT_SECONDS, "10");
+        DEFAULTS.setProperty(DB_RETRY_ATTEMPTS, "3");
+        DEFAULTS.setProperty(DB_RETRY_BASE_DELAY_MILLIS, "100");
+        DEFAULTS.setProperty(DB_BREAKER_FAILURES, "5");
+        DEFAULTS.setProperty(DB_BREAKER_OPEN_MILLIS, "30000");
+        DEFAULTS.setProperty(DB_EXPORT_FETCH_SIZE, String.valueOf(Integer.MIN_VALUE)); // MySQL: stream row by row.
+        DEFAULTS.setProperty(CACHE_PROFILE_SIZE, "50");
+        DEFAULTS.setProperty(JOBS_LIFETIME_DAYS, "60");
+        DEFAULTS.setProperty(JOBS_ARCHIVE_BATCH_SIZE, "500");
+        DEFAULTS.setProperty(JOBS_ARCHIVE_ENABLED, "true");
+        DEFAULTS.setProperty(GRAPH_RELOAD_MINUTES, "60"); // New applications are read every 30 s in between.
+        DEFAULTS.setProperty(AUDIT_SEGMENT_BYTES, String.valueOf(10 * 1024 * 1024));
+        DEFAULTS.setProperty(AUDIT_MAX_SEGMENTS, "20");
+        DEFAULTS.setProperty(DASHBOARD_LOADER_THREADS, "4");
+        DEFAULTS.setProperty(DASHBOARD_DEADLINE_MILLIS, "10000");
+        DEFAULTS.setProperty(UI_BEST_MATCHES_PAGE_SIZE, "50");
+        DEFAULTS.setProperty(UI_INBOX_SIZE, "100");
+        DEFAULTS.setProperty(UI_SIMILAR_JOBS_SIZE, "10");
+        DEFAULTS.setProperty(UI_ALSO_APPLIED_SIZE, "10");
+        DEFAULTS.setProperty(UI_APPLICANTS_PAGE_SIZE, "100");
+        DEFAULTS.setProperty(UI_INBOX_CHECK_MILLIS, "60000");
+
+        range(DB_READ_YOUR_WRITES_MILLIS, 0, Long.MAX_VALUE);
+        range(DB_POOL_SIZE, 1, 100);
+        range(DB_POOL_WAIT_MILLIS, 0, Long.MAX_VALUE);
+        range(DB_QUERY_TIMEOUT_SECONDS, 0, Integer.MAX_VALUE); // 0 = no timeout.
+        range(DB_RETRY_ATTEMPTS, 1, 20);
+        range(DB_RETRY_BASE_DELAY_MILLIS, 0, 60_000);
+        range(DB_BREAKER_FAILURES, 1, Integer.MAX_VALUE);
+        range(DB_BREAKER_OPEN_MILLIS, 0, Long.MAX_VALUE);
+        range(DB_EXPORT_FETCH_SIZE, Integer.MIN_VALUE, Integer.MAX_VALUE); // MIN_VALUE is MySQL's "stream".
+        range(CACHE_PROFILE_SIZE, 1, Integer.MAX_VALUE);
+        range(JOBS_LIFETIME_DAYS, 1, 36_500);
+        range(JOBS_ARCHIVE_BATCH_SIZE, 1, 100_000);
+        range(GRAPH_RELOAD_MINUTES, 1, Long.MAX_VALUE);
+        range(AUDIT_SEGMENT_BYTES, 1024, Long.MAX_VALUE);
+        range(AUDIT_MAX_SEGMENTS, 1, Integer.MAX_VALUE);
+        range(DASHBOARD_LOADER_THREADS, 1, 64);
+        range(DASHBOARD_DEADLINE_MILLIS, 1, Long.MAX_VALUE);
+        range(UI_BEST_MATCHES_PAGE_SIZE, 1, 10_000);
+        range(UI_INBOX_SIZE, 1, 10_000);
+        range(UI_SIMILAR_JOBS_SIZE, 1, 1_000);
+        range(UI_ALSO_APPLIED_SIZE, 1, 1_000);
+        range(UI_APPLICANTS_PAGE_SIZE, 1, 10_000);
+        range(UI_INBOX_CHECK_MILLIS, 1_000, Integer.MAX_VALUE);
+    }
+
+    private static void range(String key, long min, long max) {
+        RANGES.put(key, new long[] {min, max});
+    }
+
+    private static final AppConfig INSTANCE = new AppConfig(defaultFile(), System.getenv());
+
+    private final Path file;
+    private final Map<String, String> environment;
+    private volatile Properties settings; // Swapped as a whole on reload, so readers never see half a file.
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    // CN 5: Constructor (private - use AppConfig.get()).
+    private AppConfig(Path file, Map<String, String> environment) {
+        this.file = file;
+        this.environment = environment;
+        this.settings = read();
+        startWatching();
+    }
+
+    /**
+     * The shared settings object.
+     */
+    public static AppConfig get() {
+        return INSTANCE;
+    }
+
+    // --- Typed getters ---
+
+    public String getString(String key) {
+        return settings.getProperty(key, "");
+    }
+
+    // A bad number in the file falls back to the default instead of stopping the program.
+    public int getInt(String key) {
+        try {
+            return Integer.parseInt(getString(key).trim());
+        } catch (NumberFormatException e) { // CN 13: Handling bad input.
+            System.err.println("Setting " + key + " is not a whole number, using the default.");
+            return Integer.parseInt(DEFAULTS.getProperty(key));
+        }
+    }
+
+    public long getLong(String key) {
+        try {
+            return Long.parseLong(getString(key).trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Setting " + key + " is not a whole number, using the default.");
+            return Long.parseLong(DEFAULTS.getProperty(key));
+        }
+    }
+
+    public boolean getBoolean(String key) {
+        return Boolean.parseBoolean(getString(key).trim());
+    }
+
+    /**
+     * Runs 'listener' every time the settings file is read again.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reads the settings again (also called by the file watcher).
+     */
+    public void reload() {
+        settings = read();
+        System.out.println("Settings reloaded from " + file);
+        for (Runnable listener : listeners) { // CN 1: For-each loop.
+            try { // CN 13: One broken listener must not stop the others from hearing about the change.
+                listener.run();
+            } catch (RuntimeException e) {
+                System.err.println("Problem applying new settings: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Defaults, then the file, then environment variables.
+    private Properties read() {
+        Properties merged = new Properties();
+        merged.putAll(DEFAULTS);
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) { // CN 13: try-with-resources.
+                merged.load(in);
+            } catch (IOException e) { // CN 13: Catching file errors.
+                System.err.println("Problem reading settings file " + file + ": " + e.getMessage());
+            }
+        }
+        for (String key : DEFAULTS.stringPropertyNames()) {
+            String value = environment.get("JOBLIT_" + key.toUpperCase().replace('.', '_'));
+            if (value != null) {
+                merged.setProperty(key, value);
+            }
+        }
+        for (Map.Entry<String, long[]> entry : RANGES.entrySet()) { // Numbers outside their range get the default.
+            String key = entry.getKey();
+            long[] range = entry.getValue();
+            try {
+                long value = Long.parseLong(merged.getProperty(key).trim());
+                if (value < range[0] || value > range[1]) {
+                    System.err.println("Setting " + key + " must be between " + range[0] + " and " + range[1] + ", using the default.");
+                    merged.setProperty(key, DEFAULTS.getProperty(key));
+                }
+            } catch (NumberFormatException e) { // CN 13: Handling bad input.
+                System.err.println("Setting " + key + " is not a whole number, using the default.");
+                merged.setProperty(key, DEFAULTS.getProperty(key));
+            }
+        }
+        return merged;
+    }
+
+    // Watches the settings file's folder on a background thread and reloads when the file changes.
+    // The folder is made if it isn't there yet, so a settings file created later is still seen.
+    private void startWatching() {
+        Path folder = file.toAbsolutePath().getParent();
+        if (folder == null) {
+            return; // No folder, nothing to watch.
+        }
+        try {
+            Files.createDirectories(folder);
+            WatchService watcher = FileSystems.getDefault().newWatchService();
+            folder.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            Thread thread = new Thread(() -> watch(watcher), "config-watcher");
+            thread.setDaemon(true); // Don't keep the program alive just for this thread.
+            thread.start();
+        } catch (IOException e) { // CN 13: Catching file errors.
+            System.err.println("Cannot watch settings file, changes need a restart: " + e.getMessage());
+        }
+    }
+
+    private void watch(WatchService watcher) {
+        try {
+            while (true) { // CN 1: While loop - waits for file changes until the program ends.
+                WatchKey key = watcher.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (file.getFileName().equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Program is finishing.
+        }
+    }
+
+    private static Path defaultFile() {
+        String path = System.getProperty("joblit.config");
+        return path != null ? Paths.get(path) : Paths.get(System.getProperty("user.home"), ".joblit", "joblit.properties");
+    }
+}
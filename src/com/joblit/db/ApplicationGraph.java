@@ -0,0 +1,271 @@
+package com.joblit.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * ApplicationGraph.java
+ * A copy in memory of who applied for what (the applications table), so questions like
+ * "has this seeker already applied?" don't need a database trip.
+ * - For each seeker: a sorted int array of job ids. For each job: a sorted int array of seeker ids.
+ * - A set of (seeker, job) pairs answers "has applied" in one look-up.
+ * - Reading never locks. Changes make a new, slightly bigger or smaller array and swap it in
+ *   ("copy-on-write"), so a reader always sees a whole array. Changes are rare next to reads.
+ * - Applications made on other computers are picked up every few seconds (loadNew()), by
+ *   reading only the ones newer than the newest we have. Applications deleted elsewhere are
+ *   only seen when the whole graph is loaded again (load()), which is done less often.
+ *   Changes made while loading are replayed on the new copy.
+ * So the graph can be a little behind: callers use it as a quick first answer and ask the
+ * database when a wrong answer would matter. Until the first load has finished, isReady()
+ * is false and callers should ask the database.
+ * CN 2: Uses Maps, a Set and int arrays (Data Structures).
+ */
+public class ApplicationGraph {
+
+    private static final int[] NONE = new int[0];
+
+    // One complete copy of the graph.
+    private static class State {
+        final Map<Integer, int[]> jobsBySeeker = new ConcurrentHashMap<>();
+        final Map<Integer, int[]> seekersByJob = new ConcurrentHashMap<>();
+        final Set<Long> pairs = ConcurrentHashMap.newKeySet();
+    }
+
+    // How far back loadNew() looks before the newest application seen, for applications
+    // saved in a transaction that finished a little after its application_date.
+    private static final long NEW_OVERLAP_MILLIS = 60_000;
+
+    private volatile State state = null; // null until loaded.
+    private List<Consumer<State>> changesDuringLoad = null; // Not null while a load is running.
+    private volatile Timestamp newestSeen = null; // application_date of the newest application read.
+
+    public boolean isReady() {
+        return state != null;
+    }
+
+    /**
+     * True if the seeker has applied for the job. Only meaningful when isReady().
+     */
+    public boolean hasApplied(int seekerId, int jobId) {
+        State current = state;
+        return current != null && current.pairs.contains(pairKey(seekerId, jobId));
+    }
+
+    /**
+     * Job ids the seeker applied for, sorted. The array must not be changed.
+     */
+    public int[] jobsOf(int seekerId) {
+        State current = state;
+        return current == null ? NONE : current.jobsBySeeker.getOrDefault(seekerId, NONE);
+    }
+
+    /**
+     * Seeker ids who applied for the job, sorted. The array must not be changed.
+     */
+    public int[] applicantsOf(int jobId) {
+        State current = state;
+        return current == null ? NONE : current.seekersByJob.getOrDefault(jobId, NONE);
+    }
+
+    /**
+     * The job id array of every seeker (seeker id -> sorted job ids), e.g. to count which jobs
+     * are applied for together. The arrays must not be changed.
+     */
+    public Map<Integer, int[]> jobListsBySeeker() {
+        State current = state;
+        return current == null ? new HashMap<>() : new HashMap<>(current.jobsBySeeker);
+    }
+
+    // --- Changes (called after the database change worked) ---
+
+    public void add(int seekerId, int jobId) {
+        change(s -> addTo(s, seekerId, jobId));
+    }
+
+    public void removeJob(int jobId) {
+        change(s -> {
+            for (int seekerId : s.seekersByJob.getOrDefault(jobId, NONE)) { // CN 1: For-each loop.
+                removeFrom(s, seekerId, jobId);
+            }
+        });
+    }
+
+    public void removeSeeker(int seekerId) {
+        change(s -> {
+            for (int jobId : s.jobsBySeeker.getOrDefault(seekerId, NONE)) {
+                removeFrom(s, seekerId, jobId);
+            }
+        });
+    }
+
+    // Writers take turns; readers never wait.
+    private synchronized void change(Consumer<State> change) {
+        if (state != null) {
+            change.accept(state);
+        }
+        if (changesDuringLoad != null) {
+            changesDuringLoad.add(change); // Also do it on the copy being loaded.
+        }
+    }
+
+    /**
+     * (Re)loads the whole graph from the applications table using the given connection.
+     * The old copy keeps answering until the new one is ready.
+     */
+    public void load(Connection connection) throws SQLException {
+        synchronized (this) {
+            changesDuringLoad = new ArrayList<>();
+        }
+        try {
+            Map<Integer, List<Integer>> jobs = new HashMap<>();
+            Map<Integer, List<Integer>> seekers = new HashMap<>();
+            State fresh = new State();
+            Timestamp newest = null;
+            try (Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(Integer.MIN_VALUE); // Stream the rows instead of holding them all.
+                try (ResultSet rs = stmt.executeQuery("SELECT seeker_id, job_id, application_date FROM applications")) {
+                    while (rs.next()) { // CN 1: While loop.
+                        int seekerId = rs.getInt(1);
+                        int jobId = rs.getInt(2);
+                        Timestamp applied = rs.getTimestamp(3);
+                        if (applied != null && (newest == null || applied.after(newest))) {
+                            newest = applied;
+                        }
+                        if (fresh.pairs.add(pairKey(seekerId, jobId))) {
+                            jobs.computeIfAbsent(seekerId, k -> new ArrayList<>()).add(jobId);
+                            seekers.computeIfAbsent(jobId, k -> new ArrayList<>()).add(seekerId);
+                        }
+                    }
+                }
+            }
+            jobs.forEach((seekerId, list) -> fresh.jobsBySeeker.put(seekerId, sortedArray(list)));
+            seekers.forEach((jobId, list) -> fresh.seekersByJob.put(jobId, sortedArray(list)));
+
+            synchronized (this) {
+                for (Consumer<State> change : changesDuringLoad) {
+                    change.accept(fresh); // Safe to repeat: adding twice or removing twice does nothing.
+                }
+                state = fresh;
+                newestSeen = newest;
+            }
+        } finally {
+            synchronized (this) {
+                changesDuringLoad = null;
+            }
+        }
+    }
+
+    /**
+     * Adds the applications made since the newest one we have (e.g. on other computers).
+     * Gives back the (seeker id, job id) pairs that were not in the graph yet, so other
+     * indexes can be told about them. Does nothing before the first load().
+     */
+    public List<int[]> loadNew(Connection connection) throws SQLException {
+        Timestamp since = newestSeen;
+        List<int[]> added = new ArrayList<>();
+        if (state == null) return added;
+        List<int[]> found = new ArrayList<>();
+        Timestamp newest = since;
+        String sql = since == null ? "SELECT seeker_id, job_id, application_date FROM applications"
+                : "SELECT seeker_id, job_id, application_date FROM applications WHERE application_date >= ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            if (since != null) {
+                pstmt.setTimestamp(1, new Timestamp(since.getTime() - NEW_OVERLAP_MILLIS));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) { // CN 1: While loop.
+                    found.add(new int[] {rs.getInt(1), rs.getInt(2)});
+                    Timestamp applied = rs.getTimestamp(3);
+                    if (applied != null && (newest == null || applied.after(newest))) {
+                        newest = applied;
+                    }
+                }
+            }
+        }
+        synchronized (this) {
+            for (int[] pair : found) {
+                if (addTo(state, pair[0], pair[1])) {
+                    added.add(pair);
+                }
+                if (changesDuringLoad != null) {
+                    changesDuringLoad.add(s -> addTo(s, pair[0], pair[1]));
+                }
+            }
+            if (newest != null && (newestSeen == null || newest.after(newestSeen))) {
+                newestSeen = newest;
+            }
+        }
+        return added;
+    }
+
+    // True if the pair was new.
+    private static boolean addTo(State s, int seekerId, int jobId) {
+        if (!s.pairs.add(pairKey(seekerId, jobId))) return false;
+        s.jobsBySeeker.put(seekerId, withAdded(s.jobsBySeeker.getOrDefault(seekerId, NONE), jobId));
+        s.seekersByJob.put(jobId, withAdded(s.seekersByJob.getOrDefault(jobId, NONE), seekerId));
+        return true;
+    }
+
+    private static void removeFrom(State s, int seekerId, int jobId) {
+        if (s.pairs.remove(pairKey(seekerId, jobId))) {
+            putOrRemove(s.jobsBySeeker, seekerId, withRemoved(s.jobsBySeeker.getOrDefault(seekerId, NONE), jobId));
+            putOrRemove(s.seekersByJob, jobId, withRemoved(s.seekersByJob.getOrDefault(jobId, NONE), seekerId));
+        }
+    }
+
+    private static void putOrRemove(Map<Integer, int[]> map, int key, int[] values) {
+        if (values.length == 0) {
+            map.remove(key);
+        } else {
+            map.put(key, values);
+        }
+    }
+
+    // A new sorted array with 'value' added.
+    private static int[] withAdded(int[] sorted, int value) {
+        int at = Arrays.binarySearch(sorted, value);
+        if (at >= 0) return sorted; // Already there.
+        at = -at - 1; // Where it should go.
+        int[] copy = new int[sorted.length + 1];
+        System.arraycopy(sorted, 0, copy, 0, at);
+        copy[at] = value;
+        System.arraycopy(sorted, at, copy, at + 1, sorted.length - at);
+        return copy;
+    }
+
+    // A new sorted array with 'value' taken out.
+    private static int[] withRemoved(int[] sorted, int value) {
+        int at = Arrays.binarySearch(sorted, value);
+        if (at < 0) return sorted;
+        int[] copy = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, copy, 0, at);
+        System.arraycopy(sorted, at + 1, copy, at, sorted.length - at - 1);
+        return copy;
+    }
+
+    private static int[] sortedArray(List<Integer> list) {
+        int[] values = new int[list.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = list.get(i);
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    // Both ids packed into one long, used as the key of the pairs set.
+    private static long pairKey(int seekerId, int jobId) {
+        return ((long) seekerId << 32) | (jobId & 0xffffffffL);
+    }
+}
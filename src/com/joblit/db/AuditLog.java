@@ -0,0 +1,236 @@
+package com.joblit.db;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import com.joblit.config.AppConfig;
+
+/**
+ * AuditLog.java
+ * Keeps a record of who posted, edited, deleted or applied for what.
+ * Recording an event must not slow down the database write it belongs to, so:
+ * - Events go into a fixed ring of pre-made slots (like the LMAX Disruptor). A writer
+ *   takes the next sequence number with one atomic add, fills that slot and marks it
+ *   as published. No locks, and nothing is made per event except the text passed in.
+ * - One background thread ("audit-writer") takes every published event in order and
+ *   writes them to the current segment file in one go (a batch), then frees their slots.
+ *   When there is nothing to write it sleeps, and the next record() wakes it up
+ *   (so an idle program doesn't keep a thread checking the ring).
+ * - Segment files (audit-00001.log, audit-00002.log, ...) are only ever appended to.
+ *   When one gets bigger than audit.segmentBytes the next one is started, and only the
+ *   newest audit.maxSegments files are kept.
+ * If the writer falls so far behind that the ring is full, recording waits for a free slot
+ * rather than losing the event.
+ * Each line is: time, action, actor id, target id, detail (separated by tabs).
+ * CN 2: Uses arrays (Data Structures).
+ */
+public class AuditLog {
+
+    private static final int CAPACITY = 8192; // Slots in the ring (a power of two).
+    private static final int MASK = CAPACITY - 1;
+    // Longest writer sleep when there's nothing to do; record() wakes it up sooner.
+    private static final long IDLE_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    // One slot of the ring; reused for every event that lands in it.
+    private static class Slot {
+        long time;
+        String action;
+        int actorId;
+        int targetId;
+        String detail;
+    }
+
+    private final Slot[] slots = new Slot[CAPACITY];
+    private final AtomicLongArray published = new AtomicLongArray(CAPACITY); // Sequence last published in each slot.
+    private final AtomicLong nextSequence = new AtomicLong(0);
+    private volatile long consumed = -1; // Last sequence the writer is done with (its slot is free again).
+    private volatile boolean running = true;
+    private volatile boolean writerSleeping = false; // True while the writer waits for events.
+
+    private final Path directory;
+    private final AppConfig config;
+    private final Thread writerThread;
+    private OutputStream segment; // Only used by the writer thread.
+    private long segmentSize;
+    private int segmentNumber;
+
+    // CN 5: Constructor. Starts the background writer straight away.
+    public AuditLog(Path directory, AppConfig config) {
+        this.directory = directory;
+        this.config = config;
+        for (int i = 0; i < CAPACITY; i++) { // CN 1: For loop.
+            slots[i] = new Slot();
+            published.set(i, -1);
+        }
+        writerThread = new Thread(this::writeLoop, "audit-writer");
+        writerThread.setDaemon(true); // close() makes sure everything is written before the end.
+        writerThread.start();
+    }
+
+    /**
+     * Records one event. Safe to call from any thread; usually takes well under a microsecond.
+     * Use 0 for an actor or target that isn't known.
+     */
+    public void record(String action, int actorId, int targetId, String detail) {
+        long sequence = nextSequence.getAndIncrement(); // Our own slot; no other writer gets it.
+        while (sequence - consumed > CAPACITY) { // CN 1: While loop - ring full, wait for the writer.
+            if (!writerThread.isAlive()) return; // Closed: nobody would ever free the slot.
+            LockSupport.parkNanos(1000);
+        }
+        Slot slot = slots[(int) sequence & MASK];
+        slot.time = System.currentTimeMillis();
+        slot.action = action;
+        slot.actorId = actorId;
+        slot.targetId = targetId;
+        slot.detail = detail;
+        // Makes the slot's fields visible to the writer. A full volatile write (not lazySet), so
+        // it can't be reordered with the read below: either the writer sees this event before
+        // it sleeps, or we see that it sleeps and wake it.
+        published.set((int) sequence & MASK, sequence);
+        if (writerSleeping) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * Writes every event recorded so far and stops the writer (called when the program closes).
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The background writer: batches published events into the segment file.
+    private void writeLoop() {
+        StringBuilder batch = new StringBuilder(64 * 1024);
+        while (true) {
+            long from = consumed + 1;
+            long to = from - 1;
+            while (to - from + 1 < CAPACITY && published.get((int) (to + 1) & MASK) == to + 1) {
+                to++; // Take every event published in order without a gap.
+            }
+            if (to < from) {
+                if (!running && nextSequence.get() == from) {
+                    break; // Closed and everything is written.
+                }
+                writerSleeping = true;
+                if (published.get((int) from & MASK) != from && running) { // Look once more after saying we sleep.
+                    LockSupport.parkNanos(IDLE_WAIT_NANOS);
+                }
+                writerSleeping = false;
+                continue;
+            }
+            batch.setLength(0);
+            for (long sequence = from; sequence <= to; sequence++) {
+                Slot slot = slots[(int) sequence & MASK];
+                appendLine(batch, slot);
+                slot.action = null; // Let the texts be garbage collected.
+                slot.detail = null;
+            }
+            consumed = to; // The slots can be used again.
+            write(batch);
+        }
+        closeSegment();
+    }
+
+    private static void appendLine(StringBuilder out, Slot slot) {
+        out.append(Instant.ofEpochMilli(slot.time)).append('\t')
+                .append(slot.action).append('\t')
+                .append(slot.actorId).append('\t')
+                .append(slot.targetId).append('\t');
+        String detail = slot.detail;
+        if (detail != null) {
+            for (int i = 0; i < detail.length(); i++) { // Keep each event on one line.
+                char ch = detail.charAt(i);
+                out.append(ch == '\t' || ch == '\n' || ch == '\r' ? ' ' : ch);
+            }
+        }
+        out.append('\n');
+    }
+
+    private void write(StringBuilder batch) {
+        byte[] bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+        try { // CN 13: Handling file errors.
+            if (segment == null || segmentSize + bytes.length > config.getLong(AppConfig.AUDIT_SEGMENT_BYTES)) {
+                startNextSegment();
+            }
+            segment.write(bytes);
+            segment.flush();
+            segmentSize += bytes.length;
+        } catch (IOException e) {
+            // Auditing must never stop the program; the batch is lost, later ones try again.
+            System.err.println("Problem writing audit log: " + e.getMessage());
+            closeSegment();
+        }
+    }
+
+    // Closes the current segment and opens the next one, removing the oldest beyond the limit.
+    private void startNextSegment() throws IOException {
+        closeSegment();
+        Files.createDirectories(directory);
+        List<Path> existing = listSegments();
+        if (segmentNumber == 0 && !existing.isEmpty()) {
+            segmentNumber = numberOf(existing.get(existing.size() - 1)); // Carry on from the last run.
+        }
+        segmentNumber++;
+        Path file = directory.resolve(String.format("%s%05d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+        segment = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        segmentSize = Files.size(file);
+        existing.add(file);
+        int keep = Math.max(1, config.getInt(AppConfig.AUDIT_MAX_SEGMENTS));
+        for (int i = 0; i < existing.size() - keep; i++) {
+            Files.deleteIfExists(existing.get(i));
+        }
+    }
+
+    // The segment files in the directory, oldest (lowest number) first.
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                if (numberOf(file) > 0) segments.add(file);
+            }
+        }
+        Collections.sort(segments, (a, b) -> Integer.compare(numberOf(a), numberOf(b)));
+        return segments;
+    }
+
+    private static int numberOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            return 0; // Not one of ours.
+        }
+    }
+
+    private void closeSegment() {
+        if (segment == null) return;
+        try {
+            segment.close();
+        } catch (IOException e) {
+            System.err.println("Problem closing audit log: " + e.getMessage());
+        }
+        segment = null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.joblit.db;
+
+/**
+ * CircuitBreaker.java
+ * Stops sending queries to a database that keeps failing, so the window doesn't wait
+ * on every click while the database is down.
+ * - CLOSED (normal): queries go through. After 'failureThreshold' failures in a row it opens.
+ * - OPEN: queries are refused straight away for 'openMillis'. Callers use saved data instead.
+ * - After that time exactly one thread may try ("half open"); everyone else is still refused.
+ *   If the try works the breaker closes, if it fails it opens again for another 'openMillis'.
+ *   A trial that never reports back (e.g. it was cancelled) lets another thread try after
+ *   'openMillis'. So only callers that report the result with recordSuccess/recordFailure
+ *   should use allowRequest(); others just check isOpen() and never take the trial.
+ */
+public class CircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private int failuresInARow = 0;
+    private long openUntil = 0; // 0 when closed.
+    private Thread trialThread = null; // The one thread let through while half open.
+    private long trialUntil = 0;
+
+    // CN 5: Constructor.
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * False while the breaker is open (the database should not be asked).
+     */
+    public synchronized boolean allowRequest() {
+        if (openUntil == 0) return true; // CN 1: If - closed.
+        long now = System.currentTimeMillis();
+        if (now < openUntil) return false;
+        Thread current = Thread.currentThread();
+        if (trialThread == current) return true; // Its later statements are part of the same try.
+        if (trialThread != null && now < trialUntil) return false; // Someone else is trying.
+        trialThread = current;
+        trialUntil = now + openMillis;
+        return true;
+    }
+
+    /**
+     * True while queries are refused outright (open, and the wait is not over yet).
+     * Doesn't take the trial.
+     */
+    public synchronized boolean isOpen() {
+        return openUntil != 0 && System.currentTimeMillis() < openUntil;
+    }
+
+    /**
+     * True when everything is normal (no recent run of failures).
+     */
+    public synchronized boolean isClosed() {
+        return openUntil == 0;
+    }
+
+    public synchronized void recordSuccess() {
+        if (openUntil != 0) {
+            System.out.println("Database is answering again.");
+        }
+        failuresInARow = 0;
+        openUntil = 0;
+        trialThread = null;
+    }
+
+    public synchronized void recordFailure() {
+        failuresInARow++;
+        boolean halfOpen = openUntil != 0; // The one try after waiting failed too.
+        if (halfOpen || failuresInARow >= failureThreshold) { // CN 1: If
+            openUntil = System.currentTimeMillis() + openMillis;
+            trialThread = null;
+            System.err.println("Database keeps failing, pausing queries for " + openMillis + " ms.");
+        }
+    }
+}
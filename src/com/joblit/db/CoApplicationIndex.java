@@ -0,0 +1,320 @@
+package com.joblit.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * CoApplicationIndex.java
+ * "People who applied for this job also applied for ...".
+ * For every pair of jobs we count how many seekers applied for both, and keep the
+ * TOP_N most shared jobs of each job ready to show.
+ * - The counts are kept in a hash table made only of long and int arrays (key = both
+ *   job ids in one long), not in a Map of objects, so millions of pairs stay small.
+ * - Building splits the seekers over all CPU cores; each part counts into its own
+ *   table and the tables are added together at the end.
+ * - Seekers who applied for more than MAX_JOBS_PER_SEEKER jobs are left out: they would
+ *   add a huge number of pairs and say little about which jobs go together.
+ * - The job list each seeker was counted with is kept. When a seeker's applications change
+ *   (applied, withdrew, applied again, deleted), seekerChanged() gets their new list and
+ *   only the pairs that differ are counted up or down. Whether a seeker is counted at all
+ *   is decided from the whole old list and the whole new list, so crossing the limit in
+ *   either direction keeps the counts right, and giving the same list twice changes nothing.
+ * - The whole index is built again after each application graph reload, which also tidies
+ *   up the top lists. Changes made while building are replayed on the new index.
+ * CN 2: Uses arrays and Maps (Data Structures).
+ */
+public class CoApplicationIndex {
+
+    public static final int TOP_N = 20; // Shared jobs kept per job.
+    private static final int MAX_JOBS_PER_SEEKER = 200;
+
+    // Open addressing hash table from a long key to an int count (no objects per entry).
+    private static class PairCounter {
+        private static final long EMPTY = -1L; // Job ids are positive, so this key never happens.
+        private long[] keys;
+        private int[] counts;
+        private int size;
+
+        PairCounter(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1;
+            keys = new long[capacity];
+            counts = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        // Adds 'delta' to the count of the key and gives back the new count (removed at 0).
+        int add(long key, int delta) {
+            int slot = find(key);
+            if (keys[slot] == EMPTY) {
+                if (delta <= 0) return 0;
+                keys[slot] = key;
+                size++;
+            }
+            counts[slot] += delta;
+            int count = counts[slot];
+            if (count <= 0) {
+                removeAt(slot);
+                count = 0;
+            } else if (size * 2 > keys.length) {
+                grow();
+            }
+            return count;
+        }
+
+        void addAll(PairCounter other) {
+            for (int i = 0; i < other.keys.length; i++) {
+                if (other.keys[i] != EMPTY) add(other.keys[i], other.counts[i]);
+            }
+        }
+
+        // The slot holding the key, or the empty slot where it would go.
+        private int find(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) mix(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) { // CN 1: While loop - try the next slot.
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        // Takes a key out and moves later keys of the same run back, so look-ups still find them.
+        private void removeAt(int slot) {
+            int mask = keys.length - 1;
+            keys[slot] = EMPTY;
+            counts[slot] = 0;
+            size--;
+            int next = (slot + 1) & mask;
+            while (keys[next] != EMPTY) {
+                long key = keys[next];
+                int count = counts[next];
+                keys[next] = EMPTY;
+                counts[next] = 0;
+                int to = find(key);
+                keys[to] = key;
+                counts[to] = count;
+                next = (next + 1) & mask;
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int to = find(oldKeys[i]);
+                    keys[to] = oldKeys[i];
+                    counts[to] = oldCounts[i];
+                }
+            }
+        }
+
+        private static long mix(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            return key ^ (key >>> 33);
+        }
+    }
+
+    // The best shared jobs of one job, most shared first (kept small, so simple arrays are fine).
+    private static class TopList {
+        int[] jobIds = new int[0];
+        int[] counts = new int[0];
+
+        // Puts the job in with its new count (or takes it out at 0), keeping at most TOP_N.
+        void offer(int jobId, int count) {
+            int at = indexOf(jobId);
+            if (at >= 0) {
+                removeAt(at);
+            }
+            if (count <= 0 || (jobIds.length >= TOP_N && count <= counts[counts.length - 1])) {
+                return;
+            }
+            int pos = 0;
+            while (pos < counts.length && counts[pos] >= count) pos++;
+            int size = Math.min(jobIds.length + 1, TOP_N);
+            int[] newIds = new int[size];
+            int[] newCounts = new int[size];
+            for (int i = 0, from = 0; i < size; i++) {
+                if (i == pos) {
+                    newIds[i] = jobId;
+                    newCounts[i] = count;
+                } else {
+                    newIds[i] = jobIds[from];
+                    newCounts[i] = counts[from++];
+                }
+            }
+            jobIds = newIds;
+            counts = newCounts;
+        }
+
+        private int indexOf(int jobId) {
+            for (int i = 0; i < jobIds.length; i++) {
+                if (jobIds[i] == jobId) return i;
+            }
+            return -1;
+        }
+
+        private void removeAt(int at) {
+            int[] newIds = new int[jobIds.length - 1];
+            int[] newCounts = new int[counts.length - 1];
+            System.arraycopy(jobIds, 0, newIds, 0, at);
+            System.arraycopy(jobIds, at + 1, newIds, at, newIds.length - at);
+            System.arraycopy(counts, 0, newCounts, 0, at);
+            System.arraycopy(counts, at + 1, newCounts, at, newCounts.length - at);
+            jobIds = newIds;
+            counts = newCounts;
+        }
+    }
+
+    private static final int[] NONE = new int[0];
+
+    private PairCounter pairs = new PairCounter(16);
+    private Map<Integer, TopList> tops = new HashMap<>();
+    private Map<Integer, int[]> countedJobs = new HashMap<>(); // Seeker id -> the sorted job ids counted for them.
+    private List<Object[]> changesDuringBuild = null; // {seeker id, jobs}; not null while rebuild() runs.
+
+    /**
+     * Counts everything again (in parallel) from every seeker's applied job ids (seeker id ->
+     * sorted job ids). The lists are asked for after changes start being recorded, so a change
+     * made while building is in the lists, replayed afterwards, or both (which does no harm).
+     * If jobLists gives back null, the old index is kept.
+     */
+    public void rebuild(Supplier<Map<Integer, int[]>> jobLists) {
+        synchronized (this) {
+            changesDuringBuild = new ArrayList<>();
+        }
+        try {
+            Map<Integer, int[]> bySeeker = jobLists.get();
+            if (bySeeker != null) {
+                rebuildFrom(bySeeker);
+            }
+        } finally {
+            synchronized (this) {
+                changesDuringBuild = null;
+            }
+        }
+    }
+
+    private void rebuildFrom(Map<Integer, int[]> bySeeker) {
+        List<int[]> lists = new ArrayList<>(bySeeker.values());
+        int parts = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), lists.size()));
+        PairCounter[] counted = new PairCounter[parts];
+        Thread[] workers = new Thread[parts];
+        for (int p = 0; p < parts; p++) { // CN 1: For loop - one counting thread per part.
+            int part = p;
+            workers[p] = new Thread(() -> {
+                PairCounter counter = new PairCounter(1024);
+                for (int i = part; i < lists.size(); i += parts) {
+                    int[] jobs = lists.get(i);
+                    if (jobs.length > MAX_JOBS_PER_SEEKER) continue;
+                    for (int a = 0; a < jobs.length; a++) {
+                        for (int b = a + 1; b < jobs.length; b++) {
+                            counter.add(pairKey(jobs[a], jobs[b]), 1);
+                        }
+                    }
+                }
+                counted[part] = counter;
+            }, "co-application-count");
+            workers[p].start();
+        }
+        PairCounter total = null;
+        for (int p = 0; p < parts; p++) {
+            try {
+                workers[p].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return; // Keep the old index.
+            }
+            if (total == null) {
+                total = counted[p];
+            } else {
+                total.addAll(counted[p]);
+            }
+        }
+
+        Map<Integer, TopList> freshTops = new HashMap<>();
+        PairCounter all = total;
+        for (int i = 0; i < all.keys.length; i++) {
+            long key = all.keys[i];
+            if (key != PairCounter.EMPTY) {
+                int first = (int) (key >>> 32);
+                int second = (int) key;
+                freshTops.computeIfAbsent(first, k -> new TopList()).offer(second, all.counts[i]);
+                freshTops.computeIfAbsent(second, k -> new TopList()).offer(first, all.counts[i]);
+            }
+        }
+        synchronized (this) {
+            pairs = all;
+            tops = freshTops;
+            countedJobs = new HashMap<>(bySeeker);
+            for (Object[] change : changesDuringBuild) { // Made while counting.
+                update((Integer) change[0], (int[]) change[1]);
+            }
+        }
+    }
+
+    /**
+     * A seeker's applications changed; jobs are all the job ids they now count with
+     * (applied for and not withdrawn), sorted. An empty array takes the seeker out.
+     */
+    public synchronized void seekerChanged(int seekerId, int[] jobs) {
+        update(seekerId, jobs);
+        if (changesDuringBuild != null) {
+            changesDuringBuild.add(new Object[] {seekerId, jobs}); // Also do it on the index being built.
+        }
+    }
+
+    /**
+     * Up to 'limit' job ids most often applied for together with this job, most shared first.
+     */
+    public synchronized int[] alsoApplied(int jobId, int limit) {
+        TopList top = tops.get(jobId);
+        return top == null ? new int[0] : Arrays.copyOf(top.jobIds, Math.min(limit, top.jobIds.length));
+    }
+
+    // Counts down the pairs only in the old list and up the pairs only in the new one.
+    private void update(int seekerId, int[] jobs) {
+        int[] old = countedJobs.getOrDefault(seekerId, NONE);
+        // Seekers over the limit are left out of the counts, same as when building.
+        boolean oldCounted = old.length <= MAX_JOBS_PER_SEEKER;
+        boolean newCounted = jobs.length <= MAX_JOBS_PER_SEEKER;
+        if (oldCounted) {
+            changePairs(old, newCounted ? jobs : NONE, -1);
+        }
+        if (newCounted) {
+            changePairs(jobs, oldCounted ? old : NONE, 1);
+        }
+        if (jobs.length == 0) {
+            countedJobs.remove(seekerId);
+        } else {
+            countedJobs.put(seekerId, jobs);
+        }
+    }
+
+    // Adds delta to every pair of 'jobs' that is not also a pair of 'other' (both sorted).
+    private void changePairs(int[] jobs, int[] other, int delta) {
+        for (int a = 0; a < jobs.length; a++) { // CN 1: For loop.
+            boolean aInOther = Arrays.binarySearch(other, jobs[a]) >= 0;
+            for (int b = a + 1; b < jobs.length; b++) {
+                if (aInOther && Arrays.binarySearch(other, jobs[b]) >= 0) continue; // Same pair in both.
+                int count = pairs.add(pairKey(jobs[a], jobs[b]), delta);
+                tops.computeIfAbsent(jobs[a], k -> new TopList()).offer(jobs[b], count);
+                tops.computeIfAbsent(jobs[b], k -> new TopList()).offer(jobs[a], count);
+            }
+        }
+    }
+
+    // Both job ids in one long, smaller id first, so (a, b) and (b, a) are the same pair.
+    private static long pairKey(int a, int b) {
+        int low = Math.min(a, b);
+        int high = Math.max(a, b);
+        return ((long) low << 32) | (high & 0xffffffffL);
+    }
+}
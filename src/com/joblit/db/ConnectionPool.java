@@ -0,0 +1,130 @@
+package com.joblit.db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConnectionPool.java
+ * A small set of extra database connections for queries that run at the same time.
+ * One JDBC connection can only run one query at a time, so threads that want to
+ * query in parallel each borrow their own connection here and give it back after.
+ * Connections are only opened when first needed, up to 'size' of them.
+ */
+public class ConnectionPool {
+
+    private static final int VALID_CHECK_SECONDS = 1;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int size;
+    private final BlockingQueue<Connection> idle;
+    private final List<Connection> all = new ArrayList<>();
+
+    // CN 5: Constructor.
+    public ConnectionPool(String url, String user, String password, int size) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.size = size;
+        this.idle = new ArrayBlockingQueue<>(size);
+    }
+
+    /**
+     * Gives back a free connection, opening a new one if the pool isn't full yet.
+     * Waits at most waitMillis for one to be given back, then throws SQLException.
+     */
+    public Connection borrow(long waitMillis) throws SQLException, InterruptedException {
+        Connection connection = idle.poll();
+        if (connection == null) {
+            synchronized (this) {
+                if (all.size() < size) { // CN 1: If - room for one more.
+                    connection = DriverManager.getConnection(url, user, password);
+                    all.add(connection);
+                    return connection;
+                }
+            }
+            connection = idle.poll(waitMillis, TimeUnit.MILLISECONDS);
+            if (connection == null) {
+                throw new SQLException("No free database connection after " + waitMillis + " ms");
+            }
+        }
+        if (!connection.isValid(VALID_CHECK_SECONDS)) { // Broken (e.g. server restarted) - open a fresh one.
+            synchronized (this) {
+                all.remove(connection);
+                closeQuietly(connection);
+                connection = DriverManager.getConnection(url, user, password);
+                all.add(connection);
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Swaps a borrowed connection that stopped working for a fresh one, which the
+     * caller then holds instead (and gives back later).
+     */
+    public Connection replace(Connection broken) throws SQLException {
+        synchronized (this) {
+            all.remove(broken);
+        }
+        closeQuietly(broken);
+        Connection fresh = DriverManager.getConnection(url, user, password);
+        synchronized (this) {
+            all.add(fresh);
+        }
+        return fresh;
+    }
+
+    /**
+     * Puts a borrowed connection back so others can use it.
+     */
+    public void giveBack(Connection connection) {
+        if (connection != null && !idle.offer(connection)) {
+            closeQuietly(connection); // Shouldn't happen, but never keep more than 'size'.
+        }
+    }
+
+    /**
+     * Opens all 'size' connections now instead of on first use, so the first
+     * parallel queries don't each pay for connecting (done in the background at start-up).
+     */
+    public void warmUp() throws SQLException {
+        while (true) { // CN 1: Loop until the pool is full.
+            Connection connection;
+            synchronized (this) {
+                if (all.size() >= size) {
+                    return;
+                }
+                connection = DriverManager.getConnection(url, user, password);
+                all.add(connection);
+            }
+            giveBack(connection);
+        }
+    }
+
+    /**
+     * Closes every connection (called when the program finishes).
+     */
+    public synchronized void closeAll() {
+        for (Connection connection : all) { // CN 1: For-each loop.
+            closeQuietly(connection);
+        }
+        all.clear();
+        idle.clear();
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Problem closing pooled connection: " + e.getMessage());
+        }
+    }
+}
@@ -1,15 +1,48 @@
 package com.joblit.db; // Updated package
 
+import java.awt.EventQueue;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 // Need to import model classes now
+import com.joblit.config.AppConfig;
 import com.joblit.model.User;
 import com.joblit.model.UserType;
 import com.joblit.model.JobSeeker;
 import com.joblit.model.Employer;
 import com.joblit.model.Job;
+import com.joblit.model.JobStats;
+import com.joblit.model.ApplicationEvent;
+import com.joblit.model.ApplicationStatus;
+import com.joblit.model.ApplicantPage;
+import com.joblit.model.ApplicantSort;
+import com.joblit.model.Notification;
+import com.joblit.model.SavedSearch;
+import com.joblit.search.SimilarJobIndex;
+import com.joblit.search.TextUtil;
 
 /**
  * DatabaseManager.java
@@ -21,20 +54,151 @@ import com.joblit.model.Job;
  */
 public class DatabaseManager {
 
-    // Database connection details
-    // It's best to put these in a separate config file, but we'll keep it simple here.
-    private static final String DB_URL = "jdbc:mysql://127.0.0.1:3306/joblit_db?useSSL=false&serverTimezone=UTC";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "Ivanio29";
+    // Settings (from the settings file / environment, see AppConfig).
+    private static final AppConfig CONFIG = AppConfig.get();
+
+    // Database connection details - read once at start-up.
+    private static final String DB_URL = CONFIG.getString(AppConfig.DB_URL);
+    private static final String DB_USER = CONFIG.getString(AppConfig.DB_USER);
+    private static final String DB_PASSWORD = CONFIG.getString(AppConfig.DB_PASSWORD);
+    // Read-only copies of the database, as a comma-separated list of JDBC URLs
+    // (e.g. db.replicas=jdbc:mysql://10.0.0.2:3306/joblit_db). Empty means none.
+    private static final String DB_REPLICAS = CONFIG.getString(AppConfig.DB_REPLICAS);
+    // After a write, reads stay on the primary for this long so users see their own changes.
+    private static final long READ_YOUR_WRITES_MILLIS = CONFIG.getLong(AppConfig.DB_READ_YOUR_WRITES_MILLIS);
 
     // The object that holds the database connection.
     // CN 4: JDBC Connection object.
-    private Connection connection;
+    private volatile Connection connection;
+
+    // Small cache of recently viewed applicant profiles (user_id -> {skills, resume_info}).
+    // The LinkedHashMap keeps the most recently used ones and drops the oldest when full.
+    // The size is read from the settings each time, so it can be changed while running.
+    private final Map<Integer, String[]> profileCache = new LinkedHashMap<Integer, String[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+            return size() > CONFIG.getInt(AppConfig.CACHE_PROFILE_SIZE);
+        }
+    };
+
+    // Columns of the users table that a profile update is allowed to change.
+    private static final Set<String> UPDATABLE_USER_COLUMNS = new HashSet<>(Arrays.asList(
+            "email", "password", "full_name", "skills", "resume_info", "company_name"));
+
+    // Saves profile edits in the background; pending edits are kept in a journal file.
+    private final ProfileWriteQueue writeQueue = new ProfileWriteQueue(this,
+            Paths.get(System.getProperty("user.home"), ".joblit", "profile-journal.log"));
+
+    // Record of who posted, edited, deleted or applied for what, written in the background.
+    private final AuditLog auditLog = new AuditLog(
+            Paths.get(System.getProperty("user.home"), ".joblit", "audit"), CONFIG);
+
+    // Sends reads to replicas (if any) and writes to the primary.
+    private final ReplicaRouter replicaRouter = new ReplicaRouter(parseUrlList(DB_REPLICAS), DB_USER, DB_PASSWORD, READ_YOUR_WRITES_MILLIS);
+
+    // Jobs are open for jobs.lifetimeDays days, then the archiver moves them out of the live tables.
+    private volatile boolean archiveTablesReady = false;
+    // Columns of jobs/jobs_archive and applications/applications_archive, listed instead of *
+    // so the two tables of a pair can be combined even if one of them gets an extra column.
+    private static final String JOB_COLUMNS = "job_id, employer_id, title, description, location, salary, company_name, posted_at";
+    private static final String APPLICATION_COLUMNS = "seeker_id, job_id, application_date";
+    // Name of the MySQL lock only one archiver at a time can hold (all clients share the database).
+    private static final String ARCHIVER_LOCK = "joblit.archiver";
+
+    private volatile boolean applicationStatusTablesReady = false;
+
+    // Score table for sorting a job's applicants by skill match (see ensureApplicantTriageTables).
+    private volatile boolean applicantTriageTablesReady = false;
+    private static final int SCORE_BATCH_SIZE = 500;
+
+    // Who applied for what, kept in memory (new applications are read every few seconds, and the
+    // whole graph now and then to pick up other computers' deletes).
+    private final ApplicationGraph applicationGraph = new ApplicationGraph();
+    private static final long GRAPH_NEW_APPLICATIONS_SECONDS = 30;
+    // Which jobs are applied for together ("people also applied for"), counted again after each graph load.
+    private final CoApplicationIndex coApplications = new CoApplicationIndex();
+    // Repairs broken connections for reads on the Swing event thread, which must not wait for it.
+    private final ExecutorService reconnector = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "db-reconnect");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ScheduledExecutorService graphLoader = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "application-graph");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Text index of the open jobs for "similar jobs". Made in the background the first time
+    // all jobs are loaded. Every later full load brings it up to date (changes made by other
+    // programs too), and it is made again once a quarter of it has changed since it was built.
+    // Jobs saved, edited and removed here are put in straight away; changes made while it is
+    // being built are replayed on the new index, like in ApplicationGraph.
+    private volatile SimilarJobIndex similarJobs;
+    private final Object similarJobsLock = new Object();
+    private List<Consumer<SimilarJobIndex>> similarChangesDuringBuild = null; // Not null while a build is running.
+    private final AtomicReference<List<Job>> newestOpenJobs = new AtomicReference<>(); // Waiting for the worker.
+    private final ExecutorService similarJobsWorker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "similar-jobs-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Matches new jobs against saved searches and fills the seekers' inboxes.
+    private final NotificationEngine notificationEngine = new NotificationEngine(this);
+    private volatile boolean notificationTablesReady = false;
+
+    // Extra connections for reads that run in parallel (e.g. loading a dashboard).
+    private final ConnectionPool readPool = new ConnectionPool(DB_URL, DB_USER, DB_PASSWORD, CONFIG.getInt(AppConfig.DB_POOL_SIZE));
+    // Connections for transactions: each transaction borrows one, so switching auto-commit off
+    // never affects the queries other threads run on the shared connection at the same time.
+    private final ConnectionPool transactionPool = new ConnectionPool(DB_URL, DB_USER, DB_PASSWORD, CONFIG.getInt(AppConfig.DB_POOL_SIZE));
+    private final ThreadLocal<Connection> borrowedConnection = new ThreadLocal<>();
+    // The first database error a read on a withPooledConnection() thread answered with
+    // saved or empty data, so that call can fail instead of passing the fallback on.
+    private final ThreadLocal<SQLException> hiddenFailure = new ThreadLocal<>();
+
+    // Resilience: stops asking a failing database for a while, and remembers the last job list to show meanwhile.
+    private final CircuitBreaker breaker = new CircuitBreaker(CONFIG.getInt(AppConfig.DB_BREAKER_FAILURES), CONFIG.getLong(AppConfig.DB_BREAKER_OPEN_MILLIS));
+    private volatile List<Job> lastKnownJobs = new ArrayList<>();
+    private volatile Map<Integer, Job> lastKnownJobsById = new HashMap<>();
+    // The last job list is also kept on disk, to show when the database is down right after start-up.
+    private final JobSnapshot jobSnapshot = new JobSnapshot(
+            Paths.get(System.getProperty("user.home"), ".joblit", "jobs-snapshot.bin"));
+    // The statement each thread is running, so it can be cancelled (weak keys: finished threads drop out).
+    private final Map<Thread, Statement> runningStatements = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // Limits how fast one username can be tried: 5 tries, then one more every 30 seconds.
+    private final LoginRateLimiter loginLimiter = new LoginRateLimiter(5, 30_000);
+
+    // Counts down once the first connect() has finished (worked or not), so others can wait for it.
+    private final CountDownLatch connectDone = new CountDownLatch(1);
 
     // Constructor: Makes the connection to the database when this object is created.
     // CN 5: Constructor.
     // CN 6: An object is made when we use 'new DatabaseManager()'.
     public DatabaseManager() {
+        this(true);
+    }
+
+    /**
+     * Makes the manager, connecting straight away only if connectNow is true.
+     * With false, call connect() later (e.g. on a background thread while the login window shows).
+     */
+    // CN 5: Constructor (overloaded).
+    public DatabaseManager(boolean connectNow) {
+        if (connectNow) {
+            connect();
+        }
+    }
+
+    /**
+     * Opens the database connection and gets the background parts going.
+     * Also opens the read pool connections, so the first dashboard doesn't wait for them.
+     * Gives back true if the database can be used.
+     */
+    // CN 7: Method (to connect).
+    public boolean connect() {
         try { // CN 13: Starting try-catch for handling errors.
             // 2. Load and Register the Driver - Not really needed with new drivers.
             // Class.forName("com.mysql.jdbc.Driver"); // Old way, removed.
@@ -43,14 +207,378 @@ public class DatabaseManager {
             // CN 4: Using JDBC's DriverManager tool to connect.
             connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
             // If the code reaches here, the connection worked.
+            writeQueue.replayJournal(); // Save anything left over from last time.
+            startApplicationGraph();
         } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
             // Handle database connection errors.
             System.err.println("Database connection failed!");
             e.printStackTrace();
             connection = null; // Make sure connection is null if it failed.
+        } finally {
+            connectDone.countDown(); // Let anyone waiting go on, even if it failed.
+        }
+        if (connection != null) {
+            try {
+                readPool.warmUp(); // Not needed to go on, so failures here are only reported.
+            } catch (SQLException e) {
+                System.err.println("Could not open the read pool connections: " + e.getMessage());
+            }
+        }
+        return connection != null;
+    }
+
+    /**
+     * Waits until the first connect() has finished. Gives back true if it worked.
+     */
+    // CN 7: Method (waits for the background connect).
+    public boolean awaitConnected() {
+        try {
+            connectDone.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return connection != null;
+    }
+
+    /**
+     * True once the database connection is open.
+     */
+    public boolean isConnected() {
+        return connection != null;
+    }
+
+    // --- Timeouts, cancelling, retries and the circuit breaker ---
+
+    // A database call that may throw SQLException (used with resilientRead).
+    private interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    // Database work done inside one transaction, on the connection given to it.
+    private interface SqlWork<T> {
+        T run(Connection transaction) throws SQLException;
+    }
+
+    // Runs 'work' as one transaction on a connection borrowed only for it: all its changes
+    // are saved together, or (if it throws) none of them are.
+    private <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        Connection transaction;
+        try {
+            transaction = transactionPool.borrow(CONFIG.getLong(AppConfig.DB_POOL_WAIT_MILLIS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        replicaRouter.recordWrite();
+        try {
+            transaction.setAutoCommit(false); // CN 4: Start a transaction.
+            T result = work.run(transaction);
+            transaction.commit(); // CN 4: Make all changes permanent.
+            return result;
+        } catch (SQLException | RuntimeException e) { // CN 13: Undo everything, then pass the error on.
+            try {
+                transaction.rollback();
+            } catch (SQLException rollbackEx) {
+                System.err.println("Problem undoing changes: " + rollbackEx.getMessage());
+            }
+            throw e;
+        } finally { // CN 13: 'finally' - the connection always goes back, in auto-commit mode.
+            untrack();
+            try {
+                transaction.setAutoCommit(true);
+            } catch (SQLException e) {
+                System.err.println("Problem resetting auto-commit: " + e.getMessage());
+            }
+            transactionPool.giveBack(transaction);
+        }
+    }
+
+    // Prepares a statement with the query timeout set. On a withPooledConnection() thread (the
+    // dashboard loads, which have a Cancel button) it is also remembered as the thread's running
+    // statement, so cancelQueries() can stop it. Refused while the breaker is open.
+    private PreparedStatement prepare(Connection target, String sql) throws SQLException {
+        checkBreaker();
+        return track(target.prepareStatement(sql));
+    }
+
+    private PreparedStatement prepare(Connection target, String sql, int autoGeneratedKeys) throws SQLException {
+        checkBreaker();
+        return track(target.prepareStatement(sql, autoGeneratedKeys));
+    }
+
+    // Only refuses while the breaker is open; the one try after that is left to resilientRead,
+    // which is the only caller that reports back whether the database answered.
+    private void checkBreaker() throws SQLException {
+        if (breaker.isOpen()) {
+            throw new SQLTransientConnectionException("Database not available at the moment (too many failures).");
+        }
+    }
+
+    private PreparedStatement track(PreparedStatement pstmt) throws SQLException {
+        pstmt.setQueryTimeout(CONFIG.getInt(AppConfig.DB_QUERY_TIMEOUT_SECONDS)); // Never wait forever.
+        if (borrowedConnection.get() != null) { // CN 1: If - forgotten again when withPooledConnection() ends.
+            runningStatements.put(Thread.currentThread(), pstmt);
+        }
+        return pstmt;
+    }
+
+    // Forgets this thread's running statement once its work has finished (called in 'finally'
+    // blocks), so a later Cancel can't hit a statement that has nothing to do with it.
+    private void untrack() {
+        runningStatements.remove(Thread.currentThread());
+    }
+
+    /**
+     * Stops the query the given thread is running right now (e.g. when the user clicks Cancel).
+     * The cancelled call then fails like any other database error.
+     */
+    // CN 7: Method (to cancel a running query).
+    public void cancelQueries(Thread thread) {
+        Statement running = runningStatements.remove(thread);
+        if (running == null) return;
+        try {
+            running.cancel();
+        } catch (SQLException e) { // Already finished or closed - nothing to stop.
+            System.err.println("Could not cancel query: " + e.getMessage());
+        }
+    }
+
+    /**
+     * True while the database is failing and saved (possibly old) data is being shown.
+     */
+    public boolean isDegraded() {
+        return !breaker.isClosed();
+    }
+
+    // Runs a read, trying again (after a short random wait) if the error looks temporary.
+    // Gives back null if it still failed, so the caller can use saved data instead.
+    // On the Swing event thread it is tried only once and a broken connection is repaired in the
+    // background: waiting and reconnecting there would freeze the whole window.
+    private <T> T resilientRead(String what, SqlCall<T> call) {
+        boolean onEventThread = EventQueue.isDispatchThread();
+        int attempts = onEventThread ? 1 : CONFIG.getInt(AppConfig.DB_RETRY_ATTEMPTS);
+        for (int attempt = 1; ; attempt++) { // CN 1: For loop (ends with a return).
+            if (!breaker.allowRequest()) {
+                noteFailure(new SQLTransientConnectionException("Database not available at the moment (too many failures)."));
+                return null; // Don't even try while the breaker is open.
+            }
+            try { // CN 13: Handling errors.
+                T result = call.call();
+                breaker.recordSuccess();
+                return result;
+            } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+                if (!"70100".equals(e.getSQLState()) || e instanceof SQLTimeoutException) {
+                    breaker.recordFailure(); // A user's Cancel (70100) is not the database's fault.
+                }
+                boolean tryAgain = attempt < attempts && isTemporary(e);
+                System.err.println("Problem " + what + ": " + e.getMessage() + (tryAgain ? " - trying again" : ""));
+                if (isTemporary(e)) {
+                    replicaRouter.reportFailure(); // If it was a replica, skip it until it is checked again.
+                }
+                if (!tryAgain) {
+                    if (onEventThread && isTemporary(e)) {
+                        reconnector.execute(this::reconnectIfBroken); // Ready for the next click.
+                    }
+                    noteFailure(e);
+                    return null;
+                }
+                reconnectIfBroken();
+                try {
+                    // "Full jitter": wait a random time up to base * 2^(attempt-1), so many clients
+                    // don't all come back at the same moment.
+                    long maxWait = CONFIG.getLong(AppConfig.DB_RETRY_BASE_DELAY_MILLIS) << (attempt - 1);
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(maxWait + 1));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    noteFailure(e);
+                    return null;
+                }
+            } finally { // CN 13: 'finally' - the statement of this try is finished either way.
+                untrack();
+            }
+        }
+    }
+
+    // Errors worth trying again: lost connections and deadlocks. Timeouts are not retried,
+    // because a slow database only gets slower if we ask again.
+    private static boolean isTemporary(SQLException e) {
+        if (e instanceof SQLTimeoutException) return false;
+        String state = e.getSQLState() != null ? e.getSQLState() : "";
+        return e instanceof SQLTransientConnectionException || e instanceof SQLRecoverableException
+                || e instanceof SQLTransactionRollbackException || state.startsWith("08") || state.startsWith("40");
+    }
+
+    // Opens the connections this thread reads with again if they have stopped working (e.g. the
+    // server restarted): the borrowed one inside withPooledConnection(), and the main connection.
+    // Replicas are checked by ReplicaRouter's own health check, and pooled connections are
+    // checked each time they are borrowed.
+    private void reconnectIfBroken() {
+        Connection borrowed = borrowedConnection.get();
+        if (borrowed != null) {
+            try {
+                if (!borrowed.isValid(1)) {
+                    borrowedConnection.set(readPool.replace(borrowed));
+                }
+            } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+                System.err.println("Reconnecting pooled connection failed: " + e.getMessage());
+            }
+        }
+        reconnectPrimary();
+    }
+
+    private synchronized void reconnectPrimary() {
+        try {
+            if (connection != null && connection.isValid(1)) return;
+            System.err.println("Database connection lost, connecting again...");
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                    // It is broken anyway.
+                }
+            }
+            connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Reconnecting failed: " + e.getMessage());
+        }
+    }
+
+    // Loads the application graph in the background now, and again in full every
+    // applicationGraph.reloadMinutes (to see applications deleted elsewhere). In between, only the
+    // applications made since the last look are read, every GRAPH_NEW_APPLICATIONS_SECONDS.
+    // Until the first load is done, application checks simply go to the database.
+    private void startApplicationGraph() {
+        graphLoader.scheduleWithFixedDelay(() -> {
+            try (Connection graphConnection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) { // CN 13: try-with-resources.
+                applicationGraph.load(graphConnection);
+                coApplications.rebuild(() -> openJobLists(graphConnection));
+            } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+                System.err.println("Problem loading application graph: " + e.getMessage());
+            }
+        }, 0, CONFIG.getLong(AppConfig.GRAPH_RELOAD_MINUTES), TimeUnit.MINUTES);
+        graphLoader.scheduleWithFixedDelay(() -> {
+            if (!applicationGraph.isReady()) return;
+            try (Connection graphConnection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) { // CN 13: try-with-resources.
+                for (int[] pair : applicationGraph.loadNew(graphConnection)) { // Made on other computers.
+                    updateCoApplications(graphConnection, pair[0]);
+                }
+            } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+                System.err.println("Problem reading new applications: " + e.getMessage());
+            }
+        }, GRAPH_NEW_APPLICATIONS_SECONDS, GRAPH_NEW_APPLICATIONS_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Every seeker's applied job ids (from the graph) without the ones they withdrew, for
+    // rebuilding the co-application counts. null if the statuses can't be read.
+    private Map<Integer, int[]> openJobLists(Connection source) {
+        Map<Integer, int[]> lists = applicationGraph.jobListsBySeeker();
+        if (!ensureApplicationStatusTables()) return lists; // No statuses, nothing withdrawn.
+        Map<Integer, Set<Integer>> withdrawn = new HashMap<>();
+        try (Statement stmt = source.createStatement(); // CN 13: try-with-resources.
+             ResultSet rs = stmt.executeQuery("SELECT seeker_id, job_id FROM application_status WHERE status = 'WITHDRAWN'")) {
+            while (rs.next()) { // CN 1: While loop.
+                withdrawn.computeIfAbsent(rs.getInt("seeker_id"), k -> new HashSet<>()).add(rs.getInt("job_id"));
+            }
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Problem reading withdrawn applications: " + e.getMessage());
+            return null;
+        }
+        for (Map.Entry<Integer, Set<Integer>> entry : withdrawn.entrySet()) {
+            int[] jobs = lists.get(entry.getKey());
+            if (jobs != null) {
+                lists.put(entry.getKey(), without(jobs, entry.getValue()));
+            }
+        }
+        return lists;
+    }
+
+    // Brings the co-application counts up to date for one seeker: the jobs they applied for
+    // (from the graph) without the ones they withdrew. If that can't be read, the counts
+    // wait for the next rebuild.
+    private void updateCoApplications(Connection source, int seekerId) {
+        int[] jobs = applicationGraph.jobsOf(seekerId);
+        Set<Integer> withdrawn = new HashSet<>();
+        if (jobs.length > 0 && ensureApplicationStatusTables()) {
+            String sql = "SELECT job_id FROM application_status WHERE seeker_id = ? AND status = 'WITHDRAWN'";
+            try (PreparedStatement pstmt = source.prepareStatement(sql)) { // CN 13: try-with-resources.
+                pstmt.setInt(1, seekerId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        withdrawn.add(rs.getInt("job_id"));
+                    }
+                }
+            } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+                System.err.println("Problem reading withdrawn applications: " + e.getMessage());
+                return;
+            }
+        }
+        coApplications.seekerChanged(seekerId, without(jobs, withdrawn));
+    }
+
+    // The sorted job ids without the given ones (still sorted).
+    private static int[] without(int[] jobs, Set<Integer> leaveOut) {
+        if (leaveOut.isEmpty()) return jobs;
+        int[] kept = new int[jobs.length];
+        int count = 0;
+        for (int jobId : jobs) { // CN 1: For-each loop.
+            if (!leaveOut.contains(jobId)) kept[count++] = jobId;
+        }
+        return Arrays.copyOf(kept, count);
+    }
+
+    // The connection for reading: a replica if we have a healthy one, otherwise the primary.
+    // A thread running inside withPooledConnection() reads with its own borrowed connection instead,
+    // so several such threads can query at the same time.
+    // CN 7: Method (private helper method).
+    private Connection readConnection() {
+        Connection borrowed = borrowedConnection.get();
+        if (borrowed != null) {
+            return borrowed;
+        }
+        return replicaRouter.choose(connection);
+    }
+
+    /**
+     * Runs some read queries on this thread with a connection of its own from the pool,
+     * so they can run at the same time as reads on other threads.
+     * Waits at most db.pool.waitMillis for a free connection.
+     * Reads normally hide database errors (they give back saved or empty data). In here
+     * they don't: if one failed, this throws its SQLException instead of giving back the result.
+     */
+    // CN 7: Method (runs the given work with a pooled connection).
+    public <T> T withPooledConnection(Callable<T> work) throws Exception {
+        Connection borrowed = readPool.borrow(CONFIG.getLong(AppConfig.DB_POOL_WAIT_MILLIS));
+        borrowedConnection.set(borrowed);
+        try {
+            T result = work.call();
+            SQLException hidden = hiddenFailure.get();
+            if (hidden != null) {
+                throw hidden;
+            }
+            return result;
+        } finally { // CN 13: 'finally' - the connection always goes back.
+            untrack();
+            hiddenFailure.remove();
+            readPool.giveBack(borrowedConnection.get()); // May be a new one, if the first broke.
+            borrowedConnection.remove();
         }
     }
 
+    // Called where a read catches an error and goes on with a fallback answer.
+    private void noteFailure(SQLException e) {
+        if (borrowedConnection.get() != null && hiddenFailure.get() == null) {
+            hiddenFailure.set(e);
+        }
+    }
+
+    // The connection for writing (always the primary). Also tells the router about the write,
+    // so our own next reads see it straight away.
+    private Connection writeConnection() {
+        replicaRouter.recordWrite();
+        return connection;
+    }
+
     // Method to get the connection object (might be useful elsewhere).
     // CN 7: Method ('get').
     public Connection getConnection() {
@@ -69,22 +597,29 @@ public class DatabaseManager {
             return null;
         }
 
-        String sql = "SELECT * FROM users WHERE username = ? AND password = ?";
+        // Too many tries for this username in a short time? Refuse before touching the database.
+        if (!loginLimiter.tryAcquire(username)) { // CN 1: If
+            System.err.println("Too many login attempts for user: " + username);
+            return null;
+        }
+
+        // Only look up the username; the password is checked against the stored hash in Java.
+        String sql = "SELECT * FROM users WHERE username = ?";
         User user = null; // CN 6: Will hold the found user object later.
         PreparedStatement pstmt = null; // CN 4: JDBC PreparedStatement (for safe SQL queries).
         ResultSet rs = null; // CN 4: JDBC ResultSet (holds results from database).
 
         try { // CN 13: Handling errors during database work.
             // 4. Prepare the SQL Statement
-            pstmt = connection.prepareStatement(sql);
+            pstmt = prepare(connection, sql);
             pstmt.setString(1, username);
-            pstmt.setString(2, password); // Comparing simple text password.
 
             // 5. Run the Query
             rs = pstmt.executeQuery();
 
             // 6. Look at the Results
-            if (rs.next()) { // CN 1: Control Structure (if statement) - did we find a user?
+            // CN 1: Control Structure (if statement) - did we find a user with the right password?
+            if (rs.next() && PasswordHasher.verify(password, rs.getString("password"))) {
                 int userId = rs.getInt("user_id");
                 String email = rs.getString("email");
                 // CN 2: Using the UserType Enum (Data Structure).
@@ -103,6 +638,12 @@ public class DatabaseManager {
                     // CN 9: Related to Inheritance (making a child class object).
                     user = new Employer(userId, username, password, email, companyName);
                 }
+
+                // Old accounts still have a plain text password, so swap it for a hash now.
+                if (!PasswordHasher.isHashed(rs.getString("password"))) {
+                    upgradePassword(userId, password);
+                }
+                loginLimiter.reset(username); // Correct login, give the tries back.
             }
         } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
             System.err.println("Problem checking login: " + e.getMessage());
@@ -114,6 +655,20 @@ public class DatabaseManager {
         return user; // Send back the user found, or null.
     }
 
+    // Helper method to replace an old plain text password with a hash.
+    // CN 7: Method (private helper method).
+    private void upgradePassword(int userId, String password) {
+        String sql = "UPDATE users SET password = ? WHERE user_id = ?";
+        try (PreparedStatement pstmt = prepare(writeConnection(), sql)) { // CN 13: try-with-resources.
+            pstmt.setString(1, PasswordHasher.hash(password));
+            pstmt.setInt(2, userId);
+            pstmt.executeUpdate();
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            // Not serious - the login still worked, we just try again next time.
+            System.err.println("Problem upgrading password hash: " + e.getMessage());
+        }
+    }
+
     /**
      * Adds a new user (JobSeeker or Employer) to the database.
      * Returns true if it worked, false if not.
@@ -131,10 +686,10 @@ public class DatabaseManager {
         boolean success = false;
 
         try { // CN 13: Handling errors.
-            pstmt = connection.prepareStatement(sql);
+            pstmt = prepare(writeConnection(), sql);
             // CN 11: Getting User details using 'get' methods (Encapsulation).
             pstmt.setString(1, user.getUsername());
-            pstmt.setString(2, user.getPassword()); // Simple text password.
+            pstmt.setString(2, PasswordHasher.hash(user.getPassword())); // Only the salted hash is stored.
             pstmt.setString(3, user.getEmail());
             pstmt.setString(4, user.getUserType().name()); // Change Enum to text for DB.
 
@@ -181,7 +736,7 @@ public class DatabaseManager {
         PreparedStatement pstmt = null; // CN 4: JDBC PreparedStatement (for safe SQL insert).
         boolean success = false;
         try { // CN 13: Handling errors.
-            pstmt = connection.prepareStatement(sql);
+            pstmt = prepare(writeConnection(), sql, Statement.RETURN_GENERATED_KEYS);
             // CN 11: Getting Job details using 'get' methods (Encapsulation).
             pstmt.setInt(1, job.getEmployerId());
             pstmt.setString(2, job.getTitle());
@@ -193,6 +748,17 @@ public class DatabaseManager {
             // CN 4: Running an SQL INSERT command.
             int rowsAffected = pstmt.executeUpdate();
             success = rowsAffected > 0;
+            if (success) {
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        job.setJobId(keys.getInt(1)); // The new job's real id.
+                    }
+                }
+                // Tell seekers whose saved searches match (runs in the background).
+                notificationEngine.jobPosted(job);
+                changeSimilarJobs(index -> index.add(job));
+                auditLog.record("JOB_POSTED", job.getEmployerId(), job.getJobId(), job.getTitle());
+            }
         } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
             System.err.println("Problem saving job: " + e.getMessage());
             e.printStackTrace();
@@ -206,7 +772,7 @@ public class DatabaseManager {
     public boolean updateJob(Job job) {
         String query = "UPDATE jobs SET title=?, description=?, location=?, salary=? WHERE job_id=?";
         // Using try-with-resources automatically closes 'stmt' after we finish.
-        try (PreparedStatement stmt = connection.prepareStatement(query)) { // CN 13: try-with-resources.
+        try (PreparedStatement stmt = prepare(writeConnection(), query)) { // CN 13: try-with-resources.
             // CN 11: Using 'get' methods.
             stmt.setString(1, job.getTitle());
             stmt.setString(2, job.getDescription());
@@ -215,20 +781,35 @@ public class DatabaseManager {
             stmt.setInt(5, job.getJobId());
 
             // CN 4: Running an SQL UPDATE command.
-            return stmt.executeUpdate() > 0; // Returns true if 1 row was changed.
+            boolean updated = stmt.executeUpdate() > 0; // True if 1 row was changed.
+            if (updated) {
+                changeSimilarJobs(index -> index.add(job)); // Indexed again with the new text.
+                forgetMatchScores("job_id", job.getJobId());
+                auditLog.record("JOB_EDITED", job.getEmployerId(), job.getJobId(), job.getTitle());
+            }
+            return updated;
         } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
             e.printStackTrace();
             return false;
         }
     }
 
+    /**
+     * Deletes a job. employerId is the employer deleting it (written to the audit log).
+     */
     // CN 7: Method (to remove a job).
-    public boolean deleteJob(int jobId) {
+    public boolean deleteJob(int jobId, int employerId) {
         String query = "DELETE FROM jobs WHERE job_id=?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) { // CN 13: try-with-resources.
+        try (PreparedStatement stmt = prepare(writeConnection(), query)) { // CN 13: try-with-resources.
             stmt.setInt(1, jobId);
             // CN 4: Running an SQL DELETE command.
-            return stmt.executeUpdate() > 0; // Returns true if 1 row was removed.
+            boolean deleted = stmt.executeUpdate() > 0; // True if 1 row was removed.
+            if (deleted) {
+                applicationGraph.removeJob(jobId);
+                forgetSimilarJob(jobId);
+                auditLog.record("JOB_DELETED", employerId, jobId, null);
+            }
+            return deleted;
         } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
             e.printStackTrace();
             return false;
@@ -236,46 +817,41 @@ public class DatabaseManager {
     }
 
     /**
-     * Gets all the jobs from the database.
+     * Gets all the open (not archived) jobs from the database.
      * Gives back a List containing Job objects.
      * Shows using a Data Structure (ArrayList).
      */
     // CN 7: Method (to get all jobs).
     // CN 2: Gives back a List (made using ArrayList) Data Structure.
     public List<Job> getAllJobs() {
-        if (connection == null) return new ArrayList<>(); // CN 1: If // CN 6: Making a new, empty ArrayList object.
-        List<Job> jobs = new ArrayList<>(); // CN 2: ArrayList Data Structure. // CN 6: Making a new ArrayList object.
-        String sql = "SELECT * FROM jobs ORDER BY posted_at DESC";
-        Statement stmt = null; // CN 4: JDBC Statement (for simple SQL queries).
-        ResultSet rs = null; // CN 4: JDBC ResultSet (holds results from database).
-
-        try { // CN 13: Handling errors.
-            // 4. Create Statement
-            stmt = connection.createStatement();
-            // 5. Run the Query
-            // CN 4: Running an SQL query.
-            rs = stmt.executeQuery(sql);
+        return getAllJobs(false);
+    }
 
-            // 6. Look at the Results
-            while (rs.next()) { // CN 1: Control Structure (while loop) - go through each result.
-                // CN 6: Making a Job object for each result row.
-                Job job = new Job(
-                        rs.getInt("job_id"),
-                        rs.getInt("employer_id"),
-                        rs.getString("title"),
-                        rs.getString("description"),
-                        rs.getString("location"),
-                        rs.getDouble("salary"),
-                        rs.getString("company_name"),
-                        rs.getTimestamp("posted_at")
-                );
-                jobs.add(job); // CN 2: Adding the Job object to the ArrayList.
+    /**
+     * Gets all the jobs, also the archived (expired) ones if includeArchived is true.
+     */
+    // CN 7: Method (overloaded version of getAllJobs).
+    public List<Job> getAllJobs(boolean includeArchived) {
+        if (connection == null) return new ArrayList<>(); // CN 1: If // CN 6: Making a new, empty ArrayList object.
+        String sql = includeArchived && ensureArchiveTables() // CN 1: Ternary operator.
+                ? "SELECT " + JOB_COLUMNS + " FROM jobs UNION ALL SELECT " + JOB_COLUMNS + " FROM jobs_archive ORDER BY posted_at DESC"
+                : "SELECT " + JOB_COLUMNS + " FROM jobs ORDER BY posted_at DESC";
+        List<Job> jobs = resilientRead("getting all jobs", () -> queryJobs(sql));
+        if (jobs == null) { // CN 1: If - the database didn't answer.
+            if (lastKnownJobs.isEmpty()) {
+                lastKnownJobs = jobSnapshot.load(); // Nothing loaded in this run yet - use the one from last time.
             }
-        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
-            System.err.println("Problem getting all jobs: " + e.getMessage());
-            e.printStackTrace();
-        } finally { // CN 13: 'finally' block.
-            closeResources(rs, stmt);
+            return new ArrayList<>(lastKnownJobs); // Show the last list we had instead of nothing.
+        }
+        if (!includeArchived) {
+            lastKnownJobs = new ArrayList<>(jobs); // Remember it in case the database goes away.
+            jobSnapshot.save(jobs);
+            Map<Integer, Job> byId = new HashMap<>();
+            for (Job job : jobs) {
+                byId.put(job.getJobId(), job);
+            }
+            lastKnownJobsById = byId;
+            refreshSimilarJobIndex(jobs);
         }
         return jobs; // CN 2: Send back the ArrayList of jobs.
     }
@@ -286,155 +862,732 @@ public class DatabaseManager {
      // CN 7: Method (to get jobs from one employer).
      // CN 2: Gives back an ArrayList Data Structure.
     public List<Job> getJobsByEmployer(int employerId) {
-         if (connection == null) return new ArrayList<>(); // CN 1: If // CN 6: Making a new, empty ArrayList object.
-         List<Job> jobs = new ArrayList<>(); // CN 2: ArrayList. // CN 6: Making a new ArrayList object.
-         String sql = "SELECT * FROM jobs WHERE employer_id = ? ORDER BY posted_at DESC";
-         PreparedStatement pstmt = null; // CN 4: JDBC PreparedStatement (for safe SQL queries).
-         ResultSet rs = null; // CN 4: JDBC ResultSet (holds results from database).
-         try { // CN 13: Handling errors.
-            pstmt = connection.prepareStatement(sql);
-            pstmt.setInt(1, employerId);
-            rs = pstmt.executeQuery(); // CN 4: Running the query.
-            while (rs.next()) { // CN 1: While loop - go through each result.
-                // CN 6: Making Job object.
-                Job job = new Job(
-                        rs.getInt("job_id"),
-                        rs.getInt("employer_id"),
-                        rs.getString("title"),
-                        rs.getString("description"),
-                        rs.getString("location"),
-                        rs.getDouble("salary"),
-                        rs.getString("company_name"),
-                        rs.getTimestamp("posted_at")
-                );
-                jobs.add(job); // CN 2: Adding the Job to the ArrayList.
-            }
-         } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
-             System.err.println("Problem getting jobs for employer: " + e.getMessage());
-             e.printStackTrace();
-         } finally { // CN 13: 'finally' block.
-            closeResources(rs, pstmt);
+        if (connection == null) return new ArrayList<>(); // CN 1: If // CN 6: Making a new, empty ArrayList object.
+        String sql = "SELECT * FROM jobs WHERE employer_id = ? ORDER BY posted_at DESC";
+        List<Job> jobs = resilientRead("getting jobs for employer", () -> queryJobs(sql, employerId));
+        if (jobs == null) {
+            // Database not answering: use the employer's jobs from the last known job list.
+            jobs = new ArrayList<>();
+            for (Job job : lastKnownJobs) { // CN 1: For-each loop.
+                if (job.getEmployerId() == employerId) jobs.add(job);
+            }
         }
         return jobs; // CN 2: Send back the ArrayList.
     }
 
     /**
-     * Finds jobs by looking for a word in the title, description, OR location.
+     * Finds open jobs by looking for a word in the title, description, OR location.
      * It uses LIKE to find parts of words.
      */
      // CN 7: Method (to search for jobs).
      // CN 2: Gives back an ArrayList Data Structure.
     public List<Job> searchJobsByKeywordOrLocation(String searchTerm) {
+        return searchJobsByKeywordOrLocation(searchTerm, false);
+    }
+
+    /**
+     * Same search, but also looks in the archived (expired) jobs if includeArchived is true.
+     */
+    // CN 7: Method (overloaded version of the search).
+    public List<Job> searchJobsByKeywordOrLocation(String searchTerm, boolean includeArchived) {
         if (connection == null) return new ArrayList<>(); // CN 1: If // CN 6: Making a new, empty ArrayList object.
-        List<Job> jobs = new ArrayList<>(); // CN 2: ArrayList. // CN 6: Making a new ArrayList object.
         // Simple search using LIKE. Whether it ignores capital letters depends on the database settings.
-        String sql = "SELECT * FROM jobs WHERE title LIKE ? OR description LIKE ? OR location LIKE ? ORDER BY posted_at DESC";
-        PreparedStatement pstmt = null; // CN 4: JDBC PreparedStatement (for safe SQL queries).
-        ResultSet rs = null; // CN 4: JDBC ResultSet (holds results from database).
+        String where = " WHERE title LIKE ? OR description LIKE ? OR location LIKE ?";
+        boolean withArchive = includeArchived && ensureArchiveTables();
+        String sql = withArchive
+                ? "SELECT " + JOB_COLUMNS + " FROM jobs" + where + " UNION ALL SELECT " + JOB_COLUMNS + " FROM jobs_archive" + where + " ORDER BY posted_at DESC"
+                : "SELECT " + JOB_COLUMNS + " FROM jobs" + where + " ORDER BY posted_at DESC";
         String searchPattern = "%" + searchTerm + "%"; // Add % to search for the term anywhere inside.
+        // Same pattern for title, description and location (twice if the archive is included).
+        Object[] parameters = new Object[withArchive ? 6 : 3];
+        Arrays.fill(parameters, searchPattern);
 
-        try { // CN 13: Handling errors.
-            pstmt = connection.prepareStatement(sql);
-            pstmt.setString(1, searchPattern); // Look in title.
-            pstmt.setString(2, searchPattern); // Look in description.
-            pstmt.setString(3, searchPattern); // Look in location.
-            rs = pstmt.executeQuery(); // CN 4: Running the query.
-            while (rs.next()) { // CN 1: While loop - go through each result.
-                 // CN 6: Making Job object.
-                 Job job = new Job(
-                        rs.getInt("job_id"),
-                        rs.getInt("employer_id"),
-                        rs.getString("title"),
-                        rs.getString("description"),
-                        rs.getString("location"),
-                        rs.getDouble("salary"),
-                        rs.getString("company_name"),
-                        rs.getTimestamp("posted_at")
-                );
-                jobs.add(job); // CN 2: Adding the Job to the ArrayList.
+        List<Job> jobs = resilientRead("searching jobs", () -> queryJobs(sql, parameters));
+        if (jobs == null) {
+            // Database not answering: search the last known job list in memory instead.
+            jobs = new ArrayList<>();
+            String term = searchTerm.toLowerCase();
+            for (Job job : lastKnownJobs) { // CN 1: For-each loop.
+                if (containsIgnoreCase(job.getTitle(), term) || containsIgnoreCase(job.getDescription(), term)
+                        || containsIgnoreCase(job.getLocation(), term)) {
+                    jobs.add(job);
+                }
             }
-        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
-            System.err.println("Problem searching jobs: " + e.getMessage());
-            e.printStackTrace();
-        } finally { // CN 13: 'finally' block.
-            closeResources(rs, pstmt);
         }
         return jobs; // CN 2: Send back the ArrayList.
     }
 
     /**
-     * Saves or updates the CV information for a job seeker.
-     * Shows how to use an UPDATE query.
+     * Makes the archive tables (same columns as jobs, applications, application_status and
+     * application_events) if they aren't there yet. Returns true if they exist.
      */
-     // CN 7: Method (to save CV details).
-    public boolean saveResumeInfo(int seekerId, String resumeInfo, String skills) {
-        if (connection == null) return false; // CN 1: If
-        String sql = "UPDATE users SET resume_info = ?, skills = ? WHERE user_id = ? AND user_type = 'SEEKER'";
-        PreparedStatement pstmt = null; // CN 4: JDBC PreparedStatement (for safe SQL queries).
-        boolean success = false;
-        try { // CN 13: Handling errors.
-            pstmt = connection.prepareStatement(sql);
-            pstmt.setString(1, resumeInfo);
-            pstmt.setString(2, skills);
-            pstmt.setInt(3, seekerId);
+    // CN 7: Method (private helper method).
+    private boolean ensureArchiveTables() {
+        if (archiveTablesReady) return true;
+        if (!ensureApplicationStatusTables()) return false; // Their archives are made LIKE them.
+        try (Statement stmt = connection.createStatement()) { // CN 13: try-with-resources.
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS jobs_archive LIKE jobs");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS applications_archive LIKE applications");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS application_status_archive LIKE application_status");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS application_events_archive LIKE application_events");
+            archiveTablesReady = true;
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Problem creating archive tables: " + e.getMessage());
+        }
+        return archiveTablesReady;
+    }
 
-            int rowsAffected = pstmt.executeUpdate(); // CN 4: Running the SQL UPDATE.
-            success = rowsAffected > 0;
+    /**
+     * Moves jobs older than lifetimeDays (and their applications, statuses and status
+     * history) from the live tables into the _archive tables.
+     * Works in batches of batchSize jobs, each batch in its own transaction, so the
+     * live tables are never locked for long. Returns how many jobs were archived.
+     * Every client schedules this, but only one at a time gets the database lock
+     * (GET_LOCK); the others skip the run.
+     */
+    // CN 7: Method (to archive expired jobs).
+    public int archiveExpiredJobs(int lifetimeDays, int batchSize) {
+        if (connection == null || !ensureArchiveTables()) return 0; // CN 1: If
+        int archived = 0;
+        // The archiver uses its own connection, so its transactions don't mix with the window's queries.
+        try (Connection archiveConnection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) { // CN 13: try-with-resources.
+            if (!takeArchiverLock(archiveConnection)) {
+                return 0; // Another client is archiving right now.
+            }
+            while (true) { // CN 1: While loop - one batch at a time until nothing is left.
+                List<Integer> jobIds = new ArrayList<>();
+                String findSql = "SELECT job_id FROM jobs WHERE posted_at < DATE_SUB(NOW(), INTERVAL ? DAY) ORDER BY job_id LIMIT ?";
+                try (PreparedStatement pstmt = archiveConnection.prepareStatement(findSql)) {
+                    pstmt.setInt(1, lifetimeDays);
+                    pstmt.setInt(2, batchSize);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            jobIds.add(rs.getInt("job_id"));
+                        }
+                    }
+                }
+                if (jobIds.isEmpty()) {
+                    break; // Nothing (more) to archive.
+                }
+                archiveBatch(archiveConnection, jobIds);
+                for (int jobId : jobIds) {
+                    applicationGraph.removeJob(jobId); // Their applications are archived now.
+                    forgetSimilarJob(jobId); // Only open jobs are suggested.
+                }
+                archived += jobIds.size();
+            }
+            // Closing the connection would also free the lock; this just makes it clear.
+            try (Statement stmt = archiveConnection.createStatement()) {
+                stmt.executeQuery("SELECT RELEASE_LOCK('" + ARCHIVER_LOCK + "')").close();
+            }
         } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
-             System.err.println("Problem saving CV info: " + e.getMessage());
-             e.printStackTrace();
-        } finally { // CN 13: 'finally' block.
-            closeResources(null, pstmt);
+            System.err.println("Problem archiving expired jobs: " + e.getMessage());
+            e.printStackTrace();
         }
-        return success;
+        if (archived > 0) {
+            System.out.println("Archived " + archived + " expired job(s).");
+        }
+        return archived;
     }
 
     /**
-     * Saves a record showing a seeker applied for a job.
+     * Archives expired jobs using the normal lifetime and batch size.
      */
-     // CN 7: Method (to apply for a job).
-    public boolean applyForJob(int seekerId, int jobId) {
-        if (connection == null) return false; // CN 1: If
-        // Check if they already applied, stop them applying twice.
-        if (hasApplied(seekerId, jobId)) { // CN 1: If
-             System.out.println("User " + seekerId + " has already applied for job " + jobId);
-             return false; // Could also give an error message.
+    public int archiveExpiredJobs() {
+        return archiveExpiredJobs(CONFIG.getInt(AppConfig.JOBS_LIFETIME_DAYS), CONFIG.getInt(AppConfig.JOBS_ARCHIVE_BATCH_SIZE));
+    }
+
+    // Tries to take the archiver lock without waiting. The lock belongs to this connection.
+    private static boolean takeArchiverLock(Connection archiveConnection) throws SQLException {
+        try (Statement stmt = archiveConnection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT GET_LOCK('" + ARCHIVER_LOCK + "', 0)")) {
+            return rs.next() && rs.getInt(1) == 1;
         }
+    }
 
-        String sql = "INSERT INTO applications (seeker_id, job_id) VALUES (?, ?)";
-        PreparedStatement pstmt = null; // CN 4: JDBC PreparedStatement (for safe SQL queries).
-        boolean success = false;
-        try { // CN 13: Handling errors.
-            pstmt = connection.prepareStatement(sql);
-            pstmt.setInt(1, seekerId);
-            pstmt.setInt(2, jobId);
-            int rowsAffected = pstmt.executeUpdate(); // CN 4: Running the SQL INSERT.
-            success = rowsAffected > 0;
-        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
-            if (e.getErrorCode() == 1062) { // Error code 1062 often means duplicate entry. // CN 1: If
-                System.out.println("User already applied for this job (database check)." );
-                // We might count this as success because the application exists.
-                success = true; // Or maybe return a specific status?
-            } else {
-                System.err.println("Problem applying for job: " + e.getMessage());
-                e.printStackTrace();
+    // Moves one batch of jobs, their applications, statuses and status history in a single transaction.
+    private void archiveBatch(Connection archiveConnection, List<Integer> jobIds) throws SQLException {
+        // Make "?, ?, ?" with one ? per job id.
+        String in = " WHERE job_id IN (" + String.join(", ", Collections.nCopies(jobIds.size(), "?")) + ")";
+        String eventColumns = "event_id, seeker_id, job_id, status, actor_id, created_at";
+        String statusColumns = "seeker_id, job_id, status, updated_at";
+        String[] steps = {
+                "INSERT IGNORE INTO application_events_archive (" + eventColumns + ") SELECT " + eventColumns + " FROM application_events" + in,
+                "DELETE FROM application_events" + in,
+                "INSERT IGNORE INTO application_status_archive (" + statusColumns + ") SELECT " + statusColumns + " FROM application_status" + in,
+                "DELETE FROM application_status" + in,
+                "INSERT IGNORE INTO applications_archive (" + APPLICATION_COLUMNS + ") SELECT " + APPLICATION_COLUMNS + " FROM applications" + in,
+                "DELETE FROM applications" + in,
+                "INSERT IGNORE INTO jobs_archive (" + JOB_COLUMNS + ") SELECT " + JOB_COLUMNS + " FROM jobs" + in,
+                "DELETE FROM jobs" + in
+        };
+        archiveConnection.setAutoCommit(false); // All the steps work, or none do.
+        try {
+            for (String step : steps) { // CN 1: For-each loop.
+                try (PreparedStatement pstmt = archiveConnection.prepareStatement(step)) {
+                    for (int i = 0; i < jobIds.size(); i++) {
+                        pstmt.setInt(i + 1, jobIds.get(i));
+                    }
+                    pstmt.executeUpdate();
+                }
             }
-        } finally { // CN 13: 'finally' block.
-            closeResources(null, pstmt);
+            archiveConnection.commit();
+        } catch (SQLException e) {
+            archiveConnection.rollback(); // Undo the half-done batch.
+            throw e;
+        } finally {
+            archiveConnection.setAutoCommit(true);
         }
-        return success;
     }
 
-     // Helper method to check if someone has already applied.
-     // CN 7: Method (private helper method - only used inside this class).
-    private boolean hasApplied(int seekerId, int jobId) {
-        if (connection == null) return true; // Safer to assume they applied if we can't check DB?
-        String sql = "SELECT 1 FROM applications WHERE seeker_id = ? AND job_id = ? LIMIT 1";
-        PreparedStatement pstmt = null; // CN 4: JDBC PreparedStatement (for safe SQL queries).
-        ResultSet rs = null; // CN 4: JDBC ResultSet (holds results from database).
-        boolean applied = false;
-        try { // CN 13: Handling errors.
-            pstmt = connection.prepareStatement(sql);
+    /**
+     * Makes the saved_searches and notifications tables if they aren't there yet.
+     * Returns true if they exist.
+     */
+    // CN 7: Method (private helper method).
+    private boolean ensureNotificationTables() {
+        if (notificationTablesReady) return true;
+        try (Statement stmt = connection.createStatement()) { // CN 13: try-with-resources.
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS saved_searches ("
+                    + "search_id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "seeker_id INT NOT NULL, "
+                    + "query VARCHAR(255) NOT NULL, "
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                    + "INDEX idx_saved_searches_seeker (seeker_id))");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS notifications ("
+                    + "notification_id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "seeker_id INT NOT NULL, "
+                    + "job_id INT NOT NULL, "
+                    + "search_id INT, "
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                    + "is_read BOOLEAN NOT NULL DEFAULT FALSE, "
+                    + "UNIQUE KEY uq_notifications_seeker_job (seeker_id, job_id))");
+            notificationTablesReady = true;
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Problem creating notification tables: " + e.getMessage());
+        }
+        return notificationTablesReady;
+    }
+
+    /**
+     * Saves a search for a seeker so they hear about new matching jobs.
+     * Gives back the saved search (with its new id), or null if it failed.
+     */
+    // CN 7: Method (to save a search).
+    public SavedSearch saveSearch(int seekerId, String query) {
+        if (connection == null || !ensureNotificationTables()) return null; // CN 1: If
+        String sql = "INSERT INTO saved_searches (seeker_id, query) VALUES (?, ?)";
+        try (PreparedStatement pstmt = prepare(writeConnection(), sql, Statement.RETURN_GENERATED_KEYS)) { // CN 13: try-with-resources.
+            pstmt.setInt(1, seekerId);
+            pstmt.setString(2, query);
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    SavedSearch search = new SavedSearch(keys.getInt(1), seekerId, query); // CN 6: Making a SavedSearch object.
+                    notificationEngine.searchSaved(search);
+                    return search;
+                }
+            }
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Problem saving search: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Deletes one of a seeker's saved searches.
+     */
+    // CN 7: Method (to delete a saved search).
+    public boolean deleteSavedSearch(int seekerId, int searchId) {
+        if (connection == null || !ensureNotificationTables()) return false; // CN 1: If
+        String sql = "DELETE FROM saved_searches WHERE search_id = ? AND seeker_id = ?";
+        try (PreparedStatement pstmt = prepare(writeConnection(), sql)) { // CN 13: try-with-resources.
+            pstmt.setInt(1, searchId);
+            pstmt.setInt(2, seekerId);
+            boolean deleted = pstmt.executeUpdate() > 0;
+            if (deleted) {
+                notificationEngine.searchDeleted(searchId);
+            }
+            return deleted;
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Problem deleting saved search: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Gets one seeker's saved searches.
+     */
+    // CN 7: Method (to get saved searches).
+    public List<SavedSearch> getSavedSearches(int seekerId) {
+        List<SavedSearch> searches = loadSavedSearches("SELECT search_id, seeker_id, query FROM saved_searches WHERE seeker_id = ? ORDER BY search_id", seekerId);
+        return searches != null ? searches : new ArrayList<>();
+    }
+
+    /**
+     * Gets every saved search (used to build the notification engine's index).
+     * Gives back null if they couldn't be read, so the engine keeps the index it has
+     * instead of taking an empty one.
+     */
+    // CN 7: Method (to get all saved searches).
+    public List<SavedSearch> getAllSavedSearches() {
+        return loadSavedSearches("SELECT search_id, seeker_id, query FROM saved_searches", null);
+    }
+
+    /**
+     * Gets the saved searches with an id above 'searchId' (the ones saved since then,
+     * by any program), oldest first. Gives back null if they couldn't be read.
+     */
+    // CN 7: Method (to get newly saved searches).
+    public List<SavedSearch> getSavedSearchesAfter(int searchId) {
+        return loadSavedSearches("SELECT search_id, seeker_id, query FROM saved_searches WHERE search_id > ? ORDER BY search_id", searchId);
+    }
+
+    // Runs one of the saved search queries above (key is null when there is no '?').
+    // Gives back null if the database couldn't be read.
+    private List<SavedSearch> loadSavedSearches(String sql, Integer key) {
+        List<SavedSearch> searches = new ArrayList<>(); // CN 2: ArrayList.
+        if (connection == null || !ensureNotificationTables()) return null; // CN 1: If
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try { // CN 13: Handling errors.
+            pstmt = prepare(readConnection(), sql);
+            if (key != null) {
+                pstmt.setInt(1, key);
+            }
+            rs = pstmt.executeQuery();
+            while (rs.next()) { // CN 1: While loop.
+                searches.add(new SavedSearch(rs.getInt("search_id"), rs.getInt("seeker_id"), rs.getString("query")));
+            }
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Problem getting saved searches: " + e.getMessage());
+            e.printStackTrace();
+            noteFailure(e);
+            searches = null;
+        } finally { // CN 13: 'finally' block.
+            closeResources(rs, pstmt);
+        }
+        return searches;
+    }
+
+    /**
+     * Puts one inbox row per matched search for a new job, as a single batch.
+     * A seeker already told about this job is skipped (INSERT IGNORE on the unique key).
+     */
+    // CN 7: Method (to add notifications).
+    public boolean addNotifications(int jobId, List<SavedSearch> matches) {
+        if (connection == null || matches.isEmpty() || !ensureNotificationTables()) return false; // CN 1: If
+        String sql = "INSERT IGNORE INTO notifications (seeker_id, job_id, search_id) VALUES (?, ?, ?)";
+        try (PreparedStatement pstmt = prepare(writeConnection(), sql)) { // CN 13: try-with-resources.
+            for (SavedSearch search : matches) { // CN 1: For-each loop.
+                pstmt.setInt(1, search.getSeekerId());
+                pstmt.setInt(2, jobId);
+                pstmt.setInt(3, search.getSearchId());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch(); // Sent together (one multi-row INSERT with rewriteBatchedStatements).
+            return true;
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Problem adding notifications: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Gets a seeker's newest notifications (at most 'limit'), newest first.
+     */
+    // CN 7: Method (to get notifications).
+    public List<Notification> getNotifications(int seekerId, int limit) {
+        if (connection == null || !ensureNotificationTables()) return new ArrayList<>(); // CN 1: If
+        String sql = "SELECT n.notification_id, n.job_id, n.created_at, n.is_read, j.title, j.company_name, s.query "
+                + "FROM notifications n "
+                + "LEFT JOIN jobs j ON n.job_id = j.job_id "
+                + "LEFT JOIN saved_searches s ON n.search_id = s.search_id "
+                + "WHERE n.seeker_id = ? ORDER BY n.created_at DESC, n.notification_id DESC LIMIT ?";
+        List<Notification> notifications = resilientRead("getting notifications", () -> {
+            List<Notification> found = new ArrayList<>(); // CN 2: ArrayList.
+            try (PreparedStatement pstmt = prepare(readConnection(), sql)) { // CN 13: try-with-resources.
+                pstmt.setInt(1, seekerId);
+                pstmt.setInt(2, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) { // CN 1: While loop.
+                        found.add(new Notification(
+                                rs.getInt("notification_id"),
+                                rs.getInt("job_id"),
+                                rs.getString("title"),
+                                rs.getString("company_name"),
+                                rs.getString("query"),
+                                rs.getTimestamp("created_at"),
+                                rs.getBoolean("is_read")
+                        ));
+                    }
+                }
+            }
+            return found;
+        });
+        return notifications != null ? notifications : new ArrayList<>(); // Empty if the database didn't answer.
+    }
+
+    /**
+     * Marks all of a seeker's notifications as read.
+     */
+    // CN 7: Method (to mark notifications read).
+    public boolean markNotificationsRead(int seekerId) {
+        if (connection == null || !ensureNotificationTables()) return false; // CN 1: If
+        String sql = "UPDATE notifications SET is_read = TRUE WHERE seeker_id = ? AND is_read = FALSE";
+        try (PreparedStatement pstmt = prepare(writeConnection(), sql)) { // CN 13: try-with-resources.
+            pstmt.setInt(1, seekerId);
+            pstmt.executeUpdate();
+            return true;
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Problem marking notifications read: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Saves or updates the CV information for a job seeker.
+     * Shows how to use an UPDATE query.
+     */
+     // CN 7: Method (to save CV details).
+    public boolean saveResumeInfo(int seekerId, String resumeInfo, String skills) {
+        if (connection == null) return false; // CN 1: If
+        String sql = "UPDATE users SET resume_info = ?, skills = ? WHERE user_id = ? AND user_type = 'SEEKER'";
+        PreparedStatement pstmt = null; // CN 4: JDBC PreparedStatement (for safe SQL queries).
+        boolean success = false;
+        try { // CN 13: Handling errors.
+            pstmt = prepare(writeConnection(), sql);
+            pstmt.setString(1, resumeInfo);
+            pstmt.setString(2, skills);
+            pstmt.setInt(3, seekerId);
+
+            int rowsAffected = pstmt.executeUpdate(); // CN 4: Running the SQL UPDATE.
+            success = rowsAffected > 0;
+            forgetCachedProfile(seekerId);
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+             System.err.println("Problem saving CV info: " + e.getMessage());
+             e.printStackTrace();
+        } finally { // CN 13: 'finally' block.
+            closeResources(null, pstmt);
+        }
+        return success;
+    }
+
+    /**
+     * Saves a record showing a seeker applied for a job.
+     */
+     // CN 7: Method (to apply for a job).
+    public boolean applyForJob(int seekerId, int jobId) {
+        if (connection == null) return false; // CN 1: If
+        // Check if they already applied, stop them applying twice.
+        if (hasApplied(seekerId, jobId)) { // CN 1: If
+             return applyAgain(seekerId, jobId);
+        }
+
+        if (!ensureApplicationStatusTables()) return false; // Every application starts its history straight away.
+        String sql = "INSERT INTO applications (seeker_id, job_id) VALUES (?, ?)";
+        boolean success = false;
+        try { // CN 13: Handling errors.
+            // The application and the first event of its history are saved together, or not at all.
+            success = inTransaction(transaction -> {
+                try (PreparedStatement pstmt = prepare(transaction, sql)) {
+                    pstmt.setInt(1, seekerId);
+                    pstmt.setInt(2, jobId);
+                    if (pstmt.executeUpdate() == 0) return false; // CN 4: Running the SQL INSERT.
+                }
+                insertApplicationEvent(transaction, seekerId, jobId, ApplicationStatus.SUBMITTED, seekerId);
+                return true;
+            });
+            if (success) {
+                applicationGraph.add(seekerId, jobId);
+                updateCoApplications(connection, seekerId);
+                auditLog.record("APPLIED", seekerId, jobId, null);
+            }
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            if (e.getErrorCode() == 1062) { // Error code 1062 means duplicate entry. // CN 1: If
+                // They applied already (e.g. on another computer) and our copy had missed it.
+                applicationGraph.add(seekerId, jobId);
+                success = applyAgain(seekerId, jobId);
+            } else {
+                System.err.println("Problem applying for job: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return success;
+    }
+
+    // applyForJob when an application is there already: someone who withdrew may apply again
+    // (the application just becomes 'submitted' again), anyone else has already applied.
+    private boolean applyAgain(int seekerId, int jobId) {
+        if (getApplicationStatus(seekerId, jobId) == ApplicationStatus.WITHDRAWN) {
+            return changeApplicationStatus(seekerId, jobId, ApplicationStatus.SUBMITTED, seekerId); // Audited there.
+        }
+        System.out.println("User " + seekerId + " has already applied for job " + jobId);
+        return false;
+    }
+
+    /**
+     * Makes the application_events log and the application_status table if they aren't there yet.
+     * - application_events: every status change, only ever added to (the history).
+     * - application_status: just the latest status of each application, kept up to date
+     *   with every new event, so it can be read without going through the history.
+     * Applications made before these tables existed get a 'submitted' event the first time.
+     */
+    // CN 7: Method (private helper method).
+    private boolean ensureApplicationStatusTables() {
+        if (applicationStatusTablesReady) return true;
+        try (Statement stmt = connection.createStatement()) { // CN 13: try-with-resources.
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS application_events ("
+                    + "event_id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "seeker_id INT NOT NULL, "
+                    + "job_id INT NOT NULL, "
+                    + "status VARCHAR(20) NOT NULL, "
+                    + "actor_id INT, "
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                    + "INDEX idx_application_events_pair (seeker_id, job_id))");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS application_status ("
+                    + "seeker_id INT NOT NULL, "
+                    + "job_id INT NOT NULL, "
+                    + "status VARCHAR(20) NOT NULL, "
+                    + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                    + "PRIMARY KEY (seeker_id, job_id), "
+                    + "INDEX idx_application_status_job (job_id))");
+            int backfilled = stmt.executeUpdate("INSERT INTO application_events (seeker_id, job_id, status, actor_id, created_at) "
+                    + "SELECT a.seeker_id, a.job_id, 'SUBMITTED', a.seeker_id, a.application_date FROM applications a "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM application_events e WHERE e.seeker_id = a.seeker_id AND e.job_id = a.job_id)");
+            applicationStatusTablesReady = true;
+            if (backfilled > 0) {
+                rebuildApplicationStatuses();
+            }
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Problem creating application status tables: " + e.getMessage());
+        }
+        return applicationStatusTablesReady;
+    }
+
+    // A condition (" AND ...") that leaves out the applications (table alias 'a') their seekers
+    // have withdrawn. A withdrawn application stays in the seeker's history, but the employer's
+    // applicant lists, counts, analytics and export only show the applications still open.
+    private String notWithdrawn() {
+        if (!ensureApplicationStatusTables()) return ""; // No statuses, nothing withdrawn.
+        return " AND NOT EXISTS (SELECT 1 FROM application_status ws "
+                + "WHERE ws.seeker_id = a.seeker_id AND ws.job_id = a.job_id AND ws.status = 'WITHDRAWN')";
+    }
+
+    /**
+     * Changes an application's status, if that change is allowed (see ApplicationStatus.canMoveTo).
+     * actorId is the user making the change. Returns true if it was saved.
+     */
+    // CN 7: Method (to change an application's status).
+    public boolean changeApplicationStatus(int seekerId, int jobId, ApplicationStatus next, int actorId) {
+        if (connection == null || !ensureApplicationStatusTables()) return false; // CN 1: If
+        String sql = "SELECT status FROM application_status WHERE seeker_id = ? AND job_id = ? FOR UPDATE";
+        try { // CN 13: Handling errors.
+            boolean changed = inTransaction(transaction -> {
+                // Read and locked in the same transaction, so two changes at once can't both pass the check.
+                ApplicationStatus current;
+                try (PreparedStatement pstmt = prepare(transaction, sql)) {
+                    pstmt.setInt(1, seekerId);
+                    pstmt.setInt(2, jobId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        current = rs.next() ? ApplicationStatus.valueOf(rs.getString("status")) : null;
+                    }
+                }
+                if (current == null || !current.canMoveTo(next)) {
+                    System.out.println("Application status change not allowed: " + current + " -> " + next);
+                    return false;
+                }
+                insertApplicationEvent(transaction, seekerId, jobId, next, actorId);
+                return true;
+            });
+            // Withdrawn applications don't count as applied together; SUBMITTED is only
+            // reached again from WITHDRAWN (see canMoveTo), so it counts again.
+            if (changed && (next == ApplicationStatus.WITHDRAWN || next == ApplicationStatus.SUBMITTED)) {
+                updateCoApplications(connection, seekerId);
+            }
+            if (changed) {
+                auditApplicationStatus(seekerId, jobId, next, actorId);
+            }
+            return changed;
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Problem saving application status: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Writes a status change to the audit log: withdrawing and applying again under their
+    // own names (the seeker did it), anything else as a change by the employer.
+    private void auditApplicationStatus(int seekerId, int jobId, ApplicationStatus next, int actorId) {
+        if (next == ApplicationStatus.WITHDRAWN) {
+            auditLog.record("WITHDRAWN", actorId, jobId, null);
+        } else if (next == ApplicationStatus.SUBMITTED) { // Only reached again from WITHDRAWN (see canMoveTo).
+            auditLog.record("APPLIED", actorId, jobId, "again after withdrawing");
+        } else {
+            auditLog.record("APPLICATION_" + next.name(), actorId, jobId, "seeker " + seekerId);
+        }
+    }
+
+    /**
+     * Withdraws a seeker's application. The application stays in the history as 'withdrawn'.
+     */
+    // CN 7: Method (to withdraw an application).
+    public boolean withdrawApplication(int seekerId, int jobId) {
+        return changeApplicationStatus(seekerId, jobId, ApplicationStatus.WITHDRAWN, seekerId);
+    }
+
+    // Adds an event to the log and updates the latest status. Part of the caller's transaction.
+    private void insertApplicationEvent(Connection transaction, int seekerId, int jobId, ApplicationStatus status, int actorId) throws SQLException {
+        String eventSql = "INSERT INTO application_events (seeker_id, job_id, status, actor_id) VALUES (?, ?, ?, ?)";
+        String statusSql = "INSERT INTO application_status (seeker_id, job_id, status) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE status = VALUES(status), updated_at = CURRENT_TIMESTAMP";
+        try (PreparedStatement pstmt = prepare(transaction, eventSql)) {
+            pstmt.setInt(1, seekerId);
+            pstmt.setInt(2, jobId);
+            pstmt.setString(3, status.name());
+            pstmt.setInt(4, actorId);
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = prepare(transaction, statusSql)) {
+            pstmt.setInt(1, seekerId);
+            pstmt.setInt(2, jobId);
+            pstmt.setString(3, status.name());
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Gets the latest status of one application, or null if there is no such application.
+     */
+    // CN 7: Method (to get one application's status).
+    public ApplicationStatus getApplicationStatus(int seekerId, int jobId) {
+        if (connection == null || !ensureApplicationStatusTables()) return null; // CN 1: If
+        String sql = "SELECT status FROM application_status WHERE seeker_id = ? AND job_id = ?";
+        // Always the primary: the status is checked right before it is changed.
+        try (PreparedStatement pstmt = prepare(connection, sql)) { // CN 13: try-with-resources.
+            pstmt.setInt(1, seekerId);
+            pstmt.setInt(2, jobId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? ApplicationStatus.valueOf(rs.getString("status")) : null;
+            }
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Problem getting application status: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Gets the status of each of a seeker's applications (job id -> status).
+     * Read straight from application_status, no joins needed.
+     */
+    // CN 7: Method (to get a seeker's application statuses).
+    public Map<Integer, ApplicationStatus> getApplicationStatuses(int seekerId) {
+        if (connection != null && ensureArchiveTables()) { // Archived jobs are still in the seeker's list.
+            return loadApplicationStatuses("SELECT job_id AS id, status FROM application_status WHERE seeker_id = ? "
+                    + "UNION ALL SELECT job_id AS id, status FROM application_status_archive WHERE seeker_id = ?", seekerId, seekerId);
+        }
+        return loadApplicationStatuses("SELECT job_id AS id, status FROM application_status WHERE seeker_id = ?", seekerId);
+    }
+
+    // Runs one of the status queries above (one key for each '?').
+    private Map<Integer, ApplicationStatus> loadApplicationStatuses(String sql, int... keys) {
+        if (connection == null || !ensureApplicationStatusTables()) return new HashMap<>(); // CN 1: If
+        Map<Integer, ApplicationStatus> statuses = resilientRead("getting application statuses", () -> {
+            Map<Integer, ApplicationStatus> found = new HashMap<>(); // CN 2: HashMap Data Structure.
+            try (PreparedStatement pstmt = prepare(readConnection(), sql)) { // CN 13: try-with-resources.
+                for (int i = 0; i < keys.length; i++) {
+                    pstmt.setInt(i + 1, keys[i]);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) { // CN 1: While loop.
+                        found.put(rs.getInt("id"), ApplicationStatus.valueOf(rs.getString("status")));
+                    }
+                }
+            }
+            return found;
+        });
+        return statuses != null ? statuses : new HashMap<>();
+    }
+
+    /**
+     * Gets the full status history of one application, oldest first.
+     */
+    // CN 7: Method (to get an application's history).
+    public List<ApplicationEvent> getApplicationHistory(int seekerId, int jobId) {
+        List<ApplicationEvent> history = new ArrayList<>(); // CN 2: ArrayList.
+        if (connection == null || !ensureApplicationStatusTables()) return history; // CN 1: If
+        boolean withArchive = ensureArchiveTables();
+        String sql = withArchive
+                ? "SELECT event_id, status, actor_id, created_at FROM application_events WHERE seeker_id = ? AND job_id = ? "
+                        + "UNION ALL SELECT event_id, status, actor_id, created_at FROM application_events_archive "
+                        + "WHERE seeker_id = ? AND job_id = ? ORDER BY event_id"
+                : "SELECT event_id, status, actor_id, created_at FROM application_events "
+                        + "WHERE seeker_id = ? AND job_id = ? ORDER BY event_id";
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try { // CN 13: Handling errors.
+            pstmt = prepare(readConnection(), sql);
+            pstmt.setInt(1, seekerId);
+            pstmt.setInt(2, jobId);
+            if (withArchive) {
+                pstmt.setInt(3, seekerId);
+                pstmt.setInt(4, jobId);
+            }
+            rs = pstmt.executeQuery();
+            while (rs.next()) { // CN 1: While loop.
+                history.add(new ApplicationEvent(rs.getLong("event_id"), seekerId, jobId,
+                        ApplicationStatus.valueOf(rs.getString("status")), rs.getInt("actor_id"), rs.getTimestamp("created_at")));
+            }
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Problem getting application history: " + e.getMessage());
+            e.printStackTrace();
+        } finally { // CN 13: 'finally' block.
+            closeResources(rs, pstmt);
+        }
+        return history;
+    }
+
+    /**
+     * Builds the application_status table again from the event log (the last event of
+     * each application wins). Useful if the two ever disagree.
+     */
+    // CN 7: Method (to replay the event log).
+    public boolean rebuildApplicationStatuses() {
+        if (connection == null || !ensureApplicationStatusTables()) return false; // CN 1: If
+        String sql = "REPLACE INTO application_status (seeker_id, job_id, status, updated_at) "
+                + "SELECT e.seeker_id, e.job_id, e.status, e.created_at FROM application_events e "
+                + "JOIN (SELECT MAX(event_id) AS last_id FROM application_events GROUP BY seeker_id, job_id) latest "
+                + "ON e.event_id = latest.last_id";
+        try (Statement stmt = writeConnection().createStatement()) { // CN 13: try-with-resources.
+            stmt.executeUpdate(sql);
+            return true;
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Problem rebuilding application statuses: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+     // Helper method to check if someone has already applied.
+     // CN 7: Method (private helper method - only used inside this class).
+    // The application graph may be a little behind, so it only answers "no": if the seeker did
+    // apply on another computer since, the INSERT in applyForJob fails with a duplicate key and
+    // is handled there. A "yes" is checked in the database (the application may have been deleted).
+    private boolean hasApplied(int seekerId, int jobId) {
+        if (applicationGraph.isReady() && !applicationGraph.hasApplied(seekerId, jobId)) {
+            return false; // Answered from memory.
+        }
+        if (connection == null) return true; // Safer to assume they applied if we can't check DB?
+        String sql = "SELECT 1 FROM applications WHERE seeker_id = ? AND job_id = ? LIMIT 1";
+        PreparedStatement pstmt = null; // CN 4: JDBC PreparedStatement (for safe SQL queries).
+        ResultSet rs = null; // CN 4: JDBC ResultSet (holds results from database).
+        boolean applied = false;
+        try { // CN 13: Handling errors.
+            pstmt = prepare(connection, sql);
             pstmt.setInt(1, seekerId);
             pstmt.setInt(2, jobId);
             rs = pstmt.executeQuery(); // CN 4: Running the query.
@@ -453,148 +1606,719 @@ public class DatabaseManager {
 
      /**
      * Gets a list of JobSeekers who applied for a certain job.
+     * Only the short details for the list are loaded (no password, skills or CV text).
+     * Use loadSeekerProfile() to get the rest when an applicant is actually opened.
      */
      // CN 7: Method (to get people who applied).
      // CN 2: Gives back an ArrayList Data Structure.
     public List<JobSeeker> getApplicantsForJob(int jobId) {
         if (connection == null) return new ArrayList<>(); // CN 1: If // CN 6: Making a new, empty ArrayList object.
-        List<JobSeeker> applicants = new ArrayList<>(); // CN 2: ArrayList. // CN 6: Making a new ArrayList object.
         // We need to join users and applications tables to get seeker details.
-        String sql = "SELECT u.* FROM users u JOIN applications a ON u.user_id = a.seeker_id WHERE a.job_id = ? AND u.user_type = 'SEEKER'";
-        PreparedStatement pstmt = null; // CN 4: JDBC PreparedStatement (for safe SQL queries).
-        ResultSet rs = null; // CN 4: JDBC ResultSet (holds results from database).
-        try { // CN 13: Handling errors.
-            pstmt = connection.prepareStatement(sql);
+        String sql = "SELECT u.user_id, u.username, u.email, u.full_name FROM users u JOIN applications a ON u.user_id = a.seeker_id WHERE a.job_id = ? AND u.user_type = 'SEEKER'"
+                + notWithdrawn();
+        List<JobSeeker> applicants = resilientRead("getting applicants", () -> {
+            List<JobSeeker> found = new ArrayList<>(); // CN 2: ArrayList. // CN 6: Making a new ArrayList object.
+            try (PreparedStatement pstmt = prepare(readConnection(), sql)) { // CN 13: try-with-resources.
+                pstmt.setInt(1, jobId);
+                try (ResultSet rs = pstmt.executeQuery()) { // CN 4: Running the query.
+                    while (rs.next()) { // CN 1: While loop - go through each applicant.
+                        // CN 6: Making JobSeeker object for each applicant found.
+                        // CN 9: Related to Inheritance.
+                        JobSeeker seeker = new JobSeeker(
+                                rs.getInt("user_id"),
+                                rs.getString("username"),
+                                null, // The employer never needs the applicant's password.
+                                rs.getString("email"),
+                                rs.getString("full_name"),
+                                null, // Skills and CV are loaded later, only if needed.
+                                null
+                        );
+                        seeker.setProfileLoaded(false);
+                        found.add(seeker); // CN 2: Adding the seeker to the ArrayList.
+                    }
+                }
+            }
+            return found;
+        });
+        return applicants != null ? applicants : new ArrayList<>(); // CN 2: Send back the ArrayList of applicants.
+    }
+
+    /**
+     * Counts a job's applicants, the same ones getApplicantsPage() shows (seekers who still
+     * have an account, applications not withdrawn). The applications are found through the
+     * (job_id, application_date, seeker_id) index (see sql/indexes.sql), so this stays quick
+     * even for jobs with many thousands of applicants.
+     */
+    // CN 7: Method (to count the applicants of a job).
+    public int countApplicants(int jobId) {
+        if (connection == null) return 0; // CN 1: If
+        String sql = "SELECT COUNT(*) FROM applications a JOIN users u ON u.user_id = a.seeker_id "
+                + "WHERE a.job_id = ? AND u.user_type = 'SEEKER'" + notWithdrawn();
+        Integer count = resilientRead("counting applicants", () -> {
+            try (PreparedStatement pstmt = prepare(readConnection(), sql)) { // CN 13: try-with-resources.
+                pstmt.setInt(1, jobId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            }
+        });
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Gets one page of a job's applicants, sorted by the database, with the status of each
+     * application (joined in, so no separate query for all of the job's statuses).
+     * Give 'after' = null for the first page, then the page before to get the next one.
+     * Like getApplicantsForJob, only the short details are loaded (see loadSeekerProfile()).
+     */
+    // CN 7: Method (to get a page of applicants).
+    public ApplicantPage getApplicantsPage(int jobId, ApplicantSort sort, ApplicantPage after, int pageSize) {
+        if (connection == null) return new ApplicantPage(sort); // CN 1: If
+        if (after != null) {
+            sort = after.getSort(); // A next page always keeps the order of the first one.
+        }
+        ensureApplicantTriageTables();
+        if (sort == ApplicantSort.SKILLS && after == null) {
+            scoreApplicants(jobId); // Only the applicants who have no score yet.
+        }
+
+        // The status of each application comes with the page.
+        boolean withStatus = ensureApplicationStatusTables();
+        String columns = "SELECT u.user_id, u.username, u.email, u.full_name, " + (withStatus ? "s.status" : "NULL AS status") + ", ";
+        String statusJoin = withStatus ? "LEFT JOIN application_status s ON s.seeker_id = a.seeker_id AND s.job_id = a.job_id " : "";
+        String sql;
+        // CN 1: Control Structure (switch on the chosen order).
+        switch (sort) {
+            case SKILLS:
+                sql = columns + "m.score AS sort_key FROM application_match m "
+                        + "JOIN applications a ON a.job_id = m.job_id AND a.seeker_id = m.seeker_id "
+                        + "JOIN users u ON u.user_id = m.seeker_id " + statusJoin
+                        + "WHERE m.job_id = ? AND u.user_type = 'SEEKER'" + notWithdrawn()
+                        + (after == null ? "" : " AND (m.score < ? OR (m.score = ? AND m.seeker_id < ?))")
+                        + " ORDER BY m.score DESC, m.seeker_id DESC LIMIT ?";
+                break;
+            case NAME:
+                sql = columns + "COALESCE(u.full_name, '') AS sort_key FROM applications a "
+                        + "JOIN users u ON u.user_id = a.seeker_id " + statusJoin
+                        + "WHERE a.job_id = ? AND u.user_type = 'SEEKER'" + notWithdrawn()
+                        + (after == null ? "" : " AND (COALESCE(u.full_name, '') > ? OR (COALESCE(u.full_name, '') = ? AND u.user_id > ?))")
+                        + " ORDER BY sort_key, u.user_id LIMIT ?";
+                break;
+            default:
+                sql = columns + "a.application_date AS sort_key FROM applications a "
+                        + "JOIN users u ON u.user_id = a.seeker_id " + statusJoin
+                        + "WHERE a.job_id = ? AND u.user_type = 'SEEKER'" + notWithdrawn()
+                        + (after == null ? "" : " AND (a.application_date < ? OR (a.application_date = ? AND a.seeker_id < ?))")
+                        + " ORDER BY a.application_date DESC, a.seeker_id DESC LIMIT ?";
+                break;
+        }
+
+        ApplicantSort order = sort;
+        String pageSql = sql;
+        ApplicantPage page = resilientRead("getting a page of applicants", () -> {
+            List<JobSeeker> applicants = new ArrayList<>();
+            Map<Integer, ApplicationStatus> statuses = new HashMap<>();
+            Object lastKey = null;
+            boolean more = false;
+            try (PreparedStatement pstmt = prepare(readConnection(), pageSql)) { // CN 13: try-with-resources.
+                int index = 1;
+                pstmt.setInt(index++, jobId);
+                if (after != null) {
+                    pstmt.setObject(index++, after.getLastKey());
+                    pstmt.setObject(index++, after.getLastKey());
+                    pstmt.setInt(index++, after.getLastSeekerId());
+                }
+                pstmt.setInt(index, pageSize + 1); // One extra row tells us if there is another page.
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) { // CN 1: While loop.
+                        if (applicants.size() == pageSize) {
+                            more = true;
+                            break;
+                        }
+                        JobSeeker seeker = new JobSeeker(rs.getInt("user_id"), rs.getString("username"), null,
+                                rs.getString("email"), rs.getString("full_name"), null, null);
+                        seeker.setProfileLoaded(false);
+                        applicants.add(seeker);
+                        String status = rs.getString("status");
+                        if (status != null) {
+                            statuses.put(seeker.getUserId(), ApplicationStatus.valueOf(status));
+                        }
+                        lastKey = order == ApplicantSort.SKILLS ? (Object) rs.getInt("sort_key") // CN 1: Ternary operator.
+                                : order == ApplicantSort.NAME ? rs.getString("sort_key") : rs.getTimestamp("sort_key");
+                    }
+                }
+            }
+            int lastSeekerId = applicants.isEmpty() ? 0 : applicants.get(applicants.size() - 1).getUserId();
+            return new ApplicantPage(applicants, order, lastKey, lastSeekerId, more, statuses);
+        });
+        return page != null ? page : new ApplicantPage(sort);
+    }
+
+    /**
+     * Makes the table for sorting applicants by skill match (if needed):
+     * application_match, the skill match score of each application, with an index
+     * ordered by score, so "best skill match" pages are read in order.
+     * The (job_id, application_date, seeker_id) index on applications that counting and
+     * newest-first pages use is not made here: building it locks a big table, so it is
+     * made once with sql/indexes.sql.
+     * Scores are worked out the first time a job's applicants are sorted by skills, and
+     * forgotten when the job's text or the seeker's skills change.
+     */
+    // CN 7: Method (private helper method).
+    private boolean ensureApplicantTriageTables() {
+        if (applicantTriageTablesReady) return true;
+        try (Statement stmt = connection.createStatement()) { // CN 13: try-with-resources.
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS application_match ("
+                    + "job_id INT NOT NULL, "
+                    + "seeker_id INT NOT NULL, "
+                    + "score INT NOT NULL, "
+                    + "PRIMARY KEY (job_id, seeker_id), "
+                    + "INDEX idx_application_match_score (job_id, score, seeker_id))");
+            applicantTriageTablesReady = true;
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Problem creating applicant sorting tables: " + e.getMessage());
+        }
+        return applicantTriageTablesReady;
+    }
+
+    // Works out the skill match of each of the job's applicants that has no score yet:
+    // how many of the seeker's skills appear in the job's title and description.
+    private void scoreApplicants(int jobId) {
+        String jobSql = "SELECT title, description FROM jobs WHERE job_id = ?";
+        String sql = "SELECT a.seeker_id, u.skills FROM applications a JOIN users u ON u.user_id = a.seeker_id "
+                + "LEFT JOIN application_match m ON m.job_id = a.job_id AND m.seeker_id = a.seeker_id "
+                + "WHERE a.job_id = ? AND m.seeker_id IS NULL";
+        String insertSql = "INSERT IGNORE INTO application_match (job_id, seeker_id, score) VALUES (?, ?, ?)";
+        try (PreparedStatement jobStmt = prepare(readConnection(), jobSql);
+             PreparedStatement pstmt = prepare(readConnection(), sql);
+             PreparedStatement insert = prepare(writeConnection(), insertSql)) { // CN 13: try-with-resources.
+            Set<String> jobWords;
+            jobStmt.setInt(1, jobId);
+            try (ResultSet rs = jobStmt.executeQuery()) {
+                if (!rs.next()) return; // The job has gone.
+                jobWords = TextUtil.words(rs.getString("title") + " " + rs.getString("description"));
+            }
             pstmt.setInt(1, jobId);
-            rs = pstmt.executeQuery(); // CN 4: Running the query.
-            while (rs.next()) { // CN 1: While loop - go through each applicant.
-                // CN 6: Making JobSeeker object for each applicant found.
-                // CN 9: Related to Inheritance.
-                JobSeeker seeker = new JobSeeker(
-                        rs.getInt("user_id"),
-                        rs.getString("username"),
-                        rs.getString("password"), // Maybe don't need password here?
-                        rs.getString("email"),
-                        rs.getString("full_name"),
-                        rs.getString("skills"),
-                        rs.getString("resume_info")
-                );
-                applicants.add(seeker); // CN 2: Adding the seeker to the ArrayList.
+            int batched = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) { // CN 1: While loop.
+                    int score = 0;
+                    for (String skill : TextUtil.words(rs.getString("skills"))) {
+                        if (jobWords.contains(skill)) score++;
+                    }
+                    insert.setInt(1, jobId);
+                    insert.setInt(2, rs.getInt("seeker_id"));
+                    insert.setInt(3, score);
+                    insert.addBatch();
+                    if (++batched % SCORE_BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+            }
+            if (batched % SCORE_BATCH_SIZE != 0) {
+                insert.executeBatch();
             }
         } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
-             System.err.println("Problem getting applicants: " + e.getMessage());
-             e.printStackTrace();
-        } finally { // CN 13: 'finally' block.
-            closeResources(rs, pstmt);
+            System.err.println("Problem scoring applicants: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Forgets saved skill match scores (column is "job_id" or "seeker_id"), so they are
+    // worked out again with the new text the next time they are needed.
+    private void forgetMatchScores(String column, int id) {
+        if (!ensureApplicantTriageTables()) return;
+        try (PreparedStatement pstmt = prepare(writeConnection(), "DELETE FROM application_match WHERE " + column + " = ?")) {
+            pstmt.setInt(1, id);
+            pstmt.executeUpdate();
+        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+            System.err.println("Problem forgetting match scores: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fills in the skills and CV text of a seeker that came from getApplicantsForJob.
+     * Recently viewed profiles are kept in a small cache, so clicking back and forth
+     * between applicants does not ask the database again.
+     * Returns true if the details are now there.
+     */
+     // CN 7: Method (to load the full profile of an applicant).
+    public boolean loadSeekerProfile(JobSeeker seeker) {
+        if (seeker.isProfileLoaded()) return true; // CN 1: If - nothing to do.
+
+        String[] cached;
+        synchronized (profileCache) {
+            cached = profileCache.get(seeker.getUserId());
+        }
+        if (cached == null) {
+            if (connection == null) return false;
+            String sql = "SELECT skills, resume_info FROM users WHERE user_id = ?";
+            try (PreparedStatement pstmt = prepare(readConnection(), sql)) { // CN 13: try-with-resources.
+                pstmt.setInt(1, seeker.getUserId());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return false; // The seeker has been deleted.
+                    }
+                    cached = new String[] {rs.getString("skills"), rs.getString("resume_info")};
+                }
+            } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+                System.err.println("Problem loading applicant profile: " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+            synchronized (profileCache) {
+                profileCache.put(seeker.getUserId(), cached);
+            }
+        }
+        seeker.setSkills(cached[0]);
+        seeker.setResumeInfo(cached[1]);
+        seeker.clearChanges(); // Loaded from the database, so not a change to save.
+        seeker.setProfileLoaded(true);
+        return true;
+    }
+
+    // Forgets a cached profile after the seeker changes it.
+    private void forgetCachedProfile(int userId) {
+        synchronized (profileCache) {
+            profileCache.remove(userId);
         }
-        return applicants; // CN 2: Send back the ArrayList of applicants.
     }
 
     /**
-     * Gets a list of jobs that a specific seeker has applied for.
+     * Gets a list of jobs that a specific seeker has applied for, newest application first.
+     * Applications for jobs that have since expired (archived) are included too.
      */
      // CN 7: Method (to get jobs someone applied for).
      // CN 2: Gives back an ArrayList Data Structure.
     public List<Job> getAppliedJobs(int seekerId) {
         if (connection == null) return new ArrayList<>(); // CN 1: If // CN 6: Making a new, empty ArrayList object.
-        List<Job> appliedJobs = new ArrayList<>(); // CN 2: ArrayList. // CN 6: Making a new ArrayList object.
+        // (No shortcut from the application graph here: it only knows the live applications.)
         // Join jobs and applications tables to get job details for the seeker's applications.
-        String sql = "SELECT j.* FROM jobs j " +
-                     "JOIN applications a ON j.job_id = a.job_id " +
-                     "WHERE a.seeker_id = ? " +
-                     "ORDER BY a.application_date DESC";
-        PreparedStatement pstmt = null; // CN 4: JDBC PreparedStatement (for safe SQL queries).
-        ResultSet rs = null; // CN 4: JDBC ResultSet (holds results from database).
+        String jobColumns = "j." + JOB_COLUMNS.replace(", ", ", j.");
+        boolean withArchive = ensureArchiveTables();
+        String sql = withArchive
+                ? "SELECT " + jobColumns + ", a.application_date FROM jobs j JOIN applications a ON j.job_id = a.job_id WHERE a.seeker_id = ? "
+                        + "UNION ALL SELECT " + jobColumns + ", a.application_date FROM jobs_archive j "
+                        + "JOIN applications_archive a ON j.job_id = a.job_id WHERE a.seeker_id = ? "
+                        + "ORDER BY application_date DESC"
+                : "SELECT " + jobColumns + " FROM jobs j JOIN applications a ON j.job_id = a.job_id WHERE a.seeker_id = ? "
+                        + "ORDER BY a.application_date DESC";
+        Object[] parameters = withArchive ? new Object[] {seekerId, seekerId} : new Object[] {seekerId};
+        List<Job> appliedJobs = resilientRead("getting applied jobs", () -> queryJobs(sql, parameters));
+        if (appliedJobs == null) {
+            // Database not answering: the application graph knows which of the last known jobs they applied for.
+            appliedJobs = new ArrayList<>();
+            int[] jobIds = applicationGraph.jobsOf(seekerId);
+            for (Job job : lastKnownJobs) {
+                if (Arrays.binarySearch(jobIds, job.getJobId()) >= 0) appliedJobs.add(job);
+            }
+        }
+        return appliedJobs; // CN 2: Send back the ArrayList of jobs.
+    }
 
-        try { // CN 13: Handling errors.
-            pstmt = connection.prepareStatement(sql);
-            pstmt.setInt(1, seekerId);
-            rs = pstmt.executeQuery(); // CN 4: Running the query.
+    // Runs a query on the jobs table (or with the same columns) and makes a Job for each row.
+    // The parameters fill the ? marks in order (Integer or String).
+    private List<Job> queryJobs(String sql, Object... parameters) throws SQLException {
+        List<Job> jobs = new ArrayList<>(); // CN 2: ArrayList.
+        try (PreparedStatement pstmt = prepare(readConnection(), sql)) { // CN 13: try-with-resources.
+            for (int i = 0; i < parameters.length; i++) {
+                pstmt.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) { // CN 4: Running the query.
+                while (rs.next()) { // CN 1: While loop - go through each result.
+                    // CN 6: Making a Job object for each result row.
+                    jobs.add(new Job(
+                            rs.getInt("job_id"),
+                            rs.getInt("employer_id"),
+                            rs.getString("title"),
+                            rs.getString("description"),
+                            rs.getString("location"),
+                            rs.getDouble("salary"),
+                            rs.getString("company_name"),
+                            rs.getTimestamp("posted_at")
+                    ));
+                }
+            }
+        }
+        return jobs;
+    }
 
-            while (rs.next()) { // CN 1: While loop - go through each applied job.
-                 // CN 6: Making Job object.
-                 Job job = new Job(
-                        rs.getInt("job_id"),
-                        rs.getInt("employer_id"),
-                        rs.getString("title"),
-                        rs.getString("description"),
-                        rs.getString("location"),
-                        rs.getDouble("salary"),
-                        rs.getString("company_name"),
-                        rs.getTimestamp("posted_at") // Get the time the job was posted.
-                );
-                appliedJobs.add(job); // CN 2: Adding the job to the ArrayList.
+    // Hands a full list of open jobs to the similar jobs worker. Only the newest list waits,
+    // so many loads in a row don't pile up work.
+    private void refreshSimilarJobIndex(List<Job> openJobs) {
+        if (newestOpenJobs.getAndSet(new ArrayList<>(openJobs)) == null) {
+            similarJobsWorker.execute(this::updateSimilarJobIndex);
+        }
+    }
+
+    // On the worker: brings the index up to date with the newest list, or makes it (again).
+    private void updateSimilarJobIndex() {
+        List<Job> openJobs = newestOpenJobs.getAndSet(null);
+        SimilarJobIndex current = similarJobs;
+        if (current != null && current.changedSinceBuild() <= current.size() / 4) { // CN 1: If
+            current.sync(openJobs);
+            return;
+        }
+        synchronized (similarJobsLock) {
+            similarChangesDuringBuild = new ArrayList<>();
+        }
+        long start = System.currentTimeMillis();
+        SimilarJobIndex fresh = null;
+        try { // CN 13: 'finally' - stop collecting changes even if the build fails.
+            fresh = SimilarJobIndex.build(openJobs);
+        } finally {
+            synchronized (similarJobsLock) {
+                if (fresh != null) {
+                    for (Consumer<SimilarJobIndex> change : similarChangesDuringBuild) {
+                        change.accept(fresh); // Saved, edited or removed while building.
+                    }
+                    similarJobs = fresh;
+                }
+                similarChangesDuringBuild = null;
             }
-        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
-            System.err.println("Problem getting applied jobs: " + e.getMessage());
-            e.printStackTrace();
-        } finally { // CN 13: 'finally' block.
-           closeResources(rs, pstmt); // Use helper method.
         }
-        return appliedJobs; // CN 2: Send back the ArrayList of jobs.
+        System.out.println("Similar jobs index: " + openJobs.size() + " jobs in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    // Puts a change in the similar jobs index, and in the one being built (if any).
+    private void changeSimilarJobs(Consumer<SimilarJobIndex> change) {
+        synchronized (similarJobsLock) {
+            SimilarJobIndex index = similarJobs;
+            if (index != null) change.accept(index);
+            if (similarChangesDuringBuild != null) {
+                similarChangesDuringBuild.add(change);
+            }
+        }
+    }
+
+    private void forgetSimilarJob(int jobId) {
+        changeSimilarJobs(index -> index.remove(jobId));
     }
 
     /**
-     * Deletes a job application record.
-     * Returns true if it worked, false if not.
+     * Gives back up to 'limit' open jobs that read most like this one, most similar first.
+     * Answered from memory; empty until the index has been made (after the first job list loads).
      */
-     // CN 7: Method (to remove an application).
-     public boolean deleteApplication(int seekerId, int jobId) {
-        if (connection == null) return false; // CN 1: If
-        String sql = "DELETE FROM applications WHERE seeker_id = ? AND job_id = ?";
+    // CN 7: Method (to suggest similar jobs).
+    public List<Job> getSimilarJobs(Job job, int limit) {
+        SimilarJobIndex index = similarJobs;
+        return index != null ? index.similarTo(job, limit) : new ArrayList<>();
+    }
+
+    /**
+     * Open jobs that people who applied for this job also applied for, most shared first.
+     * Leaves out jobs the seeker already applied for. Answered from memory (empty until
+     * the application graph and the job list have loaded).
+     */
+    // CN 7: Method (to suggest jobs from other seekers' applications).
+    public List<Job> getAlsoAppliedJobs(int seekerId, int jobId, int limit) {
+        int[] ownJobs = applicationGraph.jobsOf(seekerId);
+        Map<Integer, Job> openJobs = lastKnownJobsById;
+        List<Job> jobs = new ArrayList<>();
+        for (int otherId : coApplications.alsoApplied(jobId, CoApplicationIndex.TOP_N)) { // CN 1: For-each loop.
+            Job other = openJobs.get(otherId); // Missing if deleted or archived since.
+            if (other != null && Arrays.binarySearch(ownJobs, otherId) < 0) {
+                jobs.add(other);
+                if (jobs.size() == limit) break;
+            }
+        }
+        return jobs;
+    }
+
+    private static boolean containsIgnoreCase(String text, String lowerCaseTerm) {
+        return text != null && text.toLowerCase().contains(lowerCaseTerm);
+    }
+
+    /**
+     * Gets the analytics numbers for every job of one employer.
+     * One grouped query works out the applicant count and the first application
+     * time for all jobs at once, instead of a COUNT query per job.
+     */
+     // CN 7: Method (to get analytics for an employer).
+     // CN 2: Gives back an ArrayList Data Structure.
+    public List<JobStats> getJobStatsForEmployer(int employerId) {
+        if (connection == null) return new ArrayList<>(); // CN 1: If
+        String sql = "SELECT j.job_id, j.title, j.posted_at, COUNT(a.job_id) AS applicant_count, MIN(a.application_date) AS first_application " +
+                     "FROM jobs j LEFT JOIN applications a ON j.job_id = a.job_id" + notWithdrawn() + " " +
+                     "WHERE j.employer_id = ? " +
+                     "GROUP BY j.job_id, j.title, j.posted_at " +
+                     "ORDER BY applicant_count DESC";
+        List<JobStats> stats = resilientRead("getting job analytics", () -> {
+            List<JobStats> found = new ArrayList<>();
+            try (PreparedStatement pstmt = prepare(readConnection(), sql)) { // CN 13: try-with-resources.
+                pstmt.setInt(1, employerId);
+                try (ResultSet rs = pstmt.executeQuery()) { // CN 4: Running the query.
+                    while (rs.next()) { // CN 1: While loop - one row per job.
+                        found.add(new JobStats(
+                                rs.getInt("job_id"),
+                                rs.getString("title"),
+                                rs.getInt("applicant_count"),
+                                rs.getTimestamp("posted_at"),
+                                rs.getTimestamp("first_application")
+                        ));
+                    }
+                }
+            }
+            return found;
+        });
+        return stats != null ? stats : new ArrayList<>();
+    }
+
+    /**
+     * Counts how many applications an employer's jobs got on each of the last few days.
+     * Gives back a Map of date (yyyy-mm-dd) to count, oldest day first.
+     */
+     // CN 7: Method (to get applications per day).
+    public Map<String, Integer> getApplicationsPerDay(int employerId, int days) {
+        if (connection == null) return new LinkedHashMap<>(); // CN 1: If
+        String sql = "SELECT DATE(a.application_date) AS day, COUNT(*) AS total " +
+                     "FROM applications a JOIN jobs j ON a.job_id = j.job_id " +
+                     "WHERE j.employer_id = ? AND a.application_date >= DATE_SUB(CURDATE(), INTERVAL ? DAY)" + notWithdrawn() + " " +
+                     "GROUP BY DATE(a.application_date) " +
+                     "ORDER BY day";
+        Map<String, Integer> perDay = resilientRead("getting applications per day", () -> {
+            Map<String, Integer> found = new LinkedHashMap<>(); // Keeps the days in order.
+            try (PreparedStatement pstmt = prepare(readConnection(), sql)) { // CN 13: try-with-resources.
+                pstmt.setInt(1, employerId);
+                pstmt.setInt(2, days);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        found.put(rs.getDate("day").toString(), rs.getInt("total"));
+                    }
+                }
+            }
+            return found;
+        });
+        return perDay != null ? perDay : new LinkedHashMap<>();
+    }
+
+    /**
+     * Writes every applicant for all of an employer's jobs straight to 'out',
+     * one row at a time, as CSV or as JSON lines.
+     * It uses one joined query and asks the driver to stream the rows, so memory
+     * use stays the same however many applicants there are.
+     * 'progress' is told the number of rows written so far (every 100 rows and at the end).
+     * Returns the number of rows written, or -1 if something went wrong.
+     */
+     // CN 7: Method (to export applicants).
+    public int exportApplicants(int employerId, boolean jsonLines, Writer out, IntConsumer progress) {
+        if (connection == null) return -1; // CN 1: If
+        String sql = "SELECT j.job_id, j.title, u.full_name, u.email, u.skills, a.application_date, u.resume_info " +
+                     "FROM applications a " +
+                     "JOIN jobs j ON a.job_id = j.job_id " +
+                     "JOIN users u ON a.seeker_id = u.user_id " +
+                     "WHERE j.employer_id = ?" + notWithdrawn() + " " +
+                     "ORDER BY j.job_id, a.application_date";
+        Connection exportConnection = null;
         PreparedStatement pstmt = null; // CN 4: JDBC PreparedStatement (for safe SQL queries).
-        boolean success = false;
+        ResultSet rs = null; // CN 4: JDBC ResultSet (holds results from database).
+        int rows = 0;
         try { // CN 13: Handling errors.
-            pstmt = connection.prepareStatement(sql);
-            pstmt.setInt(1, seekerId);
-            pstmt.setInt(2, jobId);
-
-            int rowsAffected = pstmt.executeUpdate(); // CN 4: Running the SQL DELETE.
-            // Check if any row was actually removed.
-            success = rowsAffected > 0;
+            // A streaming result blocks its connection until it is finished,
+            // so the export gets its own connection and the dashboard keeps working.
+            exportConnection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+            pstmt = exportConnection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            runningStatements.put(Thread.currentThread(), pstmt); // No timeout (big exports take long), but it can be cancelled.
+            // The default (Integer.MIN_VALUE) tells MySQL to send rows one by one instead of all at once.
+            pstmt.setFetchSize(CONFIG.getInt(AppConfig.DB_EXPORT_FETCH_SIZE));
+            pstmt.setInt(1, employerId);
+            rs = pstmt.executeQuery();
 
-        } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
-            System.err.println("Problem deleting application: " + e.getMessage());
+            if (!jsonLines) {
+                out.write("job_id,job_title,full_name,email,skills,application_date,resume_info\n");
+            }
+            while (rs.next()) { // CN 1: While loop - one row per application.
+                String[] values = {
+                        String.valueOf(rs.getInt("job_id")),
+                        rs.getString("title"),
+                        rs.getString("full_name"),
+                        rs.getString("email"),
+                        rs.getString("skills"),
+                        String.valueOf(rs.getTimestamp("application_date")),
+                        rs.getString("resume_info")
+                };
+                if (jsonLines) {
+                    writeJsonLine(out, values);
+                } else {
+                    writeCsvLine(out, values);
+                }
+                rows++;
+                if (rows % 100 == 0) {
+                    progress.accept(rows);
+                }
+            }
+            out.flush();
+            progress.accept(rows);
+        } catch (SQLException | IOException e) { // CN 13: Catching database and file errors.
+            System.err.println("Problem exporting applicants: " + e.getMessage());
             e.printStackTrace();
-            success = false;
+            rows = -1;
         } finally { // CN 13: 'finally' block.
-            closeResources(null, pstmt); // Only the statement needs closing here.
+            closeResources(rs, pstmt);
+            try {
+                if (exportConnection != null) exportConnection.close();
+            } catch (SQLException e) {
+                System.err.println("Problem closing export connection: " + e.getMessage());
+            }
         }
-        return success;
+        return rows;
+    }
+
+    // Column names used for JSON lines export (same order as the CSV header).
+    private static final String[] EXPORT_FIELDS = {"job_id", "job_title", "full_name", "email", "skills", "application_date", "resume_info"};
+
+    // Helper method to write one CSV row. Values with commas, quotes or new lines get quoted.
+    private static void writeCsvLine(Writer out, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) { // CN 1: For loop.
+            if (i > 0) out.write(',');
+            String value = values[i] != null ? values[i] : "";
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write('\n');
+    }
+
+    // Helper method to write one JSON object on its own line.
+    private static void writeJsonLine(Writer out, String[] values) throws IOException {
+        out.write('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) out.write(',');
+            out.write('"');
+            out.write(EXPORT_FIELDS[i]);
+            out.write("\":");
+            if (values[i] == null) {
+                out.write("null");
+                continue;
+            }
+            out.write('"');
+            for (int c = 0; c < values[i].length(); c++) {
+                char ch = values[i].charAt(c);
+                if (ch == '"' || ch == '\\') {
+                    out.write('\\');
+                    out.write(ch);
+                } else if (ch < 0x20) {
+                    out.write(String.format("\\u%04x", (int) ch)); // Control characters like new lines.
+                } else {
+                    out.write(ch);
+                }
+            }
+            out.write('"');
+        }
+        out.write("}\n");
     }
 
     /**
      * Changes a user's profile information in the database.
-     * Returns true if it worked, false if not.
+     * Only the columns changed through the 'set' methods are sent.
+     * Returns true if it worked (or there was nothing to change), false if not.
      */
      // CN 7: Method (to change user details).
     public boolean updateUser(User user) { // CN 6: Takes User object with new details.
-        if (connection == null) return false; // CN 1: If
-        String sql = "UPDATE users SET email=?, password=?, full_name=?, skills=?, resume_info=?, company_name=? WHERE user_id=?";
+        boolean success = updateUserColumns(user.getUserId(), changedValues(user));
+        if (success) {
+            user.clearChanges(); // Saved, so nothing is waiting any more.
+        }
+        return success;
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) { // CN 13: try-with-resources.
-             // CN 11: Using 'get' methods.
-            pstmt.setString(1, user.getEmail());
-            pstmt.setString(2, user.getPassword()); // Plain text password.
+    /**
+     * Queues a user's changed columns to be saved in the background (see ProfileWriteQueue).
+     * Returns straight away; quick edits one after another end up as one UPDATE.
+     * The future gets true once they are saved, or false if the database write failed
+     * (they are kept and tried again later).
+     */
+     // CN 7: Method (to save user details later).
+    public CompletableFuture<Boolean> queueUserUpdate(User user) {
+        Map<String, String> changes = changedValues(user);
+        user.clearChanges();
+        forgetCachedProfile(user.getUserId());
+        return writeQueue.enqueue(user.getUserId(), changes);
+    }
 
-            if (user instanceof JobSeeker) { // CN 1: If // CN 9: Check object type
-                JobSeeker seeker = (JobSeeker) user;
-                pstmt.setString(3, seeker.getFullName());
-                pstmt.setString(4, seeker.getSkills());
-                pstmt.setString(5, seeker.getResumeInfo());
-                pstmt.setNull(6, Types.VARCHAR); // company_name is empty for seeker.
-            } else if (user instanceof Employer) { // CN 1: Else If
-                Employer employer = (Employer) user;
-                pstmt.setNull(3, Types.VARCHAR); // seeker fields are empty for employer.
-                pstmt.setNull(4, Types.VARCHAR);
-                pstmt.setNull(5, Types.VARCHAR);
-                pstmt.setString(6, employer.getCompanyName());
+    /**
+     * Saves any queued profile changes now. Called when the program closes.
+     */
+    public void flushPendingWrites() {
+        writeQueue.flushNow();
+    }
+
+    // Helper method: the new values of the columns a user changed, ready for the database.
+    // CN 7: Method (private helper method).
+    private Map<String, String> changedValues(User user) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String column : user.getChangedColumns()) { // CN 1: For-each loop.
+            String value = null;
+            // CN 1: Control Structure (switch on the column name).
+            switch (column) {
+                case "email":
+                    value = user.getEmail();
+                    break;
+                case "password":
+                    value = PasswordHasher.hash(user.getPassword()); // Only the salted hash is stored.
+                    break;
+                case "full_name":
+                    value = ((JobSeeker) user).getFullName();
+                    break;
+                case "skills":
+                    value = ((JobSeeker) user).getSkills();
+                    break;
+                case "resume_info":
+                    value = ((JobSeeker) user).getResumeInfo();
+                    break;
+                case "company_name":
+                    value = ((Employer) user).getCompanyName();
+                    break;
+                default:
+                    continue; // Not a column we save.
             }
+            values.put(column, value);
+        }
+        return values;
+    }
 
-            pstmt.setInt(7, user.getUserId());
+    /**
+     * Updates only the given columns of one user (column name -> new value).
+     * Returns true if it worked (or there was nothing to change), false if not.
+     */
+     // CN 7: Method (to change some user columns).
+    public boolean updateUserColumns(int userId, Map<String, String> values) {
+        if (values.isEmpty()) return true; // CN 1: If - nothing changed.
+        if (connection == null) return false;
 
+        // Build "UPDATE users SET a=?, b=? WHERE user_id=?" from the known column names only.
+        StringBuilder sql = new StringBuilder("UPDATE users SET ");
+        for (String column : values.keySet()) {
+            if (!UPDATABLE_USER_COLUMNS.contains(column)) {
+                System.err.println("Refusing to update unknown user column: " + column);
+                return false;
+            }
+            if (sql.charAt(sql.length() - 1) == '?') sql.append(", ");
+            sql.append(column).append("=?");
+        }
+        sql.append(" WHERE user_id=?");
+
+        try (PreparedStatement pstmt = prepare(writeConnection(), sql.toString())) { // CN 13: try-with-resources.
+            int index = 1;
+            for (String value : values.values()) {
+                pstmt.setString(index++, value);
+            }
+            pstmt.setInt(index, userId);
+
+            forgetCachedProfile(userId);
             // CN 4: Running the SQL UPDATE command.
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated && values.containsKey("skills")) {
+                forgetMatchScores("seeker_id", userId);
+            }
+            if (updated) {
+                auditLog.record("PROFILE_EDITED", userId, userId, String.join(",", values.keySet())); // Column names only, never values.
+            }
+            return updated;
         } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
             System.err.println("Problem updating user profile: " + e.getMessage());
             e.printStackTrace();
@@ -604,72 +2328,86 @@ public class DatabaseManager {
 
     /**
      * Deletes a user's profile and related things (like applications or jobs).
-     * For JobSeekers: Removes their applications.
-     * For Employers: Removes their jobs and any applications for those jobs.
+     * For JobSeekers: Removes their applications (with their statuses, history and skill
+     * scores), saved searches and inbox.
+     * For Employers: Removes their jobs and any applications for those jobs (the same way),
+     * and the notifications about those jobs.
      * Returns true if it worked, false if not.
      */
      // CN 7: Method (to remove a user).
     public boolean deleteUser(User user) { // CN 6: Takes User object to remove.
         if (connection == null) return false; // CN 1: If
 
+        // Made before the transaction starts, because creating a table would end it.
+        boolean hasNotificationTables = ensureNotificationTables();
+        boolean hasStatusTables = ensureApplicationStatusTables();
+        boolean hasTriageTables = ensureApplicantTriageTables();
+        List<SavedSearch> savedSearches = user instanceof JobSeeker ? getSavedSearches(user.getUserId()) : new ArrayList<>();
+        List<Job> employerJobs = user instanceof Employer ? getJobsByEmployer(user.getUserId()) : new ArrayList<>();
+
         try { // CN 13: Handling errors.
-            // Start a transaction - means all steps must work, or none do.
-            connection.setAutoCommit(false);
-
-            // Remove related things first, depending on user type.
-            if (user instanceof JobSeeker) { // CN 1: If // CN 9: Check object type
-                // Remove all applications made by this seeker.
-                String deleteApps = "DELETE FROM applications WHERE seeker_id = ?";
-                try (PreparedStatement pstmt = connection.prepareStatement(deleteApps)) { // CN 13: Try-with-resources.
-                    pstmt.setInt(1, user.getUserId());
-                    pstmt.executeUpdate(); // CN 4: Running update.
+            // One transaction, on a connection of its own - means all steps must work, or none do.
+            boolean deleted = inTransaction(transaction -> {
+                // Remove related things first, depending on user type. Every statement
+                // below takes the user's id as its only '?'.
+                // CN 1: Ternary operator - which applications belong to this user.
+                String which = user instanceof Employer // CN 9: Check object type
+                        ? " WHERE job_id IN (SELECT job_id FROM jobs WHERE employer_id = ?)" // For the employer's jobs.
+                        : " WHERE seeker_id = ?"; // Made by the seeker.
+                List<String> deletes = new ArrayList<>(); // CN 2: ArrayList.
+                if (hasStatusTables) {
+                    deletes.add("DELETE FROM application_events" + which); // Their status history...
+                    deletes.add("DELETE FROM application_status" + which); // ...and latest status.
                 }
-            } else if (user instanceof Employer) { // CN 1: Else if
-                // Remove all applications for jobs posted by this employer.
-                String deleteApps = "DELETE FROM applications WHERE job_id IN (SELECT job_id FROM jobs WHERE employer_id = ?)";
-                try (PreparedStatement pstmt = connection.prepareStatement(deleteApps)) {
-                    pstmt.setInt(1, user.getUserId());
-                    pstmt.executeUpdate();
+                if (hasTriageTables) {
+                    deletes.add("DELETE FROM application_match" + which); // Skill match scores.
+                }
+                if (hasNotificationTables) {
+                    // A seeker's inbox, or everyone's notifications about the employer's jobs.
+                    deletes.add("DELETE FROM notifications" + which);
+                }
+                deletes.add("DELETE FROM applications" + which);
+                if (user instanceof Employer) { // CN 1: If - the jobs go last, the statements above look them up.
+                    deletes.add("DELETE FROM jobs WHERE employer_id = ?");
+                } else if (hasNotificationTables) {
+                    deletes.add("DELETE FROM saved_searches WHERE seeker_id = ?");
+                }
+                for (String sql : deletes) { // CN 1: For-each loop.
+                    try (PreparedStatement pstmt = prepare(transaction, sql)) { // CN 13: Try-with-resources.
+                        pstmt.setInt(1, user.getUserId());
+                        pstmt.executeUpdate(); // CN 4: Running update.
+                    }
                 }
 
-                // Remove all jobs posted by this employer.
-                String deleteJobs = "DELETE FROM jobs WHERE employer_id = ?";
-                try (PreparedStatement pstmt = connection.prepareStatement(deleteJobs)) {
+                // Now, remove the user themselves.
+                String deleteUser = "DELETE FROM users WHERE user_id = ?";
+                try (PreparedStatement pstmt = prepare(transaction, deleteUser)) {
                     pstmt.setInt(1, user.getUserId());
-                    pstmt.executeUpdate();
+                    if (pstmt.executeUpdate() == 0) { // CN 1: If - the user was not there.
+                        transaction.rollback(); // CN 4: Undo all changes from this transaction.
+                        return false;
+                    }
                 }
-            }
+                return true;
+            });
 
-            // Now, remove the user themselves.
-            String deleteUser = "DELETE FROM users WHERE user_id = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(deleteUser)) {
-                pstmt.setInt(1, user.getUserId());
-                int result = pstmt.executeUpdate(); // CN 4: Running update.
-
-                if (result > 0) { // CN 1: If - did the user get removed?
-                    connection.commit(); // CN 4: Make all changes permanent.
-                    return true;
-                } else {
-                    connection.rollback(); // CN 4: Undo all changes from this transaction.
-                    return false;
+            if (deleted) { // CN 1: If - did the user get removed?
+                for (SavedSearch search : savedSearches) {
+                    notificationEngine.searchDeleted(search.getSearchId()); // No more notifications for this user.
                 }
+                coApplications.seekerChanged(user.getUserId(), new int[0]); // Take their pairs out of the counts.
+                applicationGraph.removeSeeker(user.getUserId());
+                for (Job job : employerJobs) {
+                    applicationGraph.removeJob(job.getJobId());
+                    forgetSimilarJob(job.getJobId());
+                }
+                auditLog.record("USER_DELETED", user.getUserId(), user.getUserId(), user.getUserType().toString());
             }
-
+            return deleted;
         } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
-            try { // Nested try-catch for rollback error.
-                connection.rollback(); // Try to undo changes if anything went wrong.
-            } catch (SQLException rollbackEx) {
-                System.err.println("Problem undoing changes: " + rollbackEx.getMessage());
-            }
             System.err.println("Problem deleting user profile: " + e.getMessage());
             e.printStackTrace();
             return false;
-        } finally { // CN 13: 'finally' block - always runs.
-            try {
-                connection.setAutoCommit(true); // Put database back to normal auto-commit mode.
-            } catch (SQLException e) {
-                System.err.println("Problem resetting auto-commit: " + e.getMessage());
-            }
         }
     }
 
@@ -679,6 +2417,14 @@ public class DatabaseManager {
      */
     // CN 7: Method (to close the database connection).
     public void closeConnection() {
+        graphLoader.shutdownNow();
+        similarJobsWorker.shutdownNow();
+        reconnector.shutdownNow();
+        auditLog.close(); // Writes the events still in the ring.
+        jobSnapshot.close();
+        replicaRouter.closeAll();
+        readPool.closeAll();
+        transactionPool.closeAll();
         try { // CN 13: Handling errors.
             if (connection != null && !connection.isClosed()) { // CN 1: If - check if connected.
                 connection.close(); // CN 4: Closing the JDBC connection.
@@ -690,6 +2436,17 @@ public class DatabaseManager {
         }
     }
 
+    // Helper method to split a comma-separated list of URLs (blank entries are skipped).
+    private static List<String> parseUrlList(String urls) {
+        List<String> list = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            if (!url.trim().isEmpty()) {
+                list.add(url.trim());
+            }
+        }
+        return list;
+    }
+
     // Helper method to close ResultSet and Statement/PreparedStatement cleanly.
     // CN 7: Method (private helper method - only used inside this class).
     private void closeResources(ResultSet rs, Statement stmt) {
@@ -702,6 +2459,7 @@ public class DatabaseManager {
         }
         try { // CN 13: Handling errors.
             if (stmt != null) { // CN 1: If
+                runningStatements.remove(Thread.currentThread(), stmt); // Nothing left to cancel.
                 stmt.close(); // CN 4: Closing the JDBC Statement.
             }
         } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
@@ -0,0 +1,89 @@
+package com.joblit.db;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.joblit.model.Job;
+import com.joblit.model.ModelCodec;
+
+/**
+ * JobSnapshot.java
+ * Keeps the last loaded list of open jobs in a file (in the ModelCodec binary form), so
+ * the program can show it when the database can't be reached straight after start-up,
+ * before any list has been loaded in this run.
+ * - save() hands the list to a background thread; only the newest waiting list is
+ *   written, so many loads in a row don't pile up work.
+ * - The file is written next to the old one and then moved over it, so a crash while
+ *   writing never leaves half a snapshot.
+ * - load() gives back an empty list if there is no file or it can't be read.
+ */
+public class JobSnapshot {
+
+    private final Path file;
+    private final AtomicReference<List<Job>> waiting = new AtomicReference<>(); // Not written yet.
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "job-snapshot");
+        thread.setDaemon(true); // Don't keep the program alive just for this thread.
+        return thread;
+    });
+
+    // CN 5: Constructor.
+    public JobSnapshot(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Writes the jobs to the file in the background.
+     */
+    public void save(List<Job> jobs) {
+        if (waiting.getAndSet(new ArrayList<>(jobs)) == null) {
+            writer.execute(this::writeWaiting);
+        }
+    }
+
+    /**
+     * Reads the jobs saved last time (empty if there are none).
+     */
+    public List<Job> load() {
+        if (!Files.exists(file)) {
+            return new ArrayList<>();
+        }
+        try { // CN 13: Handling errors.
+            return ModelCodec.decodeJobs(ByteBuffer.wrap(Files.readAllBytes(file)));
+        } catch (IOException | RuntimeException e) { // CN 13: A missing or damaged file just means no snapshot.
+            System.err.println("Problem reading job snapshot " + file + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Lets a waiting write finish, then stops the background thread (called when the program finishes).
+     */
+    public void close() {
+        writer.shutdown();
+    }
+
+    private void writeWaiting() {
+        List<Job> jobs = waiting.getAndSet(null);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        ModelCodec.Writer encoded = new ModelCodec.Writer(jobs.size() * 64);
+        for (Job job : jobs) { // CN 1: For-each loop.
+            encoded.writeJob(job);
+        }
+        try { // CN 13: Handling errors.
+            Files.createDirectories(file.getParent());
+            Files.write(temp, encoded.toByteArray());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) { // CN 13: Catching file errors - the old snapshot stays.
+            System.err.println("Problem writing job snapshot: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.joblit.db;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LoginRateLimiter.java
+ * Stops one username from being tried over and over very quickly.
+ * Each username has a small "bucket" of login tries. Every try takes one out,
+ * and the bucket slowly fills up again over time. An empty bucket means
+ * the login is refused without asking the database or hashing anything.
+ * A bucket left alone long enough to fill up again is the same as a new one,
+ * so those are thrown away now and then; the map only holds recently tried names.
+ * CN 2: Uses a Map (Data Structure) to keep one bucket per username.
+ */
+public class LoginRateLimiter {
+
+    private final int capacity; // Most tries allowed in a burst.
+    private final long refillMillis; // Time to get one try back.
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger triesSinceSweep = new AtomicInteger();
+    private static final int SWEEP_EVERY = 1000; // Tries between clean-ups of full buckets.
+
+    // CN 5: Constructor.
+    public LoginRateLimiter(int capacity, long refillMillis) {
+        this.capacity = capacity;
+        this.refillMillis = refillMillis;
+    }
+
+    /**
+     * Takes one try for this username.
+     * Gives back true if the login may go ahead, false if there were too many tries.
+     */
+    public boolean tryAcquire(String username) {
+        String key = username.toLowerCase();
+        if (triesSinceSweep.incrementAndGet() >= SWEEP_EVERY) {
+            triesSinceSweep.set(0);
+            removeFullBuckets();
+        }
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity));
+        return bucket.take(capacity, refillMillis);
+    }
+
+    // Drops the buckets that have had time to fill up completely (nobody tried those names lately).
+    private void removeFullBuckets() {
+        long fullAfter = System.currentTimeMillis() - capacity * refillMillis;
+        buckets.values().removeIf(bucket -> bucket.lastUsedBefore(fullAfter));
+    }
+
+    /**
+     * Gives the full bucket back after a correct login.
+     */
+    public void reset(String username) {
+        buckets.remove(username.toLowerCase());
+    }
+
+    // One bucket of tries for a single username.
+    private static class Bucket {
+        private double tokens;
+        private long lastRefill = System.currentTimeMillis();
+
+        Bucket(int capacity) {
+            this.tokens = capacity;
+        }
+
+        synchronized boolean take(int capacity, long refillMillis) {
+            long now = System.currentTimeMillis();
+            tokens = Math.min(capacity, tokens + (double) (now - lastRefill) / refillMillis);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized boolean lastUsedBefore(long time) {
+            return lastRefill < time;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.joblit.db;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import com.joblit.model.Job;
+import com.joblit.model.SavedSearch;
+import com.joblit.search.SavedSearchIndex;
+
+/**
+ * NotificationEngine.java
+ * Tells job seekers about new jobs that match their saved searches.
+ * - All saved searches are kept in a SavedSearchIndex (loaded from the database
+ *   the first time a job is posted), so a new job is matched in one quick look-up.
+ * - Other programs save and delete searches too. Before matching, searches saved since
+ *   the last look (search_id above the highest one seen) are added, at most every
+ *   NEW_SEARCHES_MILLIS, and the whole index is loaded again every FULL_RELOAD_MILLIS
+ *   so searches deleted elsewhere drop out. If the database can't be read, the index
+ *   stays as it was and the next job tries again.
+ * - The matching and the inbox inserts run on one background thread, so posting
+ *   a job doesn't wait for them.
+ * - Inbox rows are inserted in batches of INSERT_BATCH_SIZE, not one by one.
+ * A seeker with several matching searches gets only one notification per job.
+ */
+public class NotificationEngine {
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final long NEW_SEARCHES_MILLIS = 30_000;
+    private static final long FULL_RELOAD_MILLIS = 10 * 60_000;
+
+    private final DatabaseManager dbManager;
+    private SavedSearchIndex index = new SavedSearchIndex();
+    private boolean loaded = false;
+    private int maxSeenSearchId = 0;
+    private long lastNewSearchesCheck = 0;
+    private long lastFullLoad = 0;
+    private List<Consumer<SavedSearchIndex>> changesDuringLoad = null; // Not null while a full load runs.
+    private final ExecutorService fanOut = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "notification-fanout");
+        thread.setDaemon(true); // Don't keep the program alive just for this thread.
+        return thread;
+    });
+
+    // CN 5: Constructor.
+    public NotificationEngine(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    /**
+     * Called after a new job is saved (it must have its real job id by then).
+     */
+    public void jobPosted(Job job) {
+        fanOut.execute(() -> notifyMatches(job));
+    }
+
+    /**
+     * Keeps the index up to date when a seeker saves a search.
+     */
+    public synchronized void searchSaved(SavedSearch search) {
+        change(index -> index.add(search));
+    }
+
+    /**
+     * Keeps the index up to date when a seeker deletes a search.
+     */
+    public synchronized void searchDeleted(int searchId) {
+        change(index -> index.remove(searchId));
+    }
+
+    // Applies a change to the index, and again to the one being loaded (if any).
+    // If nothing is loaded yet, the change comes in with the first load anyway.
+    private synchronized void change(Consumer<SavedSearchIndex> change) {
+        if (loaded) {
+            change.accept(index);
+        }
+        if (changesDuringLoad != null) {
+            changesDuringLoad.add(change);
+        }
+    }
+
+    private void notifyMatches(Job job) {
+        refreshIndex();
+        List<SavedSearch> matches;
+        synchronized (this) {
+            matches = index.match(job);
+        }
+
+        // One notification per seeker, even if several of their searches match.
+        Map<Integer, SavedSearch> perSeeker = new LinkedHashMap<>();
+        for (SavedSearch search : matches) {
+            perSeeker.putIfAbsent(search.getSeekerId(), search);
+        }
+        List<SavedSearch> toNotify = new ArrayList<>(perSeeker.values());
+        for (int from = 0; from < toNotify.size(); from += INSERT_BATCH_SIZE) {
+            int to = Math.min(from + INSERT_BATCH_SIZE, toNotify.size());
+            dbManager.addNotifications(job.getJobId(), toNotify.subList(from, to));
+        }
+        if (!toNotify.isEmpty()) {
+            System.out.println("New job " + job.getJobId() + " matched " + toNotify.size() + " seeker(s).");
+        }
+    }
+
+    // Picks up searches saved or deleted by other programs (only called on the fan-out thread).
+    // The database is read without holding the lock, so saving a search never waits for it.
+    private void refreshIndex() {
+        long now = System.currentTimeMillis();
+        boolean fullLoad;
+        int after;
+        synchronized (this) {
+            fullLoad = !loaded || now - lastFullLoad >= FULL_RELOAD_MILLIS;
+            if (!fullLoad && now - lastNewSearchesCheck < NEW_SEARCHES_MILLIS) {
+                return; // Checked a moment ago.
+            }
+            if (fullLoad) {
+                changesDuringLoad = new ArrayList<>();
+            }
+            after = maxSeenSearchId;
+        }
+        List<SavedSearch> searches = fullLoad ? dbManager.getAllSavedSearches() : dbManager.getSavedSearchesAfter(after);
+        synchronized (this) {
+            if (searches == null) { // CN 1: If - the database didn't answer: keep what we have.
+                changesDuringLoad = null; // Already applied to the index we keep (if it is loaded).
+                return;
+            }
+            if (fullLoad) {
+                SavedSearchIndex fresh = new SavedSearchIndex();
+                for (SavedSearch search : searches) { // CN 1: For-each loop.
+                    fresh.add(search);
+                }
+                for (Consumer<SavedSearchIndex> change : changesDuringLoad) {
+                    change.accept(fresh); // Saved or deleted here while loading.
+                }
+                changesDuringLoad = null;
+                index = fresh;
+                loaded = true;
+                lastFullLoad = now;
+            } else {
+                for (SavedSearch search : searches) {
+                    index.add(search); // Ones we already have are skipped.
+                }
+            }
+            for (SavedSearch search : searches) {
+                maxSeenSearchId = Math.max(maxSeenSearchId, search.getSearchId());
+            }
+            lastNewSearchesCheck = now;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.joblit.db;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * PasswordHasher.java
+ * Turns passwords into salted PBKDF2 hashes before they go into the database,
+ * and checks a typed password against a stored hash.
+ * Stored format: pbkdf2$iterations$salt$hash (salt and hash in Base64).
+ * Old accounts still have plain text passwords; verify() accepts those so
+ * DatabaseManager can upgrade them to a hash on the next login.
+ */
+public class PasswordHasher {
+
+    private static final String PREFIX = "pbkdf2";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int ITERATIONS = 65536;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Only static methods, so nobody needs to make an object of this class.
+    private PasswordHasher() {
+    }
+
+    /**
+     * Makes a new salted hash for a password.
+     */
+    public static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, ITERATIONS);
+        return PREFIX + "$" + ITERATIONS + "$"
+                + Base64.getEncoder().encodeToString(salt) + "$"
+                + Base64.getEncoder().encodeToString(hash);
+    }
+
+    /**
+     * Checks if the stored value is already one of our hashes (and not an old plain text password).
+     */
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX + "$");
+    }
+
+    /**
+     * Checks a typed password against what is stored in the database.
+     */
+    public static boolean verify(String password, String stored) {
+        if (password == null || stored == null) { // CN 1: If
+            return false;
+        }
+        if (!isHashed(stored)) {
+            // Old plain text password.
+            return MessageDigest.isEqual(password.getBytes(), stored.getBytes());
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try { // CN 13: Handling badly stored values.
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            byte[] actual = pbkdf2(password, salt, iterations);
+            return MessageDigest.isEqual(expected, actual); // Takes the same time whatever matches.
+        } catch (IllegalArgumentException e) { // Also covers NumberFormatException.
+            System.err.println("Stored password hash is not valid: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            // Every Java 8+ runtime has this algorithm, so this should never happen.
+            throw new IllegalStateException("Password hashing is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.joblit.db;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProfileWriteQueue.java
+ * Saves profile changes in the background ("write-behind") so the window
+ * doesn't wait for the database.
+ * - Changes for the same user are merged, so five quick edits become one UPDATE
+ *   with only the changed columns.
+ * - Every change is first written to a small journal file, so nothing is lost
+ *   if the program stops before the database write. The journal is replayed
+ *   the next time the program starts, and emptied once everything is saved.
+ * - A single background thread does the database writes a short time after the last edit.
+ * - enqueue() gives back a future that says whether the write worked, so the window
+ *   can tell the user once the database has answered.
+ * CN 2: Uses a Map of user id -> (column -> new value).
+ */
+public class ProfileWriteQueue {
+
+    private static final long FLUSH_DELAY_MILLIS = 500; // Wait a little so quick edits get merged.
+    private static final long RETRY_DELAY_MILLIS = 10_000; // Try again later if the database failed.
+    private static final String NULL_MARKER = "\\N";
+
+    private final DatabaseManager dbManager;
+    private final Path journalFile;
+    private final Map<Integer, Map<String, String>> pending = new LinkedHashMap<>();
+    // Futures waiting for each user's next database write.
+    private final Map<Integer, List<CompletableFuture<Boolean>>> waiting = new LinkedHashMap<>();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "profile-writer");
+        thread.setDaemon(true); // Don't keep the program alive just for this thread.
+        return thread;
+    });
+    private boolean flushScheduled = false;
+
+    // CN 5: Constructor.
+    public ProfileWriteQueue(DatabaseManager dbManager, Path journalFile) {
+        this.dbManager = dbManager;
+        this.journalFile = journalFile;
+    }
+
+    /**
+     * Adds changed columns for a user. The values must be ready for the
+     * database (e.g. passwords already hashed), because they are written to the journal.
+     * The future gets true once the changes are in the database, or false if that
+     * write failed (the changes stay queued and are tried again later).
+     */
+    public synchronized CompletableFuture<Boolean> enqueue(int userId, Map<String, String> changes) {
+        if (changes.isEmpty()) {
+            return CompletableFuture.completedFuture(true); // Nothing changed.
+        }
+        appendToJournal(userId, changes);
+        pending.computeIfAbsent(userId, k -> new LinkedHashMap<>()).putAll(changes); // Newer values win.
+        CompletableFuture<Boolean> saved = new CompletableFuture<>();
+        waiting.computeIfAbsent(userId, k -> new ArrayList<>()).add(saved);
+        scheduleFlush(FLUSH_DELAY_MILLIS);
+        return saved;
+    }
+
+    /**
+     * Reads changes left in the journal from the last run and queues them again.
+     */
+    public synchronized void replayJournal() {
+        if (!Files.exists(journalFile)) {
+            return;
+        }
+        int replayed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) { // CN 13: try-with-resources.
+            String line;
+            while ((line = reader.readLine()) != null) { // CN 1: While loop.
+                String[] parts = line.split("\t", 3);
+                if (parts.length != 3) continue; // A half-written last line; skip it.
+                try {
+                    int userId = Integer.parseInt(parts[0]);
+                    pending.computeIfAbsent(userId, k -> new LinkedHashMap<>()).put(parts[1], unescape(parts[2]));
+                    replayed++;
+                } catch (NumberFormatException e) {
+                    System.err.println("Skipping bad journal line: " + line);
+                }
+            }
+        } catch (IOException e) { // CN 13: Catching file errors.
+            System.err.println("Problem reading profile journal: " + e.getMessage());
+        }
+        if (replayed > 0) {
+            System.out.println("Replaying " + replayed + " unsaved profile change(s) from the journal.");
+            scheduleFlush(0);
+        }
+    }
+
+    /**
+     * Writes everything that is waiting right now (used when the program closes).
+     */
+    public void flushNow() {
+        flush();
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void scheduleFlush(long delayMillis) {
+        if (flushScheduled || writer.isShutdown()) {
+            return; // A flush is already coming and will pick up these changes too.
+        }
+        flushScheduled = true;
+        writer.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Sends all waiting changes to the database, one UPDATE per user.
+    private void flush() {
+        Map<Integer, Map<String, String>> batch;
+        Map<Integer, List<CompletableFuture<Boolean>>> toTell;
+        synchronized (this) {
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+            toTell = new LinkedHashMap<>(waiting);
+            waiting.clear();
+        }
+
+        Map<Integer, Map<String, String>> failed = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Map<String, String>> entry : batch.entrySet()) { // CN 1: For-each loop.
+            boolean saved = dbManager.updateUserColumns(entry.getKey(), entry.getValue());
+            if (!saved) {
+                failed.put(entry.getKey(), entry.getValue());
+            }
+            for (CompletableFuture<Boolean> future : toTell.getOrDefault(entry.getKey(), new ArrayList<>())) {
+                future.complete(saved);
+            }
+        }
+
+        synchronized (this) {
+            // Put failed changes back, but don't overwrite anything newer that came in meanwhile.
+            for (Map.Entry<Integer, Map<String, String>> entry : failed.entrySet()) {
+                Map<String, String> newer = pending.get(entry.getKey());
+                Map<String, String> merged = new LinkedHashMap<>(entry.getValue());
+                if (newer != null) merged.putAll(newer);
+                pending.put(entry.getKey(), merged);
+            }
+            if (pending.isEmpty()) {
+                clearJournal(); // Everything is in the database now.
+            } else if (!failed.isEmpty()) {
+                System.err.println("Some profile changes could not be saved, trying again later.");
+                scheduleFlush(RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    private void appendToJournal(int userId, Map<String, String> changes) {
+        try {
+            Files.createDirectories(journalFile.getParent());
+            try (BufferedWriter out = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Map.Entry<String, String> change : changes.entrySet()) {
+                    out.write(userId + "\t" + change.getKey() + "\t" + escape(change.getValue()));
+                    out.newLine();
+                }
+            }
+        } catch (IOException e) { // CN 13: Catching file errors.
+            // The change is still queued, it just won't survive a crash.
+            System.err.println("Problem writing profile journal: " + e.getMessage());
+        }
+    }
+
+    private void clearJournal() {
+        try {
+            Files.deleteIfExists(journalFile);
+        } catch (IOException e) {
+            System.err.println("Problem clearing profile journal: " + e.getMessage());
+        }
+    }
+
+    // Keeps each change on one line: tabs, new lines and backslashes get a backslash code.
+    private static String escape(String value) {
+        if (value == null) return NULL_MARKER;
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String value) {
+        if (NULL_MARKER.equals(value)) return null;
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                out.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                out.append(ch);
+            }
+        }
+        return out.toString();
+    }
+}
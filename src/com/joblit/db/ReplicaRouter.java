@@ -0,0 +1,161 @@
+package com.joblit.db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ReplicaRouter.java
+ * Chooses which database connection a read query should use.
+ * Writes always go to the main (primary) database. Reads are shared out
+ * in turn over read-only copies (replicas), so the primary has less work.
+ * - Health check: a background thread checks every replica every few seconds
+ *   (opening its connection again if needed). Choosing a replica only looks at
+ *   the result, so it never waits on the network and never takes a lock.
+ * - A read that fails on a replica marks it as down straight away (reportFailure),
+ *   and the next check tries it again.
+ * - Read-your-writes: for a few seconds after this program writes something,
+ *   reads go to the primary, so the user sees their own change straight away
+ *   even if the replicas are a little behind.
+ * With no replicas set up, everything simply uses the primary.
+ */
+public class ReplicaRouter {
+
+    private static final int VALID_CHECK_SECONDS = 1;
+    private static final long HEALTH_CHECK_MILLIS = 5_000; // How often each replica is checked.
+
+    // One replica and what we know about its health.
+    private static class Replica {
+        final String url;
+        volatile Connection connection; // Set by the health check; null while down.
+        volatile boolean healthy;
+
+        Replica(String url) {
+            this.url = url;
+        }
+    }
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final String user;
+    private final String password;
+    private final long stickyMillis;
+    private final AtomicInteger next = new AtomicInteger(); // Round-robin position.
+    private volatile long lastWriteMillis = 0;
+    // The replica each thread read from last, so a failed read can be blamed on it.
+    private final ThreadLocal<Replica> lastChosen = new ThreadLocal<>();
+    private final ScheduledExecutorService checker;
+
+    // CN 5: Constructor. replicaUrls may be empty.
+    public ReplicaRouter(List<String> replicaUrls, String user, String password, long stickyMillis) {
+        this.user = user;
+        this.password = password;
+        this.stickyMillis = stickyMillis;
+        for (String url : replicaUrls) { // CN 1: For-each loop.
+            replicas.add(new Replica(url));
+        }
+        if (replicas.isEmpty()) {
+            checker = null;
+            return;
+        }
+        checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::checkAll, 0, HEALTH_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Call after every write, so the next reads stay on the primary for a while.
+     */
+    public void recordWrite() {
+        lastWriteMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Gives back the connection to use for a read: a healthy replica, or the primary.
+     */
+    public Connection choose(Connection primary) {
+        lastChosen.remove();
+        if (replicas.isEmpty() || System.currentTimeMillis() - lastWriteMillis < stickyMillis) { // CN 1: If
+            return primary;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int tries = 0; tries < replicas.size(); tries++) { // Try each replica at most once.
+            Replica replica = replicas.get((start + tries) % replicas.size());
+            Connection replicaConnection = replica.connection;
+            if (replica.healthy && replicaConnection != null) {
+                lastChosen.set(replica);
+                return replicaConnection;
+            }
+        }
+        return primary; // No replica is healthy - fall back to the primary.
+    }
+
+    /**
+     * Call when a read on this thread failed with a connection error. If it went to a
+     * replica, that replica is skipped until the next health check finds it working.
+     */
+    public void reportFailure() {
+        Replica replica = lastChosen.get();
+        lastChosen.remove();
+        if (replica != null && replica.healthy) {
+            replica.healthy = false;
+            System.err.println("Replica not available, using others for now: " + replica.url);
+        }
+    }
+
+    // The background check: opens or re-opens each replica's connection and tests it.
+    private void checkAll() {
+        for (Replica replica : replicas) { // CN 1: For-each loop.
+            boolean wasHealthy = replica.healthy;
+            try { // CN 13: Handling errors.
+                Connection current = replica.connection;
+                if (current == null || !current.isValid(VALID_CHECK_SECONDS)) {
+                    Connection fresh = DriverManager.getConnection(replica.url, user, password);
+                    fresh.setReadOnly(true);
+                    replica.connection = fresh;
+                    closeQuietly(current); // Readers still holding it just get an error and retry.
+                }
+                replica.healthy = true;
+                if (!wasHealthy && current != null) {
+                    System.out.println("Replica is answering again: " + replica.url);
+                }
+            } catch (SQLException e) { // CN 13: Catching database errors (SQLException).
+                replica.healthy = false;
+                if (wasHealthy) {
+                    System.err.println("Replica not available, using others for now: " + replica.url);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the health check and closes all replica connections (called when the program finishes).
+     */
+    public void closeAll() {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            replica.healthy = false;
+            closeQuietly(replica.connection);
+            replica.connection = null;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Problem closing replica connection: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.joblit.gui;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+import com.joblit.model.ApplicationStatus;
+
+/**
+ * ApplicationStatusRenderer.java
+ * Draws a list item with its application status after it, e.g. "Java Developer at Acme [Shortlisted]".
+ * Finished applications (rejected or withdrawn) are shown in grey.
+ * Works for any list: keyOf says which id of the item the statuses are stored under.
+ * The text of each row is cached like in CachedTextRenderer, and made again when the statuses change.
+ * CN 9: Inheritance (extends CachedTextRenderer).
+ */
+public class ApplicationStatusRenderer<T> extends CachedTextRenderer<T> {
+
+    private final ToIntFunction<T> keyOf;
+    private Map<Integer, ApplicationStatus> statuses = new HashMap<>();
+
+    // CN 5: Constructor.
+    public ApplicationStatusRenderer(ToIntFunction<T> keyOf, ToIntFunction<T> versionOf) {
+        super(keyOf, versionOf);
+        this.keyOf = keyOf;
+    }
+
+    /**
+     * Sets the statuses to show (id -> status). The list should be repainted after.
+     */
+    public void setStatuses(Map<Integer, ApplicationStatus> statuses) {
+        this.statuses = statuses;
+        clearCache(); // Every row's text may have changed.
+    }
+
+    public ApplicationStatus getStatus(T item) {
+        return item == null ? null : statuses.get(keyOf.applyAsInt(item));
+    }
+
+    // CN 12: Polymorphism (changing the text of each row).
+    @Override
+    protected String textOf(T item) {
+        ApplicationStatus status = getStatus(item);
+        return status == null ? String.valueOf(item) : item + "  [" + status.getLabel() + "]"; // CN 1: Ternary operator.
+    }
+
+    @Override
+    protected boolean isGreyed(T item) {
+        ApplicationStatus status = getStatus(item);
+        return status != null && status.isClosed();
+    }
+}
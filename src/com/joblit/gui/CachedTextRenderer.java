@@ -0,0 +1,261 @@
+package com.joblit.gui;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Toolkit;
+import java.awt.font.GlyphVector;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.ListCellRenderer;
+import javax.swing.UIManager;
+import javax.swing.border.Border;
+
+import com.joblit.model.Job;
+
+/**
+ * CachedTextRenderer.java
+ * A list renderer for long lists (tens of thousands of jobs or applicants).
+ * DefaultListCellRenderer calls toString() and lays the text out again every time a row
+ * is painted, which makes a lot of garbage while scrolling. This renderer instead:
+ * - works out each row's text, its glyphs (the laid-out letters) and its width once and
+ *   keeps them in a cache keyed by the item's id. The row is made again when the item's
+ *   version number goes up (it was changed) or the list holds a new object for that id.
+ * - is one small component reused for every row, which just remembers which cached row
+ *   to draw and in what colours,
+ * - paints the cached glyphs directly, so painting a row makes no new objects.
+ * Subclasses can change the text (textOf) and grey out rows (isGreyed).
+ * CN 9: Inheritance (extends JComponent). CN 2: Uses arrays (Data Structures).
+ */
+public class CachedTextRenderer<T> extends JComponent implements ListCellRenderer<T> {
+
+    private static final int MAX_CACHED_ROWS = 100_000; // The cache is emptied when it grows past this.
+    private static final int PAD_X = 2; // Space left and right of the text (like DefaultListCellRenderer).
+    private static final int PAD_Y = 1;
+
+    // Everything needed to paint one row, worked out once per item version.
+    private static class Row {
+        int id;
+        Object item; // A reloaded item is a new object, even with the same id and version.
+        int version;
+        GlyphVector glyphs;
+        int width;
+        boolean greyed;
+    }
+
+    private final ToIntFunction<T> idOf;
+    private final ToIntFunction<T> versionOf;
+
+    // Cache: open addressing table from item id to its row (no boxing of the ids).
+    private int[] ids = new int[1024];
+    private Row[] rows = new Row[1024];
+    private int cachedCount;
+    private Font cachedFont; // The rows were made with this font; a new font empties the cache.
+
+    // What the next paint draws (set by getListCellRendererComponent).
+    private Row current;
+    private Color background;
+    private Color foreground;
+    private boolean hasFocus;
+    private int ascent;
+    private int lineHeight;
+    private final Dimension preferredSize = new Dimension();
+    private Object textAntialiasing = RenderingHints.VALUE_TEXT_ANTIALIAS_DEFAULT; // Text smoothing of the desktop.
+    private Object lcdContrast;
+    private Border focusBorder;
+
+    // CN 5: Constructor. idOf must be unique for the items in the list.
+    public CachedTextRenderer(ToIntFunction<T> idOf, ToIntFunction<T> versionOf) {
+        this.idOf = idOf;
+        this.versionOf = versionOf;
+        setOpaque(true);
+        updateUI();
+    }
+
+    // Reads the look-and-feel settings again (also called when the look and feel changes).
+    @Override
+    public void updateUI() {
+        focusBorder = UIManager.getBorder("List.focusCellHighlightBorder");
+        Map<?, ?> desktopHints = (Map<?, ?>) Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+        if (desktopHints != null && desktopHints.get(RenderingHints.KEY_TEXT_ANTIALIASING) != null) {
+            textAntialiasing = desktopHints.get(RenderingHints.KEY_TEXT_ANTIALIASING);
+            lcdContrast = desktopHints.get(RenderingHints.KEY_TEXT_LCD_CONTRAST);
+        }
+        cachedFont = null; // Make the rows again with the new settings.
+    }
+
+    /**
+     * A renderer for lists of jobs.
+     */
+    public static CachedTextRenderer<Job> forJobs() {
+        return new CachedTextRenderer<>(Job::getJobId, Job::getVersion);
+    }
+
+    /**
+     * The text shown for an item (toString() unless a subclass changes it).
+     */
+    protected String textOf(T item) {
+        return String.valueOf(item);
+    }
+
+    /**
+     * True if the item's row should be grey when not selected.
+     */
+    protected boolean isGreyed(T item) {
+        return false;
+    }
+
+    /**
+     * Forgets all rows, e.g. when something textOf() uses has changed for every item.
+     * The list should be repainted after.
+     */
+    public void clearCache() {
+        Arrays.fill(ids, 0);
+        Arrays.fill(rows, null);
+        cachedCount = 0;
+    }
+
+    // CN 12: Polymorphism (the list asks this for each row it draws).
+    @Override
+    public Component getListCellRendererComponent(JList<? extends T> list, T value, int index, boolean isSelected, boolean cellHasFocus) {
+        Font font = list.getFont();
+        if (font != cachedFont) {
+            clearCache(); // The glyphs belong to the old font.
+            cachedFont = font;
+            FontMetrics metrics = list.getFontMetrics(font);
+            ascent = metrics.getAscent();
+            lineHeight = metrics.getHeight();
+            setFont(font);
+        }
+        current = value == null ? null : rowFor(list, value);
+
+        if (isSelected) { // CN 1: If - pick the colours for this row.
+            background = list.getSelectionBackground();
+            foreground = list.getSelectionForeground();
+        } else {
+            background = list.getBackground();
+            foreground = current != null && current.greyed ? Color.GRAY : list.getForeground();
+        }
+        hasFocus = cellHasFocus;
+        preferredSize.width = (current == null ? 0 : current.width) + 2 * PAD_X;
+        preferredSize.height = lineHeight + 2 * PAD_Y;
+        return this;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(preferredSize); // A copy, so the caller can't change ours.
+    }
+
+    // The renderer has no border or children, so paint straight away (JComponent.paint would
+    // first make another copy of the Graphics for every row).
+    @Override
+    public void paint(Graphics g) {
+        paintComponent(g);
+    }
+
+    // Paints the cached glyphs; nothing is made here.
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setColor(background);
+        g2.fillRect(0, 0, getWidth(), getHeight());
+        if (current != null) {
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, textAntialiasing); // Same smoothing as other Swing text.
+            if (lcdContrast != null) {
+                g2.setRenderingHint(RenderingHints.KEY_TEXT_LCD_CONTRAST, lcdContrast);
+            }
+            g2.setColor(foreground);
+            g2.drawGlyphVector(current.glyphs, PAD_X, (getHeight() - lineHeight) / 2 + ascent);
+        }
+        if (hasFocus && focusBorder != null) {
+            focusBorder.paintBorder(this, g2, 0, 0, getWidth(), getHeight());
+        }
+    }
+
+    // Finds the item's row in the cache, making it (again) if it is missing or out of date.
+    private Row rowFor(JList<? extends T> list, T item) {
+        int id = idOf.applyAsInt(item);
+        int version = versionOf.applyAsInt(item);
+        int slot = find(id);
+        Row row = rows[slot];
+        if (row != null && row.item == item && row.version == version) {
+            return row; // The usual case while scrolling.
+        }
+        if (row == null) {
+            if (cachedCount >= MAX_CACHED_ROWS) {
+                clearCache();
+                slot = find(id);
+            }
+            row = new Row();
+            row.id = id;
+            ids[slot] = id;
+            rows[slot] = row;
+            cachedCount++;
+            if (cachedCount * 2 > ids.length) {
+                grow();
+            }
+        }
+        String text = textOf(item);
+        row.item = item;
+        row.version = version;
+        row.glyphs = cachedFont.createGlyphVector(list.getFontMetrics(cachedFont).getFontRenderContext(), text);
+        row.width = (int) Math.ceil(row.glyphs.getLogicalBounds().getWidth());
+        row.greyed = isGreyed(item);
+        return row;
+    }
+
+    // The slot holding the id, or the empty slot where it would go.
+    private int find(int id) {
+        int mask = ids.length - 1;
+        int hash = id * 0x9E3779B9; // Spreads ids that are close together.
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (rows[slot] != null && ids[slot] != id) { // CN 1: While loop - try the next slot.
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        Row[] oldRows = rows;
+        ids = new int[oldRows.length * 2];
+        rows = new Row[oldRows.length * 2];
+        for (Row row : oldRows) {
+            if (row != null) {
+                int slot = find(row.id);
+                ids[slot] = row.id;
+                rows[slot] = row;
+            }
+        }
+    }
+
+    // Rows are painted one after another; these would only waste time (as in DefaultListCellRenderer).
+    @Override
+    public void invalidate() {
+    }
+
+    @Override
+    public void validate() {
+    }
+
+    @Override
+    public void revalidate() {
+    }
+
+    @Override
+    public void repaint(long tm, int x, int y, int width, int height) {
+    }
+
+    @Override
+    protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+    }
+}
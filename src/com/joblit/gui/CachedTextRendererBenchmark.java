@@ -0,0 +1,82 @@
+package com.joblit.gui;
+
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.CellRendererPane;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JList;
+import javax.swing.ListCellRenderer;
+
+import com.joblit.model.Job;
+
+/**
+ * CachedTextRendererBenchmark.java
+ * Paints the rows of a long job list into an image, the way a JList paints them, once with
+ * DefaultListCellRenderer and once with CachedTextRenderer, and prints the time and the
+ * memory made (allocated) per row. Runs headless, so it needs no screen and no database.
+ * Run: java -Djava.awt.headless=true -cp "out/production/Job Finder System" com.joblit.gui.CachedTextRendererBenchmark [rows] [rounds]
+ * The first rounds warm up the JIT (and fill the cache); the best round is printed.
+ * CellRendererPane makes a Graphics copy for every row, which is part of both numbers.
+ * Allocation is measured with the JDK's per-thread counter (com.sun.management), so it
+ * shows "-" on a JVM without it.
+ */
+public class CachedTextRendererBenchmark {
+
+    private static final int ROW_WIDTH = 600;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        List<Job> jobs = new ArrayList<>(rowCount);
+        for (int i = 1; i <= rowCount; i++) {
+            jobs.add(new Job(i, 1, "Job title number " + i, "", "City " + (i % 50), 30_000 + i % 1000, "Company " + (i % 200),
+                    new Timestamp(0)));
+        }
+        JList<Job> list = new JList<>(jobs.toArray(new Job[0]));
+
+        run("DefaultListCellRenderer", list, new DefaultListCellRenderer(), rounds);
+        run("CachedTextRenderer", list, CachedTextRenderer.forJobs(), rounds);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void run(String name, JList<Job> list, ListCellRenderer renderer, int rounds) {
+        int rowHeight = renderer.getListCellRendererComponent(list, list.getModel().getElementAt(0), 0, false, false)
+                .getPreferredSize().height;
+        BufferedImage image = new BufferedImage(ROW_WIDTH, rowHeight, BufferedImage.TYPE_INT_RGB);
+        CellRendererPane pane = new CellRendererPane(); // What BasicListUI paints its rows with.
+        int rows = list.getModel().getSize();
+        long bestNanos = Long.MAX_VALUE;
+        long bestBytes = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) { // CN 1: For loop.
+            Graphics2D g = image.createGraphics();
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < rows; i++) {
+                Component row = renderer.getListCellRendererComponent(list, list.getModel().getElementAt(i), i, i % 7 == 0, false);
+                pane.paintComponent(g, row, list, 0, 0, ROW_WIDTH, rowHeight, true);
+            }
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+            bestBytes = Math.min(bestBytes, allocatedBytes() - bytesBefore);
+            g.dispose();
+        }
+        System.out.printf("%-24s %8.1f ms for %d rows   %s per row%n", name, bestNanos / 1e6, rows,
+                allocatedBytes() < 0 ? "-" : (bestBytes / rows) + " bytes");
+    }
+
+    // Bytes this thread has allocated so far, or a negative number if the JVM can't tell.
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,182 @@
+package com.joblit.gui;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.swing.SwingWorker;
+
+import com.joblit.config.AppConfig;
+import com.joblit.db.DatabaseManager;
+
+/**
+ * DashboardLoader.java
+ * Loads all the data a dashboard needs at the same time instead of one query after another,
+ * so the window is ready after the slowest query, not after all of them added up.
+ * - Each query runs on a worker thread with its own pooled database connection.
+ * - All queries must finish before a deadline. If one fails or the time runs out,
+ *   the others are cancelled and the failure is reported instead. A query that hid a
+ *   database error behind saved or empty data counts as failed too
+ *   (see DatabaseManager.withPooledConnection).
+ * - Cancelling stops the running statements in the database (Statement.cancel); queries
+ *   that haven't started yet never start.
+ * - The results are handed to the window together, once, on the Swing thread,
+ *   so the screen never shows half-loaded data.
+ * CN 2: Uses a Map of query name -> result (Data Structure).
+ */
+public class DashboardLoader {
+
+    // Shared by all dashboards; the threads are daemons so they never keep the program running.
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(AppConfig.get().getInt(AppConfig.DASHBOARD_LOADER_THREADS), r -> {
+        Thread thread = new Thread(r, "dashboard-loader-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The results of all queries, looked up by the name they were added with.
+     */
+    public static class Snapshot {
+        private final Map<String, Object> results;
+
+        Snapshot(Map<String, Object> results) {
+            this.results = results;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T get(String name) {
+            return (T) results.get(name);
+        }
+    }
+
+    private final DatabaseManager dbManager;
+    private final Map<String, Callable<?>> queries = new LinkedHashMap<>();
+    private final List<Future<Object>> futures = new CopyOnWriteArrayList<>();
+    private final Set<Thread> runningThreads = ConcurrentHashMap.newKeySet(); // Threads running one of our queries.
+    private volatile boolean cancelled = false;
+
+    // CN 5: Constructor.
+    public DashboardLoader(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    /**
+     * Adds a query to run. Gives back this loader so calls can be chained.
+     */
+    public DashboardLoader add(String name, Callable<?> query) {
+        queries.put(name, query);
+        return this;
+    }
+
+    /**
+     * Same as below, with the deadline from the settings (dashboard.deadlineMillis).
+     */
+    public void load(Consumer<Snapshot> onLoaded, Consumer<Exception> onFailed) {
+        load(AppConfig.get().getLong(AppConfig.DASHBOARD_DEADLINE_MILLIS), onLoaded, onFailed);
+    }
+
+    /**
+     * Starts all queries and returns straight away. Later, on the Swing thread, either
+     * onLoaded gets every result, or onFailed gets the first problem.
+     */
+    public void load(long deadlineMillis, Consumer<Snapshot> onLoaded, Consumer<Exception> onFailed) {
+        new SwingWorker<Snapshot, Void>() {
+            @Override
+            protected Snapshot doInBackground() throws Exception {
+                return runAll(deadlineMillis);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    onLoaded.accept(get()); // One update with everything.
+                } catch (ExecutionException e) {
+                    onFailed.accept(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    onFailed.accept(e);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Stops loading (e.g. the user clicked Cancel): running queries are cancelled in the
+     * database and onFailed gets a CancellationException.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (Thread thread : runningThreads) {
+            dbManager.cancelQueries(thread); // A waiting JDBC call doesn't notice interrupts.
+        }
+        for (Future<Object> future : futures) {
+            // Not interrupted: that could break the pooled connection in the middle of a
+            // read. The cancelled statement makes the running query end with an error.
+            future.cancel(false);
+        }
+    }
+
+    // Forks every query, then joins them all before the deadline.
+    private Snapshot runAll(long deadlineMillis) throws Exception {
+        CompletionService<Object> completion = new ExecutorCompletionService<>(WORKERS);
+        Map<Future<Object>, String> names = new HashMap<>();
+        for (Map.Entry<String, Callable<?>> query : queries.entrySet()) { // CN 1: For-each loop.
+            Callable<?> work = query.getValue();
+            Future<Object> future = completion.submit(() -> {
+                Thread me = Thread.currentThread();
+                runningThreads.add(me);
+                try {
+                    if (cancelled) { // Cancelled while waiting for a worker.
+                        throw new CancellationException("Loading cancelled");
+                    }
+                    return dbManager.withPooledConnection(work);
+                } finally {
+                    runningThreads.remove(me);
+                }
+            });
+            names.put(future, query.getKey());
+            futures.add(future);
+        }
+
+        Map<String, Object> results = new HashMap<>();
+        long deadline = System.currentTimeMillis() + deadlineMillis;
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                long left = deadline - System.currentTimeMillis();
+                Future<Object> done = left > 0 ? completion.poll(left, TimeUnit.MILLISECONDS) : null;
+                if (cancelled) {
+                    throw new CancellationException("Loading cancelled");
+                }
+                if (done == null) {
+                    throw new TimeoutException("Loading took longer than " + deadlineMillis + " ms");
+                }
+                try {
+                    results.put(names.get(done), done.get());
+                } catch (ExecutionException e) { // That query failed - pass on its own error.
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        } catch (Exception e) { // CN 13: One failed or too slow - stop the rest.
+            cancel();
+            throw e;
+        }
+        return new Snapshot(results);
+    }
+}
@@ -5,13 +5,32 @@ import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.BufferedWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
+
+import com.joblit.config.AppConfig;
+import com.joblit.model.ApplicantPage;
+import com.joblit.model.ApplicantSort;
+import com.joblit.model.ApplicationEvent;
+import com.joblit.model.ApplicationStatus;
 import com.joblit.model.Employer;
 import com.joblit.db.DatabaseManager;
 import com.joblit.main.JobLitApp;
 import com.joblit.model.Job;
 import com.joblit.model.JobSeeker;
+import com.joblit.model.JobStats;
+import com.joblit.search.DuplicateJobDetector;
 
 /**
  * EmployerDashboardFrame.java
@@ -39,12 +58,25 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
     private DefaultListModel<Job> postedJobsListModel; // Holds the data for the list.
     private JButton editJobButton;
     private JButton deleteJobButton;
+    private JButton analyticsButton; // Button to show numbers about all posted jobs.
+    private JButton exportButton; // Button to save all applicants to a file.
 
     // Panel for Looking at Applicants
     private JList<JobSeeker> applicantsList; // Shows people who applied for the selected job.
     private DefaultListModel<JobSeeker> applicantsListModel; // Holds data for the applicants list.
     private JLabel applicantsLabel; // Shows which job the applicants are for.
     private JTextArea applicantDetailsArea; // Shows details of the selected applicant.
+    private ApplicationStatusRenderer<JobSeeker> applicantStatusRenderer; // Shows each applicant's status.
+    private JButton shortlistButton;
+    private JButton rejectButton;
+    private JComboBox<ApplicantSort> applicantSortBox; // Order of the applicants (sorted by the database).
+    private JButton loadMoreApplicantsButton; // Loads the next page of applicants.
+    private ApplicantPage lastApplicantPage; // The last page loaded, where the next one starts.
+    private int applicantCount; // How many applicants the selected job has in total.
+    private final Map<Integer, ApplicationStatus> applicantStatuses = new HashMap<>(); // Of the applicants shown.
+    private DashboardLoader applicantLoader; // Loading applicants in the background, or null.
+
+    private static final AppConfig CONFIG = AppConfig.get();
 
     // Common Parts
     private JButton logoutButton;
@@ -111,6 +143,7 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
         postedJobsListModel = new DefaultListModel<>();
         postedJobsList = new JList<>(postedJobsListModel);
         postedJobsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        postedJobsList.setCellRenderer(CachedTextRenderer.forJobs()); // Cached row text (quick with many jobs).
         JScrollPane postedListScrollPane = new JScrollPane(postedJobsList); // Make list scrollable.
 
         // Panel for the Edit and Delete Job buttons.
@@ -121,6 +154,10 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
         deleteJobButton.setEnabled(false); // Start disabled.
         jobButtonsPanel.add(editJobButton);
         jobButtonsPanel.add(deleteJobButton);
+        analyticsButton = new JButton("View Analytics");
+        jobButtonsPanel.add(analyticsButton);
+        exportButton = new JButton("Export Applicants");
+        jobButtonsPanel.add(exportButton);
 
         postedJobsPanel.add(postedListScrollPane, BorderLayout.CENTER);
         postedJobsPanel.add(jobButtonsPanel, BorderLayout.SOUTH);
@@ -130,7 +167,14 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
         JPanel applicantsAreaPanel = new JPanel(new BorderLayout());
         applicantsAreaPanel.setBorder(BorderFactory.createTitledBorder("Applicants for Selected Job"));
         applicantsLabel = new JLabel("Select a job above to see applicants", SwingConstants.CENTER); // Initial message.
-        applicantsAreaPanel.add(applicantsLabel, BorderLayout.NORTH);
+        JPanel applicantsHeaderPanel = new JPanel(new BorderLayout(5, 0));
+        applicantsHeaderPanel.add(applicantsLabel, BorderLayout.CENTER);
+        JPanel sortPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        sortPanel.add(new JLabel("Sort:"));
+        applicantSortBox = new JComboBox<>(ApplicantSort.values());
+        sortPanel.add(applicantSortBox);
+        applicantsHeaderPanel.add(sortPanel, BorderLayout.EAST);
+        applicantsAreaPanel.add(applicantsHeaderPanel, BorderLayout.NORTH);
 
         // Another split pane inside here: Applicant list above, details below.
         JSplitPane applicantsSplitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT);
@@ -140,8 +184,9 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
         applicantsListModel = new DefaultListModel<>();
         applicantsList = new JList<>(applicantsListModel);
         applicantsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        // Use a custom renderer if needed to show more than just default toString.
-        // applicantsList.setCellRenderer(new ApplicantListCellRenderer()); // Example
+        // Custom renderer so each applicant shows their application status too.
+        applicantStatusRenderer = new ApplicationStatusRenderer<>(JobSeeker::getUserId, JobSeeker::getVersion);
+        applicantsList.setCellRenderer(applicantStatusRenderer);
         JScrollPane applicantsScrollPane = new JScrollPane(applicantsList);
         applicantsSplitPane.setTopComponent(applicantsScrollPane);
 
@@ -156,6 +201,19 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
         // Put the inner split pane (list + details) into the applicants area panel.
         applicantsAreaPanel.add(applicantsSplitPane, BorderLayout.CENTER);
 
+        // Buttons to move the selected application along.
+        JPanel applicantButtonsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        shortlistButton = new JButton("Shortlist");
+        rejectButton = new JButton("Reject");
+        shortlistButton.setEnabled(false);
+        rejectButton.setEnabled(false);
+        applicantButtonsPanel.add(shortlistButton);
+        applicantButtonsPanel.add(rejectButton);
+        loadMoreApplicantsButton = new JButton("Load More");
+        loadMoreApplicantsButton.setEnabled(false);
+        applicantButtonsPanel.add(loadMoreApplicantsButton);
+        applicantsAreaPanel.add(applicantButtonsPanel, BorderLayout.SOUTH);
+
         // Put the whole applicants area panel at the bottom of the right side.
         rightSplitPaneJobsAndApplicants.setBottomComponent(applicantsAreaPanel);
 
@@ -190,6 +248,12 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
         deleteProfileButton.addActionListener(this);
         editJobButton.addActionListener(this);
         deleteJobButton.addActionListener(this);
+        analyticsButton.addActionListener(this);
+        exportButton.addActionListener(this);
+        shortlistButton.addActionListener(this);
+        rejectButton.addActionListener(this);
+        loadMoreApplicantsButton.addActionListener(this);
+        applicantSortBox.addActionListener(this);
 
         // Listener for the Posted Jobs list.
         postedJobsList.addListSelectionListener(new ListSelectionListener() {
@@ -220,12 +284,28 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
         });
 
         // Load the employer's jobs when the window first opens.
-        loadPostedJobs();
+        loadDashboard();
     }
 
     // Gets the jobs posted by this employer and shows them in the list.
     private void loadPostedJobs() {
-        List<Job> jobs = dbManager.getJobsByEmployer(currentEmployer.getUserId());
+        showPostedJobs(dbManager.getJobsByEmployer(currentEmployer.getUserId()));
+    }
+
+    // Loads the posted jobs in the background when the window opens, so it appears straight away.
+    private void loadDashboard() {
+        applicantsLabel.setText("Loading your jobs...");
+        int employerId = currentEmployer.getUserId();
+        new DashboardLoader(dbManager)
+                .add("postedJobs", () -> dbManager.getJobsByEmployer(employerId))
+                .load(snapshot -> showPostedJobs(snapshot.get("postedJobs")),
+                        error -> {
+                            System.err.println("Dashboard loading failed: " + error.getMessage());
+                            applicantsLabel.setText("Could not load your jobs. Please log in again.");
+                        });
+    }
+
+    private void showPostedJobs(List<Job> jobs) {
         postedJobsListModel.clear(); // Clear old list.
         if (jobs != null) {
             for (Job job : jobs) { // CN 1: For-each loop.
@@ -233,39 +313,110 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
             }
         }
         // Clear applicant info as no job is selected initially.
+        cancelApplicantLoading();
         applicantsListModel.clear();
         applicantsLabel.setText("Select a job above to see applicants");
+        loadMoreApplicantsButton.setEnabled(false);
         displayApplicantDetails(null);
         editJobButton.setEnabled(false);
         deleteJobButton.setEnabled(false);
         postedJobsList.clearSelection();
     }
 
-    // Loads the list of people who applied for the selected job.
+    // Loads the first page of people who applied for the selected job, in the chosen order.
+    // Only the count and one page are asked for, so jobs with thousands of applicants open quickly.
+    // Both are loaded at the same time in the background (the page may first work out skill scores).
     private void loadApplicants(Job selectedJob) {
+        cancelApplicantLoading();
         applicantsListModel.clear(); // Clear previous applicants.
         applicantDetailsArea.setText(""); // Clear details area.
+        lastApplicantPage = null;
+        applicantStatuses.clear();
+        applicantStatusRenderer.setStatuses(applicantStatuses);
+        loadMoreApplicantsButton.setEnabled(false);
         if (selectedJob == null) {
             applicantsLabel.setText("Select a job above to see applicants");
-        } else {
-            List<JobSeeker> applicants = dbManager.getApplicantsForJob(selectedJob.getJobId());
-            applicantsLabel.setText("Applicants for: " + selectedJob.getTitle());
-            if (applicants != null && !applicants.isEmpty()) {
-                for (JobSeeker seeker : applicants) { // CN 1: For-each loop.
-                    applicantsListModel.addElement(seeker); // CN 2: Add to list model.
-                }
-            } else {
+            return;
+        }
+        applicantsLabel.setText("Loading applicants for: " + selectedJob.getTitle() + "...");
+        int jobId = selectedJob.getJobId();
+        ApplicantSort sort = (ApplicantSort) applicantSortBox.getSelectedItem();
+        int pageSize = CONFIG.getInt(AppConfig.UI_APPLICANTS_PAGE_SIZE);
+        DashboardLoader loader = new DashboardLoader(dbManager)
+                .add("count", () -> dbManager.countApplicants(jobId))
+                .add("page", () -> dbManager.getApplicantsPage(jobId, sort, null, pageSize));
+        applicantLoader = loader;
+        loader.load(snapshot -> {
+            if (applicantLoader != loader) return; // Another job was picked meanwhile.
+            applicantLoader = null;
+            applicantCount = snapshot.get("count");
+            if (applicantCount == 0) {
                 applicantsLabel.setText("No applicants yet for: " + selectedJob.getTitle());
+                return;
             }
+            showApplicantPage(selectedJob, snapshot.get("page"));
+        }, error -> applicantLoadingFailed(loader, error));
+    }
+
+    // Called when 'Load More' is clicked: adds the next page under the ones already shown.
+    private void handleLoadMoreApplicants() {
+        Job job = postedJobsList.getSelectedValue();
+        if (job == null || lastApplicantPage == null || !lastApplicantPage.hasMore() || applicantLoader != null) {
+            return;
+        }
+        ApplicantPage after = lastApplicantPage;
+        int pageSize = CONFIG.getInt(AppConfig.UI_APPLICANTS_PAGE_SIZE);
+        loadMoreApplicantsButton.setEnabled(false);
+        DashboardLoader loader = new DashboardLoader(dbManager)
+                .add("page", () -> dbManager.getApplicantsPage(job.getJobId(), after.getSort(), after, pageSize));
+        applicantLoader = loader;
+        loader.load(snapshot -> {
+            if (applicantLoader != loader) return;
+            applicantLoader = null;
+            showApplicantPage(job, snapshot.get("page"));
+        }, error -> applicantLoadingFailed(loader, error));
+    }
+
+    private void applicantLoadingFailed(DashboardLoader loader, Exception error) {
+        if (applicantLoader != loader) return; // Cancelled because another job was picked.
+        applicantLoader = null;
+        System.err.println("Loading applicants failed: " + error.getMessage());
+        applicantsLabel.setText("Could not load the applicants. Please select the job again.");
+        loadMoreApplicantsButton.setEnabled(lastApplicantPage != null && lastApplicantPage.hasMore());
+    }
+
+    // Stops loading applicants for the job that was selected before.
+    private void cancelApplicantLoading() {
+        DashboardLoader loader = applicantLoader;
+        applicantLoader = null;
+        if (loader != null) {
+            loader.cancel();
+        }
+    }
+
+    private void showApplicantPage(Job job, ApplicantPage page) {
+        for (JobSeeker seeker : page.getApplicants()) { // CN 1: For-each loop.
+            applicantsListModel.addElement(seeker); // CN 2: Add to list model.
         }
+        applicantStatuses.putAll(page.getStatuses()); // Statuses come with the page.
+        applicantStatusRenderer.setStatuses(applicantStatuses);
+        lastApplicantPage = page;
+        loadMoreApplicantsButton.setEnabled(page.hasMore());
+        applicantsLabel.setText("Applicants for: " + job.getTitle() + " (showing " + applicantsListModel.size() + " of " + applicantCount + ")");
     }
 
     // Shows the details of the selected applicant in the text area.
     private void displayApplicantDetails(JobSeeker seeker) {
+        updateApplicantButtons(seeker);
         if (seeker == null) {
             applicantDetailsArea.setText(""); // Clear if no applicant selected.
             return;
         }
+        // Skills and CV are only fetched now, when this applicant is actually looked at.
+        if (!dbManager.loadSeekerProfile(seeker)) {
+            applicantDetailsArea.setText("Could not load the details for " + seeker.getFullName() + ".");
+            return;
+        }
         // Build the text with applicant's info.
         StringBuilder details = new StringBuilder();
         details.append("Applicant Name: ").append(seeker.getFullName()).append("\n");
@@ -273,10 +424,56 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
         details.append("\nSkills:\n").append(seeker.getSkills() != null ? seeker.getSkills() : "Not provided").append("\n");
         details.append("\nResume/CV Info:\n").append(seeker.getResumeInfo() != null ? seeker.getResumeInfo() : "Not provided");
 
+        Job job = postedJobsList.getSelectedValue();
+        if (job != null) {
+            // Opening a new application marks it as viewed.
+            if (applicantStatusRenderer.getStatus(seeker) == ApplicationStatus.SUBMITTED
+                    && dbManager.changeApplicationStatus(seeker.getUserId(), job.getJobId(), ApplicationStatus.VIEWED, currentEmployer.getUserId())) {
+                refreshApplicantStatus(seeker, job);
+            }
+            details.append("\n\nApplication history:\n");
+            for (ApplicationEvent event : dbManager.getApplicationHistory(seeker.getUserId(), job.getJobId())) { // CN 1: For-each loop.
+                details.append(event).append("\n");
+            }
+        }
+
         applicantDetailsArea.setText(details.toString());
         applicantDetailsArea.setCaretPosition(0); // Scroll to top.
     }
 
+    // Reloads the status of one applicant's application and redraws the list.
+    private void refreshApplicantStatus(JobSeeker seeker, Job job) {
+        ApplicationStatus status = dbManager.getApplicationStatus(seeker.getUserId(), job.getJobId());
+        if (status != null) {
+            applicantStatuses.put(seeker.getUserId(), status);
+        }
+        applicantStatusRenderer.setStatuses(applicantStatuses);
+        applicantsList.repaint();
+        updateApplicantButtons(applicantsList.getSelectedValue());
+    }
+
+    // Shortlist/Reject are only on when that change is allowed for the selected applicant.
+    private void updateApplicantButtons(JobSeeker seeker) {
+        ApplicationStatus status = applicantStatusRenderer.getStatus(seeker);
+        shortlistButton.setEnabled(status != null && status.canMoveTo(ApplicationStatus.SHORTLISTED));
+        rejectButton.setEnabled(status != null && status.canMoveTo(ApplicationStatus.REJECTED));
+    }
+
+    // Called when 'Shortlist' or 'Reject' is clicked.
+    private void handleChangeApplicantStatus(ApplicationStatus next) {
+        Job job = postedJobsList.getSelectedValue();
+        JobSeeker seeker = applicantsList.getSelectedValue();
+        if (job == null || seeker == null) {
+            return;
+        }
+        if (dbManager.changeApplicationStatus(seeker.getUserId(), job.getJobId(), next, currentEmployer.getUserId())) {
+            refreshApplicantStatus(seeker, job);
+            displayApplicantDetails(seeker); // Show the new history.
+        } else {
+            JOptionPane.showMessageDialog(this, "Could not change the application status.", "Status Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     // --- Methods to Handle Button Clicks ---
 
     // Called when the 'Post Job' button is clicked.
@@ -307,6 +504,11 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
         // Make a new Job object.
         Job newJob = new Job(currentEmployer.getUserId(), title, description, location, salary, currentEmployer.getCompanyName());
 
+        // Warn if this is almost the same as a job already posted (a repost with small edits).
+        if (!confirmNotDuplicate(newJob, this)) {
+            return;
+        }
+
         // Try to save it.
         if (dbManager.saveJob(newJob)) {
             JOptionPane.showMessageDialog(this, "Job posted successfully!", "Job Posted", JOptionPane.INFORMATION_MESSAGE);
@@ -322,6 +524,31 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
         }
     }
 
+    // Makes a duplicate detector filled with all the jobs in 'My Posted Jobs'.
+    private DuplicateJobDetector buildDuplicateDetector() {
+        DuplicateJobDetector detector = new DuplicateJobDetector();
+        for (int i = 0; i < postedJobsListModel.size(); i++) { // CN 1: For loop.
+            detector.add(postedJobsListModel.get(i));
+        }
+        return detector;
+    }
+
+    // If the job is nearly the same as one already posted, asks the employer if they really want it.
+    // Returns true if it's fine to go ahead.
+    private boolean confirmNotDuplicate(Job job, Component parent) {
+        DuplicateJobDetector.Match match = buildDuplicateDetector().findDuplicate(job, DuplicateJobDetector.DEFAULT_THRESHOLD);
+        if (match == null) {
+            return true; // Nothing similar.
+        }
+        int choice = JOptionPane.showConfirmDialog(parent,
+                "This looks very similar (about " + Math.round(match.getSimilarity() * 100) + "% the same) to your posting:\n'"
+                        + match.getJob().getTitle() + "'\nSave it anyway?",
+                "Possible Duplicate Job",
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.WARNING_MESSAGE);
+        return choice == JOptionPane.YES_OPTION;
+    }
+
     // Called when the 'Logout' button is clicked.
     private void handleLogout() {
         // Show login screen again.
@@ -395,6 +622,13 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
                 }
             }
 
+            // Check the edited text against the other postings before changing anything.
+            Job editedJob = new Job(selectedJob.getJobId(), selectedJob.getEmployerId(), newTitle, newDescription,
+                    newLocation, newSalary, selectedJob.getCompanyName(), selectedJob.getPostedAt());
+            if (!confirmNotDuplicate(editedJob, editDialog)) {
+                return;
+            }
+
             // Update the selected Job object directly.
             selectedJob.setTitle(newTitle);
             selectedJob.setLocation(newLocation);
@@ -434,7 +668,7 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
         if (choice == JOptionPane.YES_OPTION) {
             // We need to delete applications first, then the job (or handle via DB constraints).
             // Assuming DatabaseManager.deleteJob handles related apps or DB does cascade delete.
-            boolean success = dbManager.deleteJob(selectedJob.getJobId());
+            boolean success = dbManager.deleteJob(selectedJob.getJobId(), currentEmployer.getUserId());
 
             if (success) {
                 JOptionPane.showMessageDialog(this, "Job posting deleted successfully.", "Deletion Success", JOptionPane.INFORMATION_MESSAGE);
@@ -445,6 +679,126 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
         }
     }
 
+    // Called when the 'View Analytics' button is clicked.
+    // Shows applicants per job, time to first applicant and applications per day.
+    private void handleViewAnalytics() {
+        List<JobStats> stats = dbManager.getJobStatsForEmployer(currentEmployer.getUserId());
+        Map<String, Integer> perDay = dbManager.getApplicationsPerDay(currentEmployer.getUserId(), 14);
+
+        StringBuilder text = new StringBuilder();
+        text.append("Applicants per job:\n");
+        if (stats.isEmpty()) {
+            text.append("  No jobs posted yet.\n");
+        }
+        int totalApplicants = 0;
+        for (JobStats jobStats : stats) { // CN 1: For-each loop.
+            text.append("  ").append(jobStats).append("\n");
+            totalApplicants += jobStats.getApplicantCount();
+        }
+        text.append("Total applicants: ").append(totalApplicants).append("\n");
+
+        text.append("\nApplications per day (last 14 days):\n");
+        if (perDay.isEmpty()) {
+            text.append("  No applications in this period.\n");
+        }
+        for (Map.Entry<String, Integer> day : perDay.entrySet()) {
+            text.append("  ").append(day.getKey()).append(": ").append(day.getValue()).append("\n");
+        }
+
+        // Check all posted jobs at once for near-duplicates.
+        List<List<Job>> duplicateGroups = buildDuplicateDetector().findDuplicateGroups(DuplicateJobDetector.DEFAULT_THRESHOLD);
+        if (!duplicateGroups.isEmpty()) {
+            text.append("\nPossible duplicate postings:\n");
+            for (List<Job> group : duplicateGroups) {
+                text.append("  ");
+                for (int i = 0; i < group.size(); i++) {
+                    text.append(i > 0 ? " / " : "").append(group.get(i).getTitle());
+                }
+                text.append("\n");
+            }
+        }
+
+        JTextArea analyticsArea = new JTextArea(text.toString(), 18, 45);
+        analyticsArea.setEditable(false);
+        JOptionPane.showMessageDialog(this, new JScrollPane(analyticsArea), "Job Analytics", JOptionPane.PLAIN_MESSAGE);
+    }
+
+    // Called when the 'Export Applicants' button is clicked.
+    // Saves the applicants of all this employer's jobs to a CSV or JSON lines file.
+    // A name ending in .jsonl gives JSON lines, and adding .gz compresses the file.
+    private void handleExportApplicants() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export Applicants (.csv, .jsonl, add .gz to compress)");
+        chooser.setSelectedFile(new File("applicants.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return; // User cancelled.
+        }
+        File file = chooser.getSelectedFile();
+        String name = file.getName().toLowerCase();
+        boolean gzip = name.endsWith(".gz");
+        boolean jsonLines = name.endsWith(".jsonl") || name.endsWith(".jsonl.gz");
+
+        // Work out the total first so the progress bar knows how far it has to go.
+        int total = 0;
+        for (JobStats jobStats : dbManager.getJobStatsForEmployer(currentEmployer.getUserId())) {
+            total += jobStats.getApplicantCount();
+        }
+
+        JProgressBar progressBar = new JProgressBar(0, Math.max(total, 1));
+        progressBar.setStringPainted(true);
+        JDialog progressDialog = new JDialog(this, "Exporting Applicants", false);
+        progressDialog.add(progressBar, BorderLayout.CENTER);
+        JButton cancelExportButton = new JButton("Cancel");
+        progressDialog.add(cancelExportButton, BorderLayout.SOUTH);
+        progressDialog.setSize(300, 110);
+        progressDialog.setLocationRelativeTo(this);
+        progressDialog.setVisible(true);
+        exportButton.setEnabled(false);
+
+        // Do the export in the background so the dashboard stays usable.
+        Thread[] exportThread = new Thread[1]; // Set by the worker, so Cancel can stop its query.
+        SwingWorker<Integer, Integer> worker = new SwingWorker<Integer, Integer>() {
+            @Override
+            protected Integer doInBackground() throws IOException {
+                exportThread[0] = Thread.currentThread();
+                // Files.newOutputStream writes through an NIO channel; the buffer keeps writes large.
+                try (OutputStream fileOut = Files.newOutputStream(file.toPath());
+                     OutputStream out = gzip ? new GZIPOutputStream(fileOut, 65536) : fileOut;
+                     Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 65536)) {
+                    return dbManager.exportApplicants(currentEmployer.getUserId(), jsonLines, writer, this::publish);
+                }
+            }
+
+            @Override
+            protected void process(List<Integer> chunks) {
+                progressBar.setValue(chunks.get(chunks.size() - 1)); // Only the newest count matters.
+            }
+
+            @Override
+            protected void done() {
+                progressDialog.dispose();
+                exportButton.setEnabled(true);
+                int rows = -1;
+                try { // CN 13: Handling errors from the background task.
+                    rows = get();
+                } catch (Exception ex) {
+                    System.err.println("Problem writing export file: " + ex.getMessage());
+                }
+                if (rows >= 0) {
+                    JOptionPane.showMessageDialog(EmployerDashboardFrame.this, rows + " applicant(s) exported to " + file.getName(), "Export Complete", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(EmployerDashboardFrame.this, "Failed to export applicants.", "Export Failed", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        cancelExportButton.addActionListener(e -> {
+            if (exportThread[0] != null) {
+                dbManager.cancelQueries(exportThread[0]); // The export then stops with an error (file is incomplete).
+            }
+        });
+        worker.execute();
+    }
+
     // Called when the 'Edit My Profile' button is clicked.
     private void handleEditProfile() {
         // Create a simple panel for the dialog.
@@ -497,17 +851,30 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
             currentEmployer.setEmail(newEmail);
             currentEmployer.setCompanyName(newCompanyName);
 
-            // Try to save changes.
-            boolean success = dbManager.updateUser(currentEmployer);
+            // Queue only the changed fields; they are saved to the database in the background.
+            showSaveResult(dbManager.queueUserUpdate(currentEmployer), editProfileButton, "Profile updated successfully.");
+            // Update dashboard title if company name changed.
+            setTitle("JobLit - Employer Dashboard (" + currentEmployer.getCompanyName() + ")");
+        }
+    }
 
-            if (success) {
-                JOptionPane.showMessageDialog(this, "Profile updated successfully.", "Update Success", JOptionPane.INFORMATION_MESSAGE);
-                // Update dashboard title if company name changed.
-                setTitle("JobLit - Employer Dashboard (" + currentEmployer.getCompanyName() + ")");
+    // The button reads "Saving..." while the queued write runs; the result is shown
+    // afterwards (back on the Swing thread).
+    private void showSaveResult(CompletableFuture<Boolean> saved, JButton button, String successMessage) {
+        String buttonText = button.getText();
+        button.setText("Saving...");
+        button.setEnabled(false);
+        saved.whenComplete((ok, error) -> SwingUtilities.invokeLater(() -> {
+            button.setText(buttonText);
+            button.setEnabled(true);
+            if (Boolean.TRUE.equals(ok)) {
+                JOptionPane.showMessageDialog(this, successMessage, "Update Success", JOptionPane.INFORMATION_MESSAGE);
             } else {
-                JOptionPane.showMessageDialog(this, "Failed to update profile.", "Update Failed", JOptionPane.ERROR_MESSAGE);
+                JOptionPane.showMessageDialog(this,
+                        "Your changes could not be saved right now.\nThey are kept and will be saved again automatically.",
+                        "Save Failed", JOptionPane.ERROR_MESSAGE);
             }
-        }
+        }));
     }
 
     // Called when the 'Delete My Profile' button is clicked.
@@ -548,6 +915,18 @@ public class EmployerDashboardFrame extends JFrame implements ActionListener {
             handleEditJob();
         } else if (source == deleteJobButton) {
             handleDeleteJob();
+        } else if (source == analyticsButton) {
+            handleViewAnalytics();
+        } else if (source == exportButton) {
+            handleExportApplicants();
+        } else if (source == shortlistButton) {
+            handleChangeApplicantStatus(ApplicationStatus.SHORTLISTED);
+        } else if (source == rejectButton) {
+            handleChangeApplicantStatus(ApplicationStatus.REJECTED);
+        } else if (source == loadMoreApplicantsButton) {
+            handleLoadMoreApplicants();
+        } else if (source == applicantSortBox) {
+            loadApplicants(postedJobsList.getSelectedValue()); // Start again from the first page in the new order.
         }
     }
 
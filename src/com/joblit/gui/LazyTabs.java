@@ -0,0 +1,57 @@
+package com.joblit.gui;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JTabbedPane;
+import javax.swing.SwingConstants;
+
+/**
+ * LazyTabs.java
+ * Adds tabs whose contents are only made the first time the tab is picked.
+ * Until then the tab holds a plain "Loading..." label, so opening a window only
+ * pays for the tab the user actually sees first.
+ * CN 2: Uses a Map (Data Structures).
+ */
+public class LazyTabs {
+
+    private final JTabbedPane tabs;
+    private final Map<Integer, Supplier<JComponent>> builders = new HashMap<>(); // Tab index -> not made yet.
+
+    // CN 5: Constructor.
+    public LazyTabs(JTabbedPane tabs) {
+        this.tabs = tabs;
+        tabs.addChangeListener(e -> build(tabs.getSelectedIndex()));
+    }
+
+    /**
+     * Adds a tab that is made by 'builder' when first picked (or when build() asks for it).
+     * Gives back the tab's index.
+     */
+    public int addTab(String title, Supplier<JComponent> builder) {
+        tabs.addTab(title, new JLabel("Loading...", SwingConstants.CENTER));
+        int index = tabs.getTabCount() - 1;
+        builders.put(index, builder);
+        return index;
+    }
+
+    /**
+     * Makes the tab's contents now if they haven't been made yet.
+     */
+    public void build(int index) {
+        Supplier<JComponent> builder = builders.remove(index);
+        if (builder != null) { // CN 1: If - only the first time.
+            tabs.setComponentAt(index, builder.get());
+        }
+    }
+
+    /**
+     * True once the tab's contents have been made.
+     */
+    public boolean isBuilt(int index) {
+        return !builders.containsKey(index);
+    }
+}
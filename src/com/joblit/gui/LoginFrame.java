@@ -133,10 +133,41 @@ public class LoginFrame extends JFrame implements ActionListener {
             return; // Stop here if boxes are empty.
         }
 
-        // CN 6: Using the DatabaseManager object we have.
-        // CN 7: Running a method from the DatabaseManager object.
-        User user = dbManager.authenticateUser(username, password);
+        // Checking the password hash is slow on purpose, so do it in the background
+        // (SwingWorker) and keep the window responsive while we wait.
+        loginButton.setEnabled(false);
+        new SwingWorker<User, Void>() {
+            @Override
+            protected User doInBackground() {
+                // At start-up the database may still be connecting - wait for it here, off the Swing thread.
+                if (!dbManager.awaitConnected()) {
+                    return null;
+                }
+                // CN 6: Using the DatabaseManager object we have.
+                // CN 7: Running a method from the DatabaseManager object.
+                return dbManager.authenticateUser(username, password);
+            }
 
+            @Override
+            protected void done() {
+                loginButton.setEnabled(true);
+                User user = null;
+                try { // CN 13: Handling errors from the background task.
+                    user = get();
+                } catch (Exception ex) {
+                    System.err.println("Problem during login: " + ex.getMessage());
+                }
+                showLoginResult(user);
+            }
+        }.execute();
+    }
+
+    /**
+     * Shows the right dashboard if the login worked, or an error message if not.
+     * Runs on the Swing thread once the background check has finished.
+     * CN 7: Method (private helper method).
+     */
+    private void showLoginResult(User user) {
         // CN 1: Control Structure (if-else statement) - did we find a user?
         if (user != null) {
             // CN 6: Got a User object back from the database check.
@@ -175,6 +206,13 @@ public class LoginFrame extends JFrame implements ActionListener {
      * CN 7: Method (private helper method).
      */
     private void handleRegister() {
+        if (!dbManager.isConnected()) { // Still connecting in the background at start-up.
+            JOptionPane.showMessageDialog(this,
+                "Still connecting to the database. Please try again in a moment.",
+                "Please Wait",
+                JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
         // Open the Registration window.
         // We need the RegistrationFrame class for this.
         // CN 6: Making a RegistrationFrame object.
@@ -5,13 +5,25 @@ import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 // import java.util.Vector; // Not needed anymore if using DefaultListModel
 
 import com.joblit.model.JobSeeker;
+import com.joblit.config.AppConfig;
 import com.joblit.db.DatabaseManager;
 import com.joblit.main.JobLitApp;
+import com.joblit.model.ApplicationStatus;
 import com.joblit.model.Job;
+import com.joblit.model.Notification;
+import com.joblit.model.SavedSearch;
+import com.joblit.search.Gazetteer;
+import com.joblit.search.JobColumnStore;
+import com.joblit.search.JobRanker;
+import com.joblit.search.LocationIndex;
 
 /**
  * SeekerDashboardFrame.java
@@ -33,22 +45,59 @@ public class SeekerDashboardFrame extends JFrame implements ActionListener {
     private JTextField searchField; // Box for typing search words.
     private JButton searchButton;   // Button to start the search.
     private JButton applyButton;
+    private JList<Job> similarJobsList; // Jobs that read like the selected one.
+    private DefaultListModel<Job> similarJobsListModel;
     private JButton viewAllButton; // Button to show all jobs again.
+    private JButton bestMatchesButton; // Button to show the loaded jobs best match first.
+    private JCheckBox includeArchivedBox; // Also show expired (archived) jobs in View All / Search.
+    private JButton cancelLoadButton; // Only shown while the dashboard is loading.
+    private JTextField minSalaryField; // Box for the lowest salary wanted.
+    private JComboBox<String> postedWithinBox; // How recent the jobs should be.
+    private JButton filterButton; // Button to filter the jobs shown.
+    private JobColumnStore jobStore; // Column copy of the loaded jobs, used for quick filtering.
+    private JTextField nearField; // Town to search around.
+    private JComboBox<Integer> radiusBox; // Search distance in km.
+    private JButton nearbyButton; // Button to find jobs near the town.
+    private Gazetteer gazetteer; // Known places, loaded the first time it is needed.
+    private LocationIndex locationIndex; // Map grid of the loaded jobs (made again when the jobs change).
 
     // GUI Parts - For Profile
     private JTextArea resumeArea; // Box for CV/resume text.
     private JTextField skillsField; // Box for skills.
     private JButton editProfileButton; // Button to edit profile details.
+    private JButton saveProfileButton; // Saves the skills and CV from the profile tab.
     private JButton deleteProfileButton; // Button to delete profile.
 
     // GUI Parts - For My Applications
     private JList<Job> appliedJobsList; // Shows jobs the user applied for.
     private DefaultListModel<Job> appliedJobsListModel; // Holds data for the applied jobs list.
     private JButton withdrawButton; // Button to take back an application.
+    private ApplicationStatusRenderer<Job> appliedStatusRenderer; // Shows each application's status.
+    private JList<Job> alsoAppliedList; // Jobs other applicants of the selected job applied for.
+    private DefaultListModel<Job> alsoAppliedListModel;
+
+    // GUI Parts - For Notifications
+    private JTabbedPane rightTabbedPane; // Kept so the Notifications tab title can show the unread count.
+    private LazyTabs lazyTabs; // Makes the Profile and Applications tabs when first picked.
+    private int applicationsTabIndex;
+    private int notificationsTabIndex;
+    private JTextField saveSearchField; // Words for a new saved search.
+    private JButton saveSearchButton;
+    private JList<SavedSearch> savedSearchList;
+    private DefaultListModel<SavedSearch> savedSearchListModel;
+    private JButton deleteSearchButton;
+    private JList<Notification> notificationList;
+    private DefaultListModel<Notification> notificationListModel;
+    private JButton markReadButton;
+    private Timer notificationTimer; // Checks the inbox now and then.
 
     // Common Parts
     private JButton logoutButton;
 
+    // Sizes and timings come from the settings, so they can be tuned without a restart.
+    private static final AppConfig CONFIG = AppConfig.get();
+    private final Runnable configListener = () -> SwingUtilities.invokeLater(this::applySettings);
+
     public SeekerDashboardFrame(JobSeeker seeker) {
         this.currentSeeker = seeker;
         this.dbManager = JobLitApp.getDbManager(); // Get the shared database manager.
@@ -59,28 +108,58 @@ public class SeekerDashboardFrame extends JFrame implements ActionListener {
         setLocationRelativeTo(null); // Centre on screen.
         setLayout(new BorderLayout(10, 10));
 
-        // --- Top Panel (for search controls) ---
-        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT)); // Align to the left.
+        // --- Top Panel (for search controls, two rows) ---
+        JPanel topPanel = new JPanel(new GridLayout(2, 1));
         topPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5)); // Padding.
+        JPanel searchRow = new JPanel(new FlowLayout(FlowLayout.LEFT)); // Align to the left.
         // Search Box and Button
-        topPanel.add(new JLabel("Search (Title/Desc/Location):"));
+        searchRow.add(new JLabel("Search (Title/Desc/Location):"));
         searchField = new JTextField(25); // Make the search box wider.
-        topPanel.add(searchField);
+        searchRow.add(searchField);
         searchButton = new JButton("Search Jobs");
-        topPanel.add(searchButton);
+        searchRow.add(searchButton);
         // View All Button
         viewAllButton = new JButton("View All Jobs");
-        topPanel.add(viewAllButton);
+        searchRow.add(viewAllButton);
+        bestMatchesButton = new JButton("Best Matches");
+        searchRow.add(bestMatchesButton);
+        includeArchivedBox = new JCheckBox("Include archived");
+        searchRow.add(includeArchivedBox);
+        cancelLoadButton = new JButton("Cancel Loading");
+        cancelLoadButton.setVisible(false);
+        searchRow.add(cancelLoadButton);
+        // Filter controls (work on the jobs already loaded, no database trip).
+        JPanel filterRow = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterRow.add(new JLabel("Min Salary:"));
+        minSalaryField = new JTextField(6);
+        filterRow.add(minSalaryField);
+        postedWithinBox = new JComboBox<>(new String[] {"Any time", "Last 7 days", "Last 30 days"});
+        filterRow.add(postedWithinBox);
+        filterButton = new JButton("Filter");
+        filterRow.add(filterButton);
+        // Nearby search controls.
+        filterRow.add(new JLabel("Near:"));
+        nearField = new JTextField(10);
+        filterRow.add(nearField);
+        radiusBox = new JComboBox<>(new Integer[] {10, 25, 50, 100, 250});
+        radiusBox.setSelectedItem(25);
+        filterRow.add(radiusBox);
+        filterRow.add(new JLabel("km"));
+        nearbyButton = new JButton("Find Nearby");
+        filterRow.add(nearbyButton);
+        topPanel.add(searchRow);
+        topPanel.add(filterRow);
 
         // --- Main Content Panel (Left: Job List, Right: Tabs) ---
         jobListModel = new DefaultListModel<>(); // Prepare the model for the list.
         jobList = new JList<>(jobListModel); // Create the list using the model.
         jobList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION); // Only allow selecting one job.
+        jobList.setCellRenderer(CachedTextRenderer.forJobs()); // Row text is made once per job, not on every paint.
         JScrollPane listScrollPane = new JScrollPane(jobList); // Make the list scrollable.
         listScrollPane.setPreferredSize(new Dimension(300, 400)); // Suggest a size.
 
         // --- Right Side Panel (Using Tabs) ---
-        JTabbedPane rightTabbedPane = new JTabbedPane();
+        rightTabbedPane = new JTabbedPane();
 
         // Tab 1: Job Details
         JPanel detailsPanel = new JPanel(new BorderLayout(5,5));
@@ -91,42 +170,57 @@ public class SeekerDashboardFrame extends JFrame implements ActionListener {
         JScrollPane detailsScrollPane = new JScrollPane(jobDetailsArea); // Make details scrollable.
         applyButton = new JButton("Apply for Selected Job");
         applyButton.setEnabled(false); // Start disabled, enable when a job is picked.
+        // Similar jobs under the details (picking one shows it in the job list).
+        similarJobsListModel = new DefaultListModel<>();
+        similarJobsList = new JList<>(similarJobsListModel);
+        similarJobsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        similarJobsList.setCellRenderer(CachedTextRenderer.forJobs());
+        similarJobsList.setVisibleRowCount(5);
+        JScrollPane similarScrollPane = new JScrollPane(similarJobsList);
+        similarScrollPane.setBorder(BorderFactory.createTitledBorder("Similar jobs"));
+        JPanel detailsBottomPanel = new JPanel(new BorderLayout(5, 5));
+        detailsBottomPanel.add(similarScrollPane, BorderLayout.CENTER);
+        detailsBottomPanel.add(applyButton, BorderLayout.SOUTH);
         detailsPanel.add(detailsScrollPane, BorderLayout.CENTER);
-        detailsPanel.add(applyButton, BorderLayout.SOUTH);
+        detailsPanel.add(detailsBottomPanel, BorderLayout.SOUTH);
         rightTabbedPane.addTab("Job Details", detailsPanel);
 
-        // Tab 2: My Profile/Resume
-        JPanel profilePanel = new JPanel(new BorderLayout(5, 5));
-        profilePanel.setBorder(BorderFactory.createEmptyBorder(10,10,10,10)); // Add space.
-        // Show current skills and resume info if they exist.
-        skillsField = new JTextField(currentSeeker.getSkills() != null ? currentSeeker.getSkills() : "");
-        resumeArea = new JTextArea(currentSeeker.getResumeInfo() != null ? currentSeeker.getResumeInfo() : "");
-        resumeArea.setWrapStyleWord(true);
-        resumeArea.setLineWrap(true);
-        JScrollPane resumeScrollPane = new JScrollPane(resumeArea);
-        // Panel for the skills input field and its label.
-        JPanel profileInputPanel = new JPanel(new BorderLayout(5,5));
-        profileInputPanel.add(new JLabel("Skills (comma-separated):"), BorderLayout.NORTH);
-        profileInputPanel.add(skillsField, BorderLayout.CENTER);
-        profileInputPanel.add(new JLabel("Resume/CV Information:"), BorderLayout.SOUTH);
-        profilePanel.add(profileInputPanel, BorderLayout.NORTH);
-        profilePanel.add(resumeScrollPane, BorderLayout.CENTER);
-        // Note: Save button is added later with its listener.
-        rightTabbedPane.addTab("My Profile/CV", profilePanel);
-
-        // Tab 3: My Applications
-        JPanel applicationsPanel = new JPanel(new BorderLayout(5,5));
-        applicationsPanel.setBorder(BorderFactory.createEmptyBorder(10,10,10,10)); // Add space.
-        appliedJobsListModel = new DefaultListModel<>();
-        appliedJobsList = new JList<>(appliedJobsListModel);
-        appliedJobsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        JScrollPane appliedListScrollPane = new JScrollPane(appliedJobsList);
-        withdrawButton = new JButton("Withdraw Application");
-        withdrawButton.setEnabled(false); // Start disabled.
-        applicationsPanel.add(new JLabel("Jobs you have applied for:"), BorderLayout.NORTH);
-        applicationsPanel.add(appliedListScrollPane, BorderLayout.CENTER);
-        applicationsPanel.add(withdrawButton, BorderLayout.SOUTH);
-        rightTabbedPane.addTab("My Applications", applicationsPanel);
+        // Tabs 2 and 3 are only made when first picked, so the window opens faster.
+        lazyTabs = new LazyTabs(rightTabbedPane);
+        lazyTabs.addTab("My Profile/CV", this::buildProfileTab);
+        applicationsTabIndex = lazyTabs.addTab("My Applications", this::buildApplicationsTab);
+
+        // Tab 4: Notifications (saved searches on top, inbox below)
+        JPanel notificationsPanel = new JPanel(new BorderLayout(5, 5));
+        notificationsPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        JPanel saveSearchRow = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        saveSearchRow.add(new JLabel("Tell me about new jobs matching:"));
+        saveSearchField = new JTextField(15);
+        saveSearchRow.add(saveSearchField);
+        saveSearchButton = new JButton("Save Search");
+        saveSearchRow.add(saveSearchButton);
+        savedSearchListModel = new DefaultListModel<>();
+        savedSearchList = new JList<>(savedSearchListModel);
+        savedSearchList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        savedSearchList.setVisibleRowCount(4);
+        deleteSearchButton = new JButton("Delete Search");
+        deleteSearchButton.setEnabled(false);
+        JPanel savedSearchPanel = new JPanel(new BorderLayout(5, 5));
+        savedSearchPanel.add(saveSearchRow, BorderLayout.NORTH);
+        savedSearchPanel.add(new JScrollPane(savedSearchList), BorderLayout.CENTER);
+        savedSearchPanel.add(deleteSearchButton, BorderLayout.EAST);
+        notificationListModel = new DefaultListModel<>();
+        notificationList = new JList<>(notificationListModel);
+        notificationList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        markReadButton = new JButton("Mark All Read");
+        JPanel inboxPanel = new JPanel(new BorderLayout(5, 5));
+        inboxPanel.add(new JLabel("New jobs for your saved searches:"), BorderLayout.NORTH);
+        inboxPanel.add(new JScrollPane(notificationList), BorderLayout.CENTER);
+        inboxPanel.add(markReadButton, BorderLayout.SOUTH);
+        notificationsPanel.add(savedSearchPanel, BorderLayout.NORTH);
+        notificationsPanel.add(inboxPanel, BorderLayout.CENTER);
+        rightTabbedPane.addTab("Notifications", notificationsPanel);
+        notificationsTabIndex = rightTabbedPane.getTabCount() - 1;
 
         // --- Split Pane to divide Job List and Tabs ---
         JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, listScrollPane, rightTabbedPane);
@@ -156,18 +250,17 @@ public class SeekerDashboardFrame extends JFrame implements ActionListener {
         // --- Make Buttons Work (Add Listeners) ---
         searchButton.addActionListener(this);
         viewAllButton.addActionListener(this);
+        filterButton.addActionListener(this);
+        bestMatchesButton.addActionListener(this);
+        nearbyButton.addActionListener(this);
         applyButton.addActionListener(this);
         editProfileButton.addActionListener(this);
         deleteProfileButton.addActionListener(this);
-        withdrawButton.addActionListener(this);
+        saveSearchButton.addActionListener(this);
+        deleteSearchButton.addActionListener(this);
+        markReadButton.addActionListener(this);
         logoutButton.addActionListener(this);
 
-        // Add Save Profile/Resume button and its listener separately.
-        JButton saveProfileButton = new JButton("Save Profile/CV");
-        // Using a lambda expression for this simple action.
-        saveProfileButton.addActionListener(e -> handleSaveProfile());
-        profilePanel.add(saveProfileButton, BorderLayout.SOUTH);
-
         // Listener for the main Job List selection.
         jobList.addListSelectionListener(new ListSelectionListener() {
             @Override
@@ -175,6 +268,7 @@ public class SeekerDashboardFrame extends JFrame implements ActionListener {
                 // Only do something when the user finishes selecting.
                 if (!e.getValueIsAdjusting()) {
                     Job selectedJob = jobList.getSelectedValue();
+                    showSimilarJobs(selectedJob);
                     if (selectedJob != null) {
                         displayJobDetails(selectedJob); // Show details.
                         applyButton.setEnabled(true); // Allow applying.
@@ -186,27 +280,254 @@ public class SeekerDashboardFrame extends JFrame implements ActionListener {
             }
         });
 
+        // Picking a similar job shows it in the job list (after this click has finished).
+        similarJobsList.addListSelectionListener(e -> {
+            Job similar = similarJobsList.getSelectedValue();
+            if (!e.getValueIsAdjusting() && similar != null) {
+                SwingUtilities.invokeLater(() -> showJobInList(similar.getJobId()));
+            }
+        });
+
+        // Listener for the Saved Searches list selection.
+        savedSearchList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                deleteSearchButton.setEnabled(savedSearchList.getSelectedValue() != null);
+            }
+        });
+
+        // Picking a notification shows that job, if it is in the job list.
+        notificationList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting() && notificationList.getSelectedValue() != null) {
+                showJobInList(notificationList.getSelectedValue().getJobId());
+            }
+        });
+
+        // Load initial data when the window opens (all queries at the same time, in the background).
+        loadDashboard();
+
+        // Check the inbox again every minute while the window is open.
+        int inboxCheckMillis = CONFIG.getInt(AppConfig.UI_INBOX_CHECK_MILLIS);
+        notificationTimer = new Timer(inboxCheckMillis, e -> loadNotificationsInBackground());
+        notificationTimer.setInitialDelay(inboxCheckMillis);
+        notificationTimer.start();
+        CONFIG.addListener(configListener);
+    }
+
+    // Makes the 'My Profile/CV' tab (the first time it is picked).
+    private JComponent buildProfileTab() {
+        JPanel profilePanel = new JPanel(new BorderLayout(5, 5));
+        profilePanel.setBorder(BorderFactory.createEmptyBorder(10,10,10,10)); // Add space.
+        // Show current skills and resume info if they exist.
+        skillsField = new JTextField(currentSeeker.getSkills() != null ? currentSeeker.getSkills() : "");
+        resumeArea = new JTextArea(currentSeeker.getResumeInfo() != null ? currentSeeker.getResumeInfo() : "");
+        resumeArea.setWrapStyleWord(true);
+        resumeArea.setLineWrap(true);
+        JScrollPane resumeScrollPane = new JScrollPane(resumeArea);
+        // Panel for the skills input field and its label.
+        JPanel profileInputPanel = new JPanel(new BorderLayout(5,5));
+        profileInputPanel.add(new JLabel("Skills (comma-separated):"), BorderLayout.NORTH);
+        profileInputPanel.add(skillsField, BorderLayout.CENTER);
+        profileInputPanel.add(new JLabel("Resume/CV Information:"), BorderLayout.SOUTH);
+        profilePanel.add(profileInputPanel, BorderLayout.NORTH);
+        profilePanel.add(resumeScrollPane, BorderLayout.CENTER);
+        // Add Save Profile/Resume button and its listener separately.
+        saveProfileButton = new JButton("Save Profile/CV");
+        // Using a lambda expression for this simple action.
+        saveProfileButton.addActionListener(e -> handleSaveProfile());
+        profilePanel.add(saveProfileButton, BorderLayout.SOUTH);
+        return profilePanel;
+    }
+
+    // Makes the 'My Applications' tab (the first time it is picked) and starts loading it.
+    private JComponent buildApplicationsTab() {
+        JPanel applicationsPanel = new JPanel(new BorderLayout(5,5));
+        applicationsPanel.setBorder(BorderFactory.createEmptyBorder(10,10,10,10)); // Add space.
+        appliedJobsListModel = new DefaultListModel<>();
+        appliedJobsList = new JList<>(appliedJobsListModel);
+        appliedJobsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        appliedStatusRenderer = new ApplicationStatusRenderer<>(Job::getJobId, Job::getVersion);
+        appliedJobsList.setCellRenderer(appliedStatusRenderer);
+        JScrollPane appliedListScrollPane = new JScrollPane(appliedJobsList);
+        withdrawButton = new JButton("Withdraw Application");
+        withdrawButton.setEnabled(false); // Start disabled.
+        // Below: what other people who applied for the selected job also applied for.
+        alsoAppliedListModel = new DefaultListModel<>();
+        alsoAppliedList = new JList<>(alsoAppliedListModel);
+        alsoAppliedList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        alsoAppliedList.setCellRenderer(CachedTextRenderer.forJobs());
+        JScrollPane alsoAppliedScrollPane = new JScrollPane(alsoAppliedList);
+        alsoAppliedScrollPane.setBorder(BorderFactory.createTitledBorder("People who applied for this also applied for"));
+        JPanel appliedListPanel = new JPanel(new BorderLayout(5, 5));
+        appliedListPanel.add(appliedListScrollPane, BorderLayout.CENTER);
+        appliedListPanel.add(withdrawButton, BorderLayout.SOUTH);
+        JSplitPane applicationsSplitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, appliedListPanel, alsoAppliedScrollPane);
+        applicationsSplitPane.setResizeWeight(0.6);
+        applicationsPanel.add(new JLabel("Jobs you have applied for:"), BorderLayout.NORTH);
+        applicationsPanel.add(applicationsSplitPane, BorderLayout.CENTER);
+        withdrawButton.addActionListener(this);
+
         // Listener for the Applied Jobs List selection.
         appliedJobsList.addListSelectionListener(new ListSelectionListener() {
             @Override
             public void valueChanged(ListSelectionEvent e) {
                 if (!e.getValueIsAdjusting()) {
-                    // Allow withdrawing only if an applied job is selected.
-                    withdrawButton.setEnabled(appliedJobsList.getSelectedValue() != null);
+                    showAlsoAppliedJobs(appliedJobsList.getSelectedValue());
+                    // Allow withdrawing only if an open application is selected.
+                    ApplicationStatus status = appliedStatusRenderer.getStatus(appliedJobsList.getSelectedValue());
+                    withdrawButton.setEnabled(appliedJobsList.getSelectedValue() != null && (status == null || !status.isClosed()));
                 }
             }
         });
 
-        // Load initial data when the window opens.
-        loadAllJobs();
-        loadAppliedJobs();
+        // Picking a suggestion shows it in the job list, on the Job Details tab.
+        alsoAppliedList.addListSelectionListener(e -> {
+            Job suggested = alsoAppliedList.getSelectedValue();
+            if (!e.getValueIsAdjusting() && suggested != null) {
+                SwingUtilities.invokeLater(() -> {
+                    rightTabbedPane.setSelectedIndex(0);
+                    showJobInList(suggested.getJobId());
+                });
+            }
+        });
+
+        loadAppliedJobsInBackground();
+        return applicationsPanel;
+    }
+
+    // Called when the settings file changes.
+    private void applySettings() {
+        notificationTimer.setDelay(CONFIG.getInt(AppConfig.UI_INBOX_CHECK_MILLIS));
+    }
+
+    // Loads jobs, saved searches and notifications in parallel, then shows them all together.
+    // Applications are loaded when their tab is first opened.
+    private void loadDashboard() {
+        jobDetailsArea.setText("Loading jobs...");
+        boolean includeArchived = includeArchivedBox.isSelected();
+        int seekerId = currentSeeker.getUserId();
+        DashboardLoader loader = new DashboardLoader(dbManager);
+        for (ActionListener old : cancelLoadButton.getActionListeners()) {
+            cancelLoadButton.removeActionListener(old);
+        }
+        cancelLoadButton.addActionListener(e -> loader.cancel());
+        cancelLoadButton.setVisible(true);
+        loader
+                .add("jobs", () -> dbManager.getAllJobs(includeArchived))
+                .add("searches", () -> dbManager.getSavedSearches(seekerId))
+                .add("notifications", () -> dbManager.getNotifications(seekerId, CONFIG.getInt(AppConfig.UI_INBOX_SIZE)))
+                .load(snapshot -> {
+                    cancelLoadButton.setVisible(false);
+                    showAllJobs(snapshot.get("jobs"));
+                    showSavedSearches(snapshot.get("searches"));
+                    showNotifications(snapshot.get("notifications"));
+                }, error -> {
+                    cancelLoadButton.setVisible(false);
+                    System.err.println("Dashboard loading failed: " + error.getMessage());
+                    jobDetailsArea.setText(error instanceof CancellationException
+                            ? "Loading cancelled. Click 'View All Jobs' to try again."
+                            : "Could not load your dashboard. Click 'View All Jobs' to try again.");
+                });
+    }
+
+    // Stops the inbox timer when the window closes.
+    @Override
+    public void dispose() {
+        if (notificationTimer != null) {
+            notificationTimer.stop();
+        }
+        CONFIG.removeListener(configListener);
+        super.dispose();
     }
 
     // --- Methods to Load Data into Lists ---
 
+    // Gets the seeker's saved searches and shows them.
+    private void loadSavedSearches() {
+        showSavedSearches(dbManager.getSavedSearches(currentSeeker.getUserId()));
+    }
+
+    private void showSavedSearches(List<SavedSearch> searches) {
+        savedSearchListModel.clear();
+        for (SavedSearch search : searches) { // CN 1: For-each loop.
+            savedSearchListModel.addElement(search);
+        }
+    }
+
+    // Gets the newest notifications and shows how many are unread on the tab.
+    private void loadNotifications() {
+        showNotifications(dbManager.getNotifications(currentSeeker.getUserId(), CONFIG.getInt(AppConfig.UI_INBOX_SIZE)));
+    }
+
+    // The timer's inbox check: the query runs in the background, so the window never waits for it.
+    // If it fails the old list just stays until the next check.
+    private void loadNotificationsInBackground() {
+        int seekerId = currentSeeker.getUserId();
+        int inboxSize = CONFIG.getInt(AppConfig.UI_INBOX_SIZE);
+        new DashboardLoader(dbManager)
+                .add("notifications", () -> dbManager.getNotifications(seekerId, inboxSize))
+                .load(snapshot -> showNotifications(snapshot.get("notifications")),
+                        error -> System.err.println("Checking the inbox failed: " + error.getMessage()));
+    }
+
+    private void showNotifications(List<Notification> notifications) {
+        notificationListModel.clear();
+        int unread = 0;
+        for (Notification notification : notifications) {
+            notificationListModel.addElement(notification);
+            if (!notification.isRead()) unread++;
+        }
+        rightTabbedPane.setTitleAt(notificationsTabIndex, unread > 0 ? "Notifications (" + unread + ")" : "Notifications");
+    }
+
+    // Selects the job with this id in the job list (which shows its details).
+    private void showJobInList(int jobId) {
+        for (int i = 0; i < jobListModel.size(); i++) {
+            if (jobListModel.get(i).getJobId() == jobId) {
+                jobList.setSelectedIndex(i);
+                jobList.ensureIndexIsVisible(i);
+                return;
+            }
+        }
+        jobDetailsArea.setText("This job is not in the current list. Click 'View All Jobs' to load the newest jobs.");
+    }
+
+    // Called when the 'Save Search' button is clicked.
+    private void handleSaveSearch() {
+        String query = saveSearchField.getText().trim();
+        if (query.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please enter some words to search for.", "Save Search", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        SavedSearch search = dbManager.saveSearch(currentSeeker.getUserId(), query);
+        if (search != null) {
+            savedSearchListModel.addElement(search);
+            saveSearchField.setText("");
+        } else {
+            JOptionPane.showMessageDialog(this, "Failed to save the search.", "Save Search", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Called when the 'Delete Search' button is clicked.
+    private void handleDeleteSearch() {
+        SavedSearch selected = savedSearchList.getSelectedValue();
+        if (selected == null) {
+            return;
+        }
+        if (dbManager.deleteSavedSearch(currentSeeker.getUserId(), selected.getSearchId())) {
+            savedSearchListModel.removeElement(selected);
+        } else {
+            JOptionPane.showMessageDialog(this, "Failed to delete the search.", "Delete Search", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     // Gets all jobs from database and shows them in the list.
     private void loadAllJobs() {
-        List<Job> jobs = dbManager.getAllJobs(); // Get jobs from DB manager.
+        showAllJobs(dbManager.getAllJobs(includeArchivedBox.isSelected())); // Get jobs from DB manager.
+    }
+
+    private void showAllJobs(List<Job> jobs) {
+        jobStore = new JobColumnStore(jobs != null ? jobs : new ArrayList<>()); // Keep a column copy for filtering.
+        locationIndex = null; // The map grid is made again when next needed.
         jobListModel.clear(); // Clear the list first.
         if (jobs != null) {
             // Go through each job and add it to the list model.
@@ -216,14 +537,100 @@ public class SeekerDashboardFrame extends JFrame implements ActionListener {
         }
         // Show a message if the list is empty.
         jobDetailsArea.setText(jobListModel.isEmpty() ? "No jobs available." : "Select a job to view details.");
+        showDegradedNotice();
         jobList.clearSelection(); // Make sure nothing is selected.
         applyButton.setEnabled(false); // Disable apply button.
     }
 
+    // Tells the user when the list comes from saved data because the database isn't answering.
+    private void showDegradedNotice() {
+        if (dbManager.isDegraded()) {
+            jobDetailsArea.setText("The database is not answering right now.\nShowing the last jobs that were loaded; they may be out of date.");
+        }
+    }
+
     // Searches jobs using the combined search term and updates the list.
     private void searchJobsCombined(String searchTerm) {
-        List<Job> jobs = dbManager.searchJobsByKeywordOrLocation(searchTerm);
+        List<Job> jobs = dbManager.searchJobsByKeywordOrLocation(searchTerm, includeArchivedBox.isSelected());
+        jobStore = new JobColumnStore(jobs != null ? jobs : new ArrayList<>()); // Filters now work on the search results.
+        locationIndex = null;
         updateJobList(jobs, "No jobs found matching: '" + searchTerm + "'."); // Use helper method.
+        showDegradedNotice();
+    }
+
+    // Filters the loaded jobs by salary and posted date using the column store.
+    private void handleFilter() {
+        if (jobStore == null) {
+            return; // Nothing loaded yet.
+        }
+        String minSalaryStr = minSalaryField.getText().trim();
+        double minSalary = 0.0;
+        if (!minSalaryStr.isEmpty()) {
+            try {
+                minSalary = Double.parseDouble(minSalaryStr);
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(this, "Min Salary must be a valid number (or leave blank).", "Filter Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+
+        int[] selection = jobStore.selectAll();
+        if (minSalary > 0) {
+            selection = jobStore.filterBySalary(selection, minSalary, Double.MAX_VALUE);
+        }
+        int days = postedWithinBox.getSelectedIndex() == 1 ? 7 : postedWithinBox.getSelectedIndex() == 2 ? 30 : 0; // CN 1: Ternary operator.
+        if (days > 0) {
+            long since = System.currentTimeMillis() - days * 24L * 60 * 60 * 1000;
+            selection = jobStore.filterByPostedSince(selection, since);
+        }
+        updateJobList(jobStore.toJobs(selection), "No jobs match the filter.");
+    }
+
+    // Shows the loaded jobs ordered by how well they suit this seeker (skills, freshness,
+    // past applications, salary) instead of newest first.
+    private void handleBestMatches() {
+        if (jobStore == null) {
+            return; // Nothing loaded yet.
+        }
+        // If the 'My Applications' tab is open the applied jobs are already there, no need to ask the database.
+        List<Job> appliedJobs = new ArrayList<>();
+        if (lazyTabs.isBuilt(applicationsTabIndex)) {
+            for (int i = 0; i < appliedJobsListModel.size(); i++) {
+                appliedJobs.add(appliedJobsListModel.get(i));
+            }
+        } else {
+            appliedJobs = dbManager.getAppliedJobs(currentSeeker.getUserId());
+        }
+        JobRanker ranker = new JobRanker(jobStore.toJobs(jobStore.selectAll()));
+        List<Job> ranked = ranker.rank(currentSeeker.getSkills(), appliedJobs, CONFIG.getInt(AppConfig.UI_BEST_MATCHES_PAGE_SIZE));
+        updateJobList(ranked, "No new jobs to recommend right now.");
+    }
+
+    // Shows the loaded jobs (all jobs or the last search) that are near a town, nearest first.
+    private void handleNearbySearch() {
+        String near = nearField.getText().trim();
+        if (near.isEmpty() || jobStore == null) {
+            JOptionPane.showMessageDialog(this, "Please enter a town to search near.", "Nearby Search", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        if (gazetteer == null) {
+            gazetteer = Gazetteer.loadDefault();
+        }
+        Gazetteer.Place place = gazetteer.resolve(near);
+        if (place == null) {
+            JOptionPane.showMessageDialog(this, "Sorry, we don't know where '" + near + "' is.", "Nearby Search", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        if (locationIndex == null) {
+            locationIndex = new LocationIndex(jobStore.toJobs(jobStore.selectAll()), gazetteer);
+        }
+
+        int radius = (Integer) radiusBox.getSelectedItem();
+        List<Job> nearbyJobs = new ArrayList<>();
+        for (LocationIndex.Result result : locationIndex.withinRadius(place.getLatitude(), place.getLongitude(), radius)) {
+            nearbyJobs.add(result.getJob()); // Already sorted nearest first.
+        }
+        updateJobList(nearbyJobs, "No jobs found within " + radius + " km of " + place + ".");
     }
 
     // Helper method to update the job list display.
@@ -241,9 +648,24 @@ public class SeekerDashboardFrame extends JFrame implements ActionListener {
         applyButton.setEnabled(false);
     }
 
+    // Loads the applications without blocking the window (used when the tab is first opened).
+    private void loadAppliedJobsInBackground() {
+        int seekerId = currentSeeker.getUserId();
+        new DashboardLoader(dbManager)
+                .add("applied", () -> dbManager.getAppliedJobs(seekerId))
+                .add("statuses", () -> dbManager.getApplicationStatuses(seekerId))
+                .load(snapshot -> showAppliedJobs(snapshot.get("applied"), snapshot.get("statuses")),
+                        error -> System.err.println("Loading applications failed: " + error.getMessage()));
+    }
+
     // Gets the jobs the current user applied for and shows them.
     private void loadAppliedJobs() {
-        List<Job> jobs = dbManager.getAppliedJobs(currentSeeker.getUserId());
+        showAppliedJobs(dbManager.getAppliedJobs(currentSeeker.getUserId()),
+                dbManager.getApplicationStatuses(currentSeeker.getUserId()));
+    }
+
+    private void showAppliedJobs(List<Job> jobs, Map<Integer, ApplicationStatus> statuses) {
+        appliedStatusRenderer.setStatuses(statuses);
         appliedJobsListModel.clear();
         if (jobs != null) {
             for (Job job : jobs) { // CN 1: For-each loop.
@@ -278,6 +700,29 @@ public class SeekerDashboardFrame extends JFrame implements ActionListener {
         jobDetailsArea.setCaretPosition(0); // Scroll to the top.
     }
 
+    // Fills the 'also applied for' list for the selected application (from memory).
+    private void showAlsoAppliedJobs(Job appliedJob) {
+        alsoAppliedListModel.clear();
+        if (appliedJob == null) {
+            return;
+        }
+        int limit = CONFIG.getInt(AppConfig.UI_ALSO_APPLIED_SIZE);
+        for (Job job : dbManager.getAlsoAppliedJobs(currentSeeker.getUserId(), appliedJob.getJobId(), limit)) {
+            alsoAppliedListModel.addElement(job);
+        }
+    }
+
+    // Fills the 'Similar jobs' list (from memory, so it is quick enough for every click).
+    private void showSimilarJobs(Job job) {
+        similarJobsListModel.clear();
+        if (job == null) {
+            return;
+        }
+        for (Job similar : dbManager.getSimilarJobs(job, CONFIG.getInt(AppConfig.UI_SIMILAR_JOBS_SIZE))) {
+            similarJobsListModel.addElement(similar);
+        }
+    }
+
     // --- Methods to Handle Button Clicks ---
 
     // Called when the 'Apply' button is clicked.
@@ -298,7 +743,9 @@ public class SeekerDashboardFrame extends JFrame implements ActionListener {
             boolean success = dbManager.applyForJob(currentSeeker.getUserId(), selectedJob.getJobId());
             if (success) {
                 JOptionPane.showMessageDialog(this, "Application submitted successfully!", "Application Success", JOptionPane.INFORMATION_MESSAGE);
-                loadAppliedJobs(); // Refresh the 'My Applications' list.
+                if (lazyTabs.isBuilt(applicationsTabIndex)) {
+                    loadAppliedJobs(); // Refresh the 'My Applications' list (if it has been opened).
+                }
             } else {
                 JOptionPane.showMessageDialog(this, "Could not submit application. You might have already applied.", "Application Failed", JOptionPane.ERROR_MESSAGE);
             }
@@ -365,16 +812,8 @@ public class SeekerDashboardFrame extends JFrame implements ActionListener {
             currentSeeker.setSkills(newSkills);
             // Resume info is updated from the main tab.
 
-            // Try to save changes to the database.
-            boolean success = dbManager.updateUser(currentSeeker);
-
-            if (success) {
-                JOptionPane.showMessageDialog(this, "Profile updated successfully.", "Update Success", JOptionPane.INFORMATION_MESSAGE);
-                // Update title bar if username changed? (Username not editable here)
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to update profile.", "Update Failed", JOptionPane.ERROR_MESSAGE);
-                // Maybe reload seeker data from DB if failed?
-            }
+            // Queue only the changed fields; they are saved to the database in the background.
+            showSaveResult(dbManager.queueUserUpdate(currentSeeker), editProfileButton, "Profile updated successfully.");
         }
     }
 
@@ -422,7 +861,8 @@ public class SeekerDashboardFrame extends JFrame implements ActionListener {
                 JOptionPane.YES_NO_OPTION);
 
         if (choice == JOptionPane.YES_OPTION) {
-            boolean success = dbManager.deleteApplication(currentSeeker.getUserId(), selectedAppliedJob.getJobId());
+            // The application is marked 'withdrawn' (kept in its history), not deleted.
+            boolean success = dbManager.withdrawApplication(currentSeeker.getUserId(), selectedAppliedJob.getJobId());
             if (success) {
                 JOptionPane.showMessageDialog(this, "Application withdrawn successfully.", "Withdrawal Success", JOptionPane.INFORMATION_MESSAGE);
                 loadAppliedJobs(); // Refresh the list.
@@ -441,25 +881,28 @@ public class SeekerDashboardFrame extends JFrame implements ActionListener {
         currentSeeker.setSkills(skills);
         currentSeeker.setResumeInfo(resume);
 
-        // Then, try to save only these fields to the database.
-        // We could reuse updateUser, or have a more specific method.
-        // Let's try using a specific method for just resume/skills.
-        boolean success = dbManager.saveResumeInfo(currentSeeker.getUserId(), resume, skills);
+        // Then queue the changed fields to be saved in the background,
+        // so the window doesn't wait for the database.
+        showSaveResult(dbManager.queueUserUpdate(currentSeeker), saveProfileButton, "Skills and Resume/CV information saved.");
+    }
 
-        if (success) {
-            JOptionPane.showMessageDialog(this,
-                "Skills and Resume/CV information saved.",
-                "Profile Saved",
-                JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(this,
-                "Could not save profile information.",
-                "Save Error",
-                JOptionPane.ERROR_MESSAGE);
-            // Maybe reload fields from DB if save failed?
-            skillsField.setText(currentSeeker.getSkills());
-            resumeArea.setText(currentSeeker.getResumeInfo());
-        }
+    // Shows "Saving..." on the button until the background write is done, then tells the
+    // user whether it worked. The message is shown on the Swing thread.
+    private void showSaveResult(CompletableFuture<Boolean> saved, JButton button, String successMessage) {
+        String buttonText = button.getText();
+        button.setText("Saving...");
+        button.setEnabled(false);
+        saved.whenComplete((ok, error) -> SwingUtilities.invokeLater(() -> {
+            button.setText(buttonText);
+            button.setEnabled(true);
+            if (Boolean.TRUE.equals(ok)) {
+                JOptionPane.showMessageDialog(this, successMessage, "Profile Saved", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this,
+                        "Your changes could not be saved right now.\nThey are kept and will be saved again automatically.",
+                        "Save Failed", JOptionPane.ERROR_MESSAGE);
+            }
+        }));
     }
 
     // --- Main ActionListener Implementation ---
@@ -479,6 +922,12 @@ public class SeekerDashboardFrame extends JFrame implements ActionListener {
         } else if (source == viewAllButton) {
             loadAllJobs();
             searchField.setText(""); // Clear search field when viewing all.
+        } else if (source == filterButton) {
+            handleFilter();
+        } else if (source == bestMatchesButton) {
+            handleBestMatches();
+        } else if (source == nearbyButton) {
+            handleNearbySearch();
         } else if (source == applyButton) {
             handleApply();
         } else if (source == editProfileButton) {
@@ -487,6 +936,13 @@ public class SeekerDashboardFrame extends JFrame implements ActionListener {
             handleDeleteProfile();
         } else if (source == withdrawButton) {
             handleWithdrawApplication();
+        } else if (source == saveSearchButton) {
+            handleSaveSearch();
+        } else if (source == deleteSearchButton) {
+            handleDeleteSearch();
+        } else if (source == markReadButton) {
+            dbManager.markNotificationsRead(currentSeeker.getUserId());
+            loadNotifications();
         } else if (source == logoutButton) {
             handleLogout();
         }
@@ -3,7 +3,11 @@ package com.joblit.main;
 import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
 import javax.swing.JOptionPane; // For error messages
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import com.joblit.config.AppConfig;
 import com.joblit.db.DatabaseManager;
 import com.joblit.gui.LoginFrame;
 import com.joblit.gui.SeekerDashboardFrame;
@@ -16,7 +20,7 @@ import com.joblit.model.Employer;
 /**
  * JobLitApp.java
  * This is where the JobLit application starts running.
- * It sets up the database connection and shows the first login screen.
+ * It shows the first login screen straight away and connects to the database in the background.
  * It also has static methods to help switch between different screens.
  * CN 8: The way the app is put together matches the UML plan.
  */
@@ -38,23 +42,11 @@ public class JobLitApp {
      */
     // CN 7: Method (main - where the program starts).
     public static void main(String[] args) {
-        // First, set up the Database Manager.
+        StartupTimer.mark("main started");
+        // First, set up the Database Manager. It connects in the background (below), so
+        // the login window can show straight away instead of after the connection is made.
         // CN 6: Making the DatabaseManager object.
-        dbManager = new DatabaseManager();
-
-        // Check if we managed to connect to the database.
-        // CN 1: Control Structure (if statement).
-        if (dbManager.getConnection() == null) {
-            // Show an error message using a pop-up box.
-            // CN 3: Using a GUI part (JOptionPane) for messages.
-            // CN 13: Handling errors (showing a message if database connection failed).
-            JOptionPane.showMessageDialog(null,
-                    "Serious Error: Cannot connect to the database. Please check the connection details and make sure the database server is running.",
-                    "Database Connection Error",
-                    JOptionPane.ERROR_MESSAGE);
-            System.err.println("Stopping program because database connection failed.");
-            return; // Stop the program if we can't connect.
-        }
+        dbManager = new DatabaseManager(false);
 
         // Tell Java Swing to create the GUI windows safely.
         // CN 3: The standard way to start Swing GUIs.
@@ -63,9 +55,48 @@ public class JobLitApp {
             public void run() {
                 // CN 7: Running a static method from this class.
                 showLoginScreen();
+                StartupTimer.mark("login window shown");
             }
         });
 
+        // Connect (and open the read pool) while the user types their name and password.
+        Thread connector = new Thread(() -> {
+            // Check if we managed to connect to the database.
+            // CN 1: Control Structure (if statement).
+            if (dbManager.connect()) {
+                StartupTimer.mark("database connected");
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                // Show an error message using a pop-up box.
+                // CN 3: Using a GUI part (JOptionPane) for messages.
+                // CN 13: Handling errors (showing a message if database connection failed).
+                JOptionPane.showMessageDialog(null,
+                        "Serious Error: Cannot connect to the database. Please check the connection details and make sure the database server is running.",
+                        "Database Connection Error",
+                        JOptionPane.ERROR_MESSAGE);
+                System.err.println("Stopping program because database connection failed.");
+                System.exit(1); // Stop the program (the login window is already open) if we can't connect.
+            });
+        }, "db-connect");
+        connector.setDaemon(true);
+        connector.start();
+
+        // Move expired jobs into the archive tables now and then, so the live jobs table
+        // only holds open jobs. A daemon thread, so it never keeps the program running.
+        // Only one client at a time really archives (a database lock decides), and it can
+        // be switched off here with jobs.archive.enabled=false.
+        ScheduledExecutorService archiver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "job-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        archiver.scheduleWithFixedDelay(() -> {
+            if (AppConfig.get().getBoolean(AppConfig.JOBS_ARCHIVE_ENABLED)) {
+                dbManager.archiveExpiredJobs();
+            }
+        }, 1, 6 * 60, TimeUnit.MINUTES);
+
         // Add a task to run when the program closes.
         // This makes sure the database connection is closed properly, even if the app stops unexpectedly.
         // CN 7: Running the addShutdownHook method.
@@ -73,6 +104,8 @@ public class JobLitApp {
         Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
             public void run() {
                 if (dbManager != null) { // CN 1: Control Structure (if statement).
+                    // Save any profile changes still waiting in the background queue first.
+                    dbManager.flushPendingWrites();
                     System.out.println("Closing database connection...");
                     // CN 7: Running a method from the dbManager object.
                     dbManager.closeConnection();
@@ -122,11 +155,13 @@ public class JobLitApp {
             // CN 3: Making and showing a GUI window.
             SeekerDashboardFrame seekerDashboard = new SeekerDashboardFrame((JobSeeker) user);
             seekerDashboard.setVisible(true);
+            StartupTimer.mark("first dashboard shown");
         } else if (user.getUserType() == UserType.EMPLOYER && user instanceof Employer) {
             // CN 6: Making the EmployerDashboardFrame object.
             // CN 3: Making and showing a GUI window.
             EmployerDashboardFrame employerDashboard = new EmployerDashboardFrame((Employer) user);
             employerDashboard.setVisible(true);
+            StartupTimer.mark("first dashboard shown");
         } else {
             // This shouldn't happen if login/registration works properly.
             System.err.println("Error: Cannot recognise user type.");
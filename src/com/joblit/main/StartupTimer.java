@@ -0,0 +1,42 @@
+package com.joblit.main;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * StartupTimer.java
+ * Writes down how long each start-up step took, counted from when the JVM started,
+ * so we can see where the time before the first window goes (JVM, settings, window, database).
+ * Each step is only written down the first time, so logging out and in again doesn't add new lines.
+ * CN 2: Uses a Map (Data Structures).
+ */
+public class StartupTimer {
+
+    private static final long JVM_START = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private static final Map<String, Long> PHASES = new LinkedHashMap<>();
+
+    // Only static methods, so nobody needs to make an object of this class.
+    private StartupTimer() {
+    }
+
+    /**
+     * Records that a start-up step has finished and prints the time since the JVM started.
+     */
+    // CN 7: Method (static helper method).
+    public static synchronized void mark(String phase) {
+        if (PHASES.containsKey(phase)) {
+            return;
+        }
+        long elapsed = System.currentTimeMillis() - JVM_START;
+        PHASES.put(phase, elapsed);
+        System.out.println("Startup: " + phase + " after " + elapsed + " ms");
+    }
+
+    /**
+     * All steps recorded so far, in the order they happened (milliseconds since the JVM started).
+     */
+    public static synchronized Map<String, Long> getPhases() {
+        return new LinkedHashMap<>(PHASES);
+    }
+}
@@ -0,0 +1,71 @@
+package com.joblit.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ApplicantPage.java
+ * One page of a job's applicants in a chosen order, and where the next page starts.
+ * Pages are found by the sort value of the last applicant shown ("keyset paging"), not
+ * by an OFFSET, so the 100th page is as quick as the first and nobody is shown twice
+ * when new applications arrive in between.
+ * The page also holds the application status of each applicant on it, read with the page.
+ * CN 11: Private details with 'get' methods (Encapsulation).
+ */
+public class ApplicantPage {
+    private List<JobSeeker> applicants;
+    private ApplicantSort sort;
+    private Object lastKey; // Sort value of the last applicant (date, score or name).
+    private int lastSeekerId; // Breaks ties between applicants with the same sort value.
+    private boolean more;
+    private Map<Integer, ApplicationStatus> statuses; // Seeker id -> status of their application.
+
+    // CN 5: Constructor. An empty page (nothing found, or the database didn't answer).
+    public ApplicantPage(ApplicantSort sort) {
+        this(new ArrayList<>(), sort, null, 0, false, new HashMap<>());
+    }
+
+    // CN 5: Constructor (Overloaded).
+    public ApplicantPage(List<JobSeeker> applicants, ApplicantSort sort, Object lastKey, int lastSeekerId, boolean more,
+            Map<Integer, ApplicationStatus> statuses) {
+        this.applicants = applicants;
+        this.sort = sort;
+        this.lastKey = lastKey;
+        this.lastSeekerId = lastSeekerId;
+        this.more = more;
+        this.statuses = statuses;
+    }
+
+    public List<JobSeeker> getApplicants() {
+        return applicants;
+    }
+
+    public ApplicantSort getSort() {
+        return sort;
+    }
+
+    public Object getLastKey() {
+        return lastKey;
+    }
+
+    public int getLastSeekerId() {
+        return lastSeekerId;
+    }
+
+    /**
+     * The status of each applicant's application on this page (seeker id -> status).
+     * Applicants without a status row yet are missing.
+     */
+    public Map<Integer, ApplicationStatus> getStatuses() {
+        return statuses;
+    }
+
+    /**
+     * True if there are more applicants after this page.
+     */
+    public boolean hasMore() {
+        return more;
+    }
+}
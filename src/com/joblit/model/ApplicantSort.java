@@ -0,0 +1,23 @@
+package com.joblit.model;
+
+/**
+ * ApplicantSort.java
+ * The orders an employer can see a job's applicants in.
+ * The database does the sorting, so only one page of applicants is ever loaded.
+ */
+public enum ApplicantSort {
+    NEWEST("Newest first"),
+    SKILLS("Best skill match"),
+    NAME("Name (A-Z)");
+
+    private final String label;
+
+    ApplicantSort(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String toString() {
+        return label; // Shown in the sort drop-down.
+    }
+}
@@ -0,0 +1,57 @@
+package com.joblit.model;
+
+import java.sql.Timestamp;
+
+/**
+ * ApplicationEvent.java
+ * One change in an application's status, as saved in the application_events log.
+ * The log is never changed, only added to, so it is the full history of the application.
+ * CN 11: Private details with 'get' methods (Encapsulation).
+ */
+public class ApplicationEvent {
+    private long eventId;
+    private int seekerId;
+    private int jobId;
+    private ApplicationStatus status;
+    private int actorId; // Who made the change (the seeker or the employer).
+    private Timestamp createdAt;
+
+    // CN 5: Constructor.
+    public ApplicationEvent(long eventId, int seekerId, int jobId, ApplicationStatus status, int actorId, Timestamp createdAt) {
+        this.eventId = eventId;
+        this.seekerId = seekerId;
+        this.jobId = jobId;
+        this.status = status;
+        this.actorId = actorId;
+        this.createdAt = createdAt;
+    }
+
+    public long getEventId() {
+        return eventId;
+    }
+
+    public int getSeekerId() {
+        return seekerId;
+    }
+
+    public int getJobId() {
+        return jobId;
+    }
+
+    public ApplicationStatus getStatus() {
+        return status;
+    }
+
+    public int getActorId() {
+        return actorId;
+    }
+
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return createdAt + " - " + status.getLabel();
+    }
+}
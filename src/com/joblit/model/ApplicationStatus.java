@@ -0,0 +1,53 @@
+package com.joblit.model;
+
+/**
+ * ApplicationStatus.java
+ * The steps a job application can go through.
+ * SUBMITTED -> VIEWED -> SHORTLISTED, and REJECTED or WITHDRAWN can end it.
+ * canMoveTo() says which changes are allowed.
+ */
+public enum ApplicationStatus {
+    SUBMITTED("Submitted"),
+    VIEWED("Viewed"),
+    SHORTLISTED("Shortlisted"),
+    REJECTED("Rejected"),
+    WITHDRAWN("Withdrawn");
+
+    private final String label; // Nice name to show in the window.
+
+    // CN 5: Enum constructor.
+    ApplicationStatus(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Is it allowed to go from this status to 'next'?
+     */
+    public boolean canMoveTo(ApplicationStatus next) {
+        switch (this) { // CN 1: Switch statement.
+            case SUBMITTED:
+                return next == VIEWED || next == SHORTLISTED || next == REJECTED || next == WITHDRAWN;
+            case VIEWED:
+                return next == SHORTLISTED || next == REJECTED || next == WITHDRAWN;
+            case SHORTLISTED:
+                return next == REJECTED || next == WITHDRAWN;
+            case REJECTED:
+                return next == SHORTLISTED; // The employer changed their mind.
+            case WITHDRAWN:
+                return next == SUBMITTED; // The seeker applied again.
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * True if the application is no longer going anywhere.
+     */
+    public boolean isClosed() {
+        return this == REJECTED || this == WITHDRAWN;
+    }
+}
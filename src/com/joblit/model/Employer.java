@@ -33,15 +33,18 @@ public class Employer extends User {
     }
 
     public void setCompanyName(String companyName) {
+        markChanged("company_name", this.companyName, companyName);
         this.companyName = companyName;
     }
 
     // Also allowing email and password changes via setters from User
     public void setEmail(String email) {
+        markChanged("email", this.email, email);
         this.email = email;
     }
 
     public void setPassword(String password) {
+        markChanged("password", this.password, password);
         this.password = password;
     }
 
@@ -17,6 +17,7 @@ public class Job {
     private double salary; // Using double allows for decimals in salary.
     private String companyName; // Stored here to make showing it easier.
     private Timestamp postedAt; // When the job was put online.
+    private int version; // Goes up with every change, so lists know when to redraw the text.
 
     // CN 5: Constructor for making new Job objects.
     // CN 6: An object is made when we use 'new Job(...)'.
@@ -45,6 +46,12 @@ public class Job {
         return jobId;
     }
 
+    // Used after saving a new job, when the database has given it its real id.
+    public void setJobId(int jobId) {
+        this.jobId = jobId;
+        version++;
+    }
+
     public int getEmployerId() {
         return employerId;
     }
@@ -55,6 +62,7 @@ public class Job {
 
     public void setTitle(String title) {
         this.title = title;
+        version++;
     }
 
     public String getDescription() {
@@ -63,6 +71,7 @@ public class Job {
 
     public void setDescription(String description) {
         this.description = description;
+        version++;
     }
 
     public String getLocation() {
@@ -71,6 +80,7 @@ public class Job {
 
     public void setLocation(String location) {
         this.location = location;
+        version++;
     }
 
     public double getSalary() {
@@ -79,6 +89,7 @@ public class Job {
 
     public void setSalary(double salary) {
         this.salary = salary;
+        version++;
     }
 
     public String getCompanyName() {
@@ -87,6 +98,11 @@ public class Job {
 
     public void setCompanyName(String companyName) {
         this.companyName = companyName;
+        version++;
+    }
+
+    public int getVersion() {
+        return version;
     }
 
     public Timestamp getPostedAt() {
@@ -17,6 +17,7 @@ public class JobSeeker extends User {
     private String fullName;
     private String skills;
     private String resumeInfo; // Using a simple text area for CV details.
+    private boolean profileLoaded = true; // False if skills/CV were not loaded yet (e.g. in an applicant list).
 
     // Constructor - Uses the main User constructor first
     // CN 5: This constructor makes a new JobSeeker.
@@ -37,6 +38,7 @@ public class JobSeeker extends User {
     }
 
     public void setFullName(String fullName) {
+        markChanged("full_name", this.fullName, fullName);
         this.fullName = fullName;
     }
 
@@ -45,6 +47,7 @@ public class JobSeeker extends User {
     }
 
     public void setSkills(String skills) {
+        markChanged("skills", this.skills, skills);
         this.skills = skills;
     }
 
@@ -54,17 +57,28 @@ public class JobSeeker extends User {
 
     // Also allowing email and password changes via setters from User
     public void setEmail(String email) {
+        markChanged("email", this.email, email);
         this.email = email;
     }
 
     public void setPassword(String password) {
+        markChanged("password", this.password, password);
         this.password = password;
     }
 
     public void setResumeInfo(String resumeInfo) {
+        markChanged("resume_info", this.resumeInfo, resumeInfo);
         this.resumeInfo = resumeInfo;
     }
 
+    public boolean isProfileLoaded() {
+        return profileLoaded;
+    }
+
+    public void setProfileLoaded(boolean profileLoaded) {
+        this.profileLoaded = profileLoaded;
+    }
+
     /**
      * displayDashboard (Polymorphism)
      * This is JobSeeker's own version of the abstract method from User.
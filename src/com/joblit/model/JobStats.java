@@ -0,0 +1,64 @@
+package com.joblit.model;
+
+import java.sql.Timestamp;
+
+/**
+ * JobStats.java
+ * Holds simple numbers about one job posting for the employer's analytics view.
+ * The numbers are worked out by the database in one grouped query.
+ * CN 11: Private details with 'get' methods (Encapsulation).
+ */
+public class JobStats {
+    private int jobId;
+    private String title;
+    private int applicantCount;
+    private Timestamp postedAt;
+    private Timestamp firstApplicationAt; // null if nobody has applied yet.
+
+    // CN 5: Constructor.
+    public JobStats(int jobId, String title, int applicantCount, Timestamp postedAt, Timestamp firstApplicationAt) {
+        this.jobId = jobId;
+        this.title = title;
+        this.applicantCount = applicantCount;
+        this.postedAt = postedAt;
+        this.firstApplicationAt = firstApplicationAt;
+    }
+
+    public int getJobId() {
+        return jobId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public int getApplicantCount() {
+        return applicantCount;
+    }
+
+    public Timestamp getPostedAt() {
+        return postedAt;
+    }
+
+    public Timestamp getFirstApplicationAt() {
+        return firstApplicationAt;
+    }
+
+    /**
+     * How many hours passed between posting the job and the first application.
+     * Gives back -1 if there is no application yet (or no posted time).
+     */
+    public long getHoursToFirstApplicant() {
+        if (postedAt == null || firstApplicationAt == null) { // CN 1: If
+            return -1;
+        }
+        return Math.max(0, (firstApplicationAt.getTime() - postedAt.getTime()) / (60L * 60 * 1000));
+    }
+
+    @Override
+    public String toString() {
+        long hours = getHoursToFirstApplicant();
+        return title + " - " + applicantCount + " applicant(s)"
+                + (hours >= 0 ? ", first after " + hours + "h" : ""); // CN 1: Ternary operator.
+    }
+}
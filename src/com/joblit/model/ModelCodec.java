@@ -0,0 +1,388 @@
+package com.joblit.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ModelCodec.java
+ * A small binary form of Job, JobSeeker and Employer, for caches, snapshots and
+ * sending them between programs. It is much smaller and quicker than Java serialization
+ * or JSON because:
+ * - Whole numbers (ids, dates) are written as varints: 7 bits per byte, so small
+ *   ids take one or two bytes instead of four.
+ * - Text is UTF-8 with its length in front (a varint), no quotes or escaping.
+ * - Company names and locations repeat a lot, so each different one is written once
+ *   (a DICTIONARY record) and records after it only hold its number.
+ *
+ * Every record is: version byte, type byte, body length (varint), body.
+ * Schema changes: new fields are only ever added at the end of a body and the version
+ * goes up. A reader skips body bytes it doesn't know (using the length), and fields
+ * missing from an older record keep their default, so old and new versions can read
+ * each other's data. Fields after the first version's ones must therefore be read only
+ * if the body still has bytes left (Reader.hasField()); the trailing fields of the first
+ * version are read that way too.
+ *
+ * Passwords are never written: a decoded user has a null password.
+ * The dictionary belongs to one Writer/Reader pair, so a stream must be read with one
+ * Reader from its start. Neither class is thread-safe.
+ * CN 2: Uses arrays, a Map and an ArrayList (Data Structures).
+ */
+public final class ModelCodec {
+
+    public static final byte FORMAT_VERSION = 1;
+
+    public static final byte TYPE_DICTIONARY = 0;
+    public static final byte TYPE_JOB = 1;
+    public static final byte TYPE_SEEKER = 2;
+    public static final byte TYPE_EMPLOYER = 3;
+
+    private ModelCodec() {
+    }
+
+    /**
+     * Encodes a list of jobs into one buffer (ready to read from its start).
+     */
+    public static ByteBuffer encodeJobs(List<Job> jobs) {
+        Writer writer = new Writer(jobs.size() * 64);
+        for (Job job : jobs) { // CN 1: For-each loop.
+            writer.writeJob(job);
+        }
+        return writer.toByteBuffer();
+    }
+
+    /**
+     * Decodes every job in the buffer (other record types are skipped).
+     */
+    public static List<Job> decodeJobs(ByteBuffer buffer) {
+        Reader reader = new Reader(buffer);
+        List<Job> jobs = new ArrayList<>();
+        while (reader.hasNext()) {
+            if (reader.nextType() == TYPE_JOB) {
+                jobs.add(reader.readJob());
+            } else {
+                reader.skip();
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Writes records into a growing byte array.
+     */
+    public static class Writer {
+        private byte[] out;
+        private int size;
+        private final Map<String, Integer> dictionary = new HashMap<>(); // Text -> its number.
+        private final Writer body; // Each body is written here first, so its length is known.
+
+        // CN 5: Constructor.
+        public Writer(int initialCapacity) {
+            this(initialCapacity, true);
+        }
+
+        private Writer(int initialCapacity, boolean withBody) {
+            out = new byte[Math.max(16, initialCapacity)];
+            body = withBody ? new Writer(256, false) : null;
+        }
+
+        public void writeJob(Job job) {
+            int company = define(job.getCompanyName());
+            int location = define(job.getLocation());
+            body.size = 0;
+            body.writeVarLong(job.getJobId());
+            body.writeVarLong(job.getEmployerId());
+            body.writeString(job.getTitle());
+            body.writeString(job.getDescription());
+            body.writeVarLong(location);
+            body.writeDouble(job.getSalary());
+            body.writeVarLong(company);
+            body.writeTime(job.getPostedAt());
+            endRecord(TYPE_JOB);
+        }
+
+        public void writeSeeker(JobSeeker seeker) {
+            body.size = 0;
+            body.writeVarLong(seeker.getUserId());
+            body.writeString(seeker.getUsername());
+            body.writeString(seeker.getEmail());
+            body.writeString(seeker.getFullName());
+            body.writeString(seeker.getSkills());
+            body.writeString(seeker.getResumeInfo());
+            body.writeByte(seeker.isProfileLoaded() ? 1 : 0);
+            endRecord(TYPE_SEEKER);
+        }
+
+        public void writeEmployer(Employer employer) {
+            int company = define(employer.getCompanyName());
+            body.size = 0;
+            body.writeVarLong(employer.getUserId());
+            body.writeString(employer.getUsername());
+            body.writeString(employer.getEmail());
+            body.writeVarLong(company);
+            endRecord(TYPE_EMPLOYER);
+        }
+
+        /**
+         * Bytes written so far.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * The written bytes as a buffer over the same array (not copied).
+         */
+        public ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(out, 0, size);
+        }
+
+        public byte[] toByteArray() {
+            return Arrays.copyOf(out, size);
+        }
+
+        // Gives back the text's dictionary number (0 means null), writing a
+        // DICTIONARY record the first time the text is seen.
+        private int define(String text) {
+            if (text == null) return 0;
+            Integer known = dictionary.get(text);
+            if (known != null) return known;
+            int number = dictionary.size() + 1;
+            dictionary.put(text, number);
+            body.size = 0;
+            body.writeString(text); // Numbers are given out in order, so only the text is needed.
+            endRecord(TYPE_DICTIONARY);
+            return number;
+        }
+
+        private void endRecord(byte type) {
+            writeByte(FORMAT_VERSION);
+            writeByte(type);
+            writeVarLong(body.size);
+            ensure(body.size);
+            System.arraycopy(body.out, 0, out, size, body.size);
+            size += body.size;
+        }
+
+        private void writeByte(int value) {
+            ensure(1);
+            out[size++] = (byte) value;
+        }
+
+        // Unsigned varint: 7 bits per byte, top bit set while more bytes follow.
+        private void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) { // CN 1: While loop.
+                out[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out[size++] = (byte) value;
+        }
+
+        private void writeDouble(double value) {
+            long bits = Double.doubleToLongBits(value);
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out[size++] = (byte) (bits >>> shift);
+            }
+        }
+
+        // Time in milliseconds plus one, so 0 can mean null.
+        private void writeTime(Timestamp time) {
+            writeVarLong(time == null ? 0 : zigZag(time.getTime()) + 1);
+        }
+
+        // Length plus one, then the UTF-8 bytes (a length of 0 means null).
+        private void writeString(String text) {
+            if (text == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length + 1L);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, out, size, utf8.length);
+            size += utf8.length;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > out.length) {
+                out = Arrays.copyOf(out, Math.max(out.length * 2, size + extra));
+            }
+        }
+    }
+
+    /**
+     * Reads records straight from a ByteBuffer: text is decoded from the buffer's own
+     * array when it has one, and skipped records are never decoded at all.
+     */
+    public static class Reader {
+        private final ByteBuffer in;
+        private final List<String> dictionary = new ArrayList<>();
+        private byte[] scratch = new byte[0]; // Only used for buffers without an array (direct buffers).
+        private int bodyEnd = -1; // End of the record whose header was read, or -1.
+        private byte type;
+
+        // CN 5: Constructor. Reads from the buffer's position to its limit.
+        public Reader(ByteBuffer buffer) {
+            this.in = buffer;
+        }
+
+        /**
+         * True if there is another job/seeker/employer record.
+         */
+        public boolean hasNext() {
+            return nextType() >= 0;
+        }
+
+        /**
+         * The type of the next record (TYPE_JOB, TYPE_SEEKER or TYPE_EMPLOYER), or -1 at the end.
+         * Dictionary records are read on the way.
+         */
+        public byte nextType() {
+            while (bodyEnd < 0) {
+                if (!in.hasRemaining()) return -1;
+                int version = in.get();
+                if (version < 1) {
+                    throw new IllegalArgumentException("Bad record version " + version + " at byte " + (in.position() - 1));
+                }
+                type = in.get();
+                int length = (int) readVarLong();
+                bodyEnd = in.position() + length;
+                if (type == TYPE_DICTIONARY) {
+                    dictionary.add(readString());
+                    endRecord();
+                }
+            }
+            return type;
+        }
+
+        /**
+         * Moves past the next record without decoding it.
+         */
+        public void skip() {
+            if (nextType() >= 0) {
+                endRecord();
+            }
+        }
+
+        public Job readJob() {
+            expect(TYPE_JOB);
+            int jobId = (int) readVarLong();
+            int employerId = (int) readVarLong();
+            String title = readString();
+            String description = readString();
+            String location = lookUp(readVarLong());
+            double salary = readDouble();
+            String company = lookUp(readVarLong());
+            Timestamp postedAt = hasField() ? readTime() : null;
+            endRecord();
+            return new Job(jobId, employerId, title, description, location, salary, company, postedAt);
+        }
+
+        public JobSeeker readSeeker() {
+            expect(TYPE_SEEKER);
+            int userId = (int) readVarLong();
+            String username = readString();
+            String email = readString();
+            String fullName = readString();
+            String skills = readString();
+            String resume = readString();
+            boolean profileLoaded = !hasField() || in.get() != 0; // Missing: the whole profile was written.
+            endRecord();
+            JobSeeker seeker = new JobSeeker(userId, username, null, email, fullName, skills, resume);
+            seeker.setProfileLoaded(profileLoaded);
+            return seeker;
+        }
+
+        public Employer readEmployer() {
+            expect(TYPE_EMPLOYER);
+            int userId = (int) readVarLong();
+            String username = readString();
+            String email = readString();
+            String company = hasField() ? lookUp(readVarLong()) : null;
+            endRecord();
+            return new Employer(userId, username, null, email, company);
+        }
+
+        private void expect(byte wanted) {
+            byte found = nextType();
+            if (found != wanted) {
+                throw new IllegalArgumentException("Expected record type " + wanted + " but found " + found);
+            }
+        }
+
+        // True if the record's body has bytes left, i.e. an optional trailing field was written.
+        // Without this check a shorter (older) body would be read on into the next record.
+        private boolean hasField() {
+            return in.position() < bodyEnd;
+        }
+
+        // Jumps to the end of the body, past any fields added by a newer version.
+        private void endRecord() {
+            in.position(bodyEnd);
+            bodyEnd = -1;
+        }
+
+        private String lookUp(long number) {
+            return number == 0 ? null : dictionary.get((int) number - 1);
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                byte b = in.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return value;
+                shift += 7;
+                if (shift > 63) {
+                    throw new IllegalArgumentException("Varint too long at byte " + in.position());
+                }
+            }
+        }
+
+        // Big-endian, whatever byte order the buffer is set to.
+        private double readDouble() {
+            long bits = 0;
+            for (int i = 0; i < 8; i++) {
+                bits = (bits << 8) | (in.get() & 0xFF);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        private Timestamp readTime() {
+            long stored = readVarLong();
+            return stored == 0 ? null : new Timestamp(unZigZag(stored - 1));
+        }
+
+        private String readString() {
+            int length = (int) readVarLong() - 1;
+            if (length < 0) return null;
+            String text;
+            if (in.hasArray()) { // Decode straight from the buffer's array.
+                text = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+                in.position(in.position() + length);
+            } else {
+                if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+                in.get(scratch, 0, length);
+                text = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+            return text;
+        }
+    }
+
+    // Maps signed numbers to unsigned ones so small negative values stay short.
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
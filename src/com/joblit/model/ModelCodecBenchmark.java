@@ -0,0 +1,156 @@
+package com.joblit.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ModelCodecBenchmark.java
+ * Compares ModelCodec with JSON and Java serialization on made-up jobs: the size of the
+ * encoded data and the time to encode and decode it. Needs no database.
+ * Run: java -cp "out/production/Job Finder System" com.joblit.model.ModelCodecBenchmark [jobs] [rounds]
+ * Job is not Serializable, so Java serialization writes each job's fields as an Object[]
+ * (close to what it would write for the class itself). The JSON is written by hand, so it
+ * is a best case for JSON (no library overhead); decoding JSON is not measured.
+ * The first rounds warm up the JIT; the best time of the rounds is printed.
+ */
+public class ModelCodecBenchmark {
+
+    private static final String[] COMPANIES = {"Acme Ltd", "Globex", "Initech", "Umbrella", "Hooli", "Stark Industries"};
+    private static final String[] LOCATIONS = {"London", "Manchester", "Leeds", "Bristol", "Remote", "Glasgow"};
+    private static final String[] WORDS = {"java", "developer", "senior", "team", "cloud", "support", "sales", "data", "nurse", "driver"};
+
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        int jobCount = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        List<Job> jobs = makeJobs(jobCount);
+
+        long codecEncode = Long.MAX_VALUE;
+        long codecDecode = Long.MAX_VALUE;
+        long jsonEncode = Long.MAX_VALUE;
+        long javaEncode = Long.MAX_VALUE;
+        long javaDecode = Long.MAX_VALUE;
+        int codecBytes = 0;
+        int jsonBytes = 0;
+        int javaBytes = 0;
+        for (int round = 0; round < rounds; round++) { // CN 1: For loop - keep the best time of each.
+            long start = System.nanoTime();
+            ByteBuffer encoded = ModelCodec.encodeJobs(jobs);
+            codecEncode = Math.min(codecEncode, System.nanoTime() - start);
+            codecBytes = encoded.remaining();
+
+            start = System.nanoTime();
+            List<Job> decoded = ModelCodec.decodeJobs(encoded);
+            codecDecode = Math.min(codecDecode, System.nanoTime() - start);
+            if (decoded.size() != jobs.size()) {
+                throw new IllegalStateException("Decoded " + decoded.size() + " jobs, expected " + jobs.size());
+            }
+
+            start = System.nanoTime();
+            byte[] json = toJson(jobs);
+            jsonEncode = Math.min(jsonEncode, System.nanoTime() - start);
+            jsonBytes = json.length;
+
+            start = System.nanoTime();
+            byte[] serialized = serialize(jobs);
+            javaEncode = Math.min(javaEncode, System.nanoTime() - start);
+            javaBytes = serialized.length;
+
+            start = System.nanoTime();
+            deserialize(serialized);
+            javaDecode = Math.min(javaDecode, System.nanoTime() - start);
+        }
+
+        System.out.println(jobCount + " jobs, best of " + rounds + " rounds:");
+        print("ModelCodec", codecBytes, codecEncode, codecDecode);
+        print("JSON", jsonBytes, jsonEncode, -1);
+        print("Java serialization", javaBytes, javaEncode, javaDecode);
+    }
+
+    private static void print(String name, int bytes, long encodeNanos, long decodeNanos) {
+        System.out.printf("%-20s %8.1f KB   encode %7.1f ms   decode %s%n", name, bytes / 1024.0, encodeNanos / 1e6,
+                decodeNanos < 0 ? "-" : String.format("%7.1f ms", decodeNanos / 1e6));
+    }
+
+    private static List<Job> makeJobs(int count) {
+        Random random = new Random(42); // Same jobs every run.
+        List<Job> jobs = new ArrayList<>(count);
+        long now = System.currentTimeMillis();
+        for (int i = 1; i <= count; i++) {
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 30; w++) {
+                description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            jobs.add(new Job(i, 1 + random.nextInt(500), WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)],
+                    description.toString(), LOCATIONS[random.nextInt(LOCATIONS.length)], 20_000 + random.nextInt(60_000),
+                    COMPANIES[random.nextInt(COMPANIES.length)], new Timestamp(now - random.nextInt(1_000_000_000))));
+        }
+        return jobs;
+    }
+
+    // One JSON object per job, as a JSON library would write it.
+    private static byte[] toJson(List<Job> jobs) {
+        StringBuilder out = new StringBuilder();
+        out.append('[');
+        for (Job job : jobs) {
+            if (out.length() > 1) out.append(',');
+            out.append("{\"jobId\":").append(job.getJobId())
+                    .append(",\"employerId\":").append(job.getEmployerId())
+                    .append(",\"title\":");
+            quote(out, job.getTitle());
+            out.append(",\"description\":");
+            quote(out, job.getDescription());
+            out.append(",\"location\":");
+            quote(out, job.getLocation());
+            out.append(",\"salary\":").append(job.getSalary())
+                    .append(",\"companyName\":");
+            quote(out, job.getCompanyName());
+            out.append(",\"postedAt\":").append(job.getPostedAt().getTime()).append('}');
+        }
+        out.append(']');
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void quote(StringBuilder out, String text) {
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') out.append('\\');
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static byte[] serialize(List<Job> jobs) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) { // CN 13: try-with-resources.
+            out.writeInt(jobs.size());
+            for (Job job : jobs) {
+                out.writeObject(new Object[] {job.getJobId(), job.getEmployerId(), job.getTitle(), job.getDescription(),
+                        job.getLocation(), job.getSalary(), job.getCompanyName(), job.getPostedAt()});
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<Job> deserialize(byte[] data) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            int count = in.readInt();
+            List<Job> jobs = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Object[] fields = (Object[]) in.readObject();
+                jobs.add(new Job((Integer) fields[0], (Integer) fields[1], (String) fields[2], (String) fields[3],
+                        (String) fields[4], (Double) fields[5], (String) fields[6], (Timestamp) fields[7]));
+            }
+            return jobs;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.joblit.model;
+
+import java.sql.Timestamp;
+
+/**
+ * Notification.java
+ * One message in a job seeker's inbox: a new job that matched one of their saved searches.
+ * CN 11: Private details with 'get' methods (Encapsulation).
+ */
+public class Notification {
+    private int notificationId;
+    private int jobId;
+    private String jobTitle;
+    private String companyName;
+    private String query; // The saved search that matched (null if it was deleted since).
+    private Timestamp createdAt;
+    private boolean read;
+
+    // CN 5: Constructor.
+    public Notification(int notificationId, int jobId, String jobTitle, String companyName, String query, Timestamp createdAt, boolean read) {
+        this.notificationId = notificationId;
+        this.jobId = jobId;
+        this.jobTitle = jobTitle;
+        this.companyName = companyName;
+        this.query = query;
+        this.createdAt = createdAt;
+        this.read = read;
+    }
+
+    public int getNotificationId() {
+        return notificationId;
+    }
+
+    public int getJobId() {
+        return jobId;
+    }
+
+    public String getJobTitle() {
+        return jobTitle;
+    }
+
+    public String getCompanyName() {
+        return companyName;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean isRead() {
+        return read;
+    }
+
+    @Override
+    public String toString() {
+        String job = jobTitle != null ? jobTitle + " at " + companyName : "Job no longer available";
+        return (read ? "" : "[NEW] ") + job + (query != null ? " (matches \"" + query + "\")" : ""); // CN 1: Ternary operator.
+    }
+}
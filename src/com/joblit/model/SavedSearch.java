@@ -0,0 +1,37 @@
+package com.joblit.model;
+
+/**
+ * SavedSearch.java
+ * A search a job seeker wants to keep. When a new job is posted that matches
+ * all of its words, the seeker gets a notification.
+ * CN 11: Private details with 'get' methods (Encapsulation).
+ */
+public class SavedSearch {
+    private int searchId;
+    private int seekerId; // Which seeker saved this search.
+    private String query; // The search words, e.g. "java windhoek".
+
+    // CN 5: Constructor.
+    public SavedSearch(int searchId, int seekerId, String query) {
+        this.searchId = searchId;
+        this.seekerId = seekerId;
+        this.query = query;
+    }
+
+    public int getSearchId() {
+        return searchId;
+    }
+
+    public int getSeekerId() {
+        return seekerId;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    @Override
+    public String toString() {
+        return query;
+    }
+}
@@ -1,5 +1,9 @@
 package com.joblit.model;
 
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
 import javax.swing.JFrame;
 
 /**
@@ -17,10 +21,16 @@ public abstract class User {
     // CN 11: Keeping details protected/private like this is Encapsulation.
     protected int userId;
     protected String username;
-    protected String password; // Keeping password simple (plain text) for this project.
+    protected String password; // The password as typed; the database only keeps a salted hash of it.
     protected String email;
     protected UserType userType; // This uses the UserType Enum // CN 2: Using the UserType Enum (a Data Structure).
 
+    // Names of the database columns whose values were changed by a 'set' method
+    // since the last save, so an update only has to send those columns.
+    // CN 2: Using a Set (Data Structure) - each column only once.
+    private final Set<String> changedColumns = new LinkedHashSet<>();
+    private int version; // Counts changes to the details; list text made before a change is out of date.
+
     // Constructor
     // Child classes use this to set up the common details.
     // CN 5: This constructor makes a new User.
@@ -56,9 +66,37 @@ public abstract class User {
     // CN 7: These are 'Set' Methods.
     // CN 11: Public 'set' methods let us safely change the details hidden inside.
     public void setEmail(String email) {
+        markChanged("email", this.email, email);
         this.email = email;
     }
 
+    // Remembers that a column changed (only if the value is really different).
+    // CN 7: Method (protected helper - used by the child classes' 'set' methods too).
+    protected void markChanged(String column, Object oldValue, Object newValue) {
+        if (!Objects.equals(oldValue, newValue)) {
+            changedColumns.add(column);
+            version++;
+        }
+    }
+
+    /**
+     * The database columns changed since the last save (can't be modified from outside).
+     */
+    public Set<String> getChangedColumns() {
+        return Collections.unmodifiableSet(changedColumns);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Forgets the changes, e.g. after they were saved.
+     */
+    public void clearChanges() {
+        changedColumns.clear();
+    }
+
     public UserType getUserType() {
         return userType;
     }
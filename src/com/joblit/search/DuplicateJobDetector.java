@@ -0,0 +1,201 @@
+package com.joblit.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import com.joblit.model.Job;
+
+/**
+ * DuplicateJobDetector.java
+ * Finds job postings that are almost the same as another one (a repost with small edits).
+ * How it works (MinHash + LSH):
+ * - The title and description are cut into overlapping groups of SHINGLE_WORDS words ("shingles").
+ * - Each job gets a short "signature" of NUM_HASHES numbers made from its shingles. Two jobs
+ *   with mostly the same shingles get mostly the same signature numbers.
+ * - The signature is cut into BANDS bands. Jobs sharing any whole band land in the same
+ *   bucket, so to find look-alikes we only compare with the jobs in those few buckets.
+ * CN 2: Uses arrays, Maps and Lists (Data Structures).
+ */
+public class DuplicateJobDetector {
+
+    /**
+     * A job that looks like a duplicate, with how similar it is (0.0 to 1.0).
+     */
+    public static class Match {
+        private final Job job;
+        private final double similarity;
+
+        Match(Job job, double similarity) {
+            this.job = job;
+            this.similarity = similarity;
+        }
+
+        public Job getJob() {
+            return job;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    public static final double DEFAULT_THRESHOLD = 0.8; // 80% the same counts as a duplicate.
+
+    private static final int SHINGLE_WORDS = 3;
+    private static final int NUM_HASHES = 64;
+    private static final int BANDS = 16; // 16 bands of 4 numbers each.
+    private static final int ROWS_PER_BAND = NUM_HASHES / BANDS;
+    private static final long PRIME = 2147483647L; // A large prime for the hash functions.
+
+    // The same fixed hash functions every time, so signatures can be compared.
+    private static final long[] HASH_A = new long[NUM_HASHES];
+    private static final long[] HASH_B = new long[NUM_HASHES];
+
+    static {
+        Random random = new Random(42);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            HASH_A[i] = 1 + random.nextInt(Integer.MAX_VALUE - 1);
+            HASH_B[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+    }
+
+    private final Map<Integer, Job> jobs = new HashMap<>();
+    private final Map<Integer, int[]> signatures = new HashMap<>();
+    private final Map<Long, List<Integer>> buckets = new HashMap<>(); // (band, band hash) -> job ids.
+
+    /**
+     * Adds a job so later jobs can be compared with it.
+     */
+    public void add(Job job) {
+        int[] signature = signature(job);
+        jobs.put(job.getJobId(), job);
+        signatures.put(job.getJobId(), signature);
+        for (int band = 0; band < BANDS; band++) { // CN 1: For loop.
+            buckets.computeIfAbsent(bucketKey(band, signature), k -> new ArrayList<>()).add(job.getJobId());
+        }
+    }
+
+    /**
+     * Finds the most similar job already added (not counting the job itself, by id),
+     * or null if none is at least 'threshold' similar.
+     */
+    public Match findDuplicate(Job job, double threshold) {
+        int[] signature = signature(job);
+        Match best = null;
+        for (int candidateId : candidates(signature)) {
+            if (candidateId == job.getJobId()) {
+                continue; // Don't compare a job with itself when it is being edited.
+            }
+            double similarity = similarity(signature, signatures.get(candidateId));
+            if (similarity >= threshold && (best == null || similarity > best.similarity)) {
+                best = new Match(jobs.get(candidateId), similarity);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Groups all added jobs into sets of near-duplicates (only groups with 2 or more jobs).
+     * Used to check a whole list of postings at once.
+     */
+    public List<List<Job>> findDuplicateGroups(double threshold) {
+        // Union-find: every job starts in its own group, similar jobs get joined.
+        Map<Integer, Integer> parent = new HashMap<>();
+        for (int id : jobs.keySet()) {
+            parent.put(id, id);
+        }
+        for (Map.Entry<Integer, int[]> entry : signatures.entrySet()) {
+            for (int candidateId : candidates(entry.getValue())) {
+                if (candidateId != entry.getKey()
+                        && similarity(entry.getValue(), signatures.get(candidateId)) >= threshold) {
+                    parent.put(root(parent, entry.getKey()), root(parent, candidateId));
+                }
+            }
+        }
+
+        Map<Integer, List<Job>> groups = new LinkedHashMap<>();
+        for (int id : jobs.keySet()) {
+            groups.computeIfAbsent(root(parent, id), k -> new ArrayList<>()).add(jobs.get(id));
+        }
+        List<List<Job>> duplicates = new ArrayList<>();
+        for (List<Job> group : groups.values()) {
+            if (group.size() > 1) {
+                duplicates.add(group);
+            }
+        }
+        return duplicates;
+    }
+
+    private static int root(Map<Integer, Integer> parent, int id) {
+        while (parent.get(id) != id) {
+            id = parent.get(id);
+        }
+        return id;
+    }
+
+    // All job ids that share at least one band with this signature.
+    private Set<Integer> candidates(int[] signature) {
+        Set<Integer> found = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            List<Integer> bucket = buckets.get(bucketKey(band, signature));
+            if (bucket != null) {
+                found.addAll(bucket);
+            }
+        }
+        return found;
+    }
+
+    // Share of signature numbers that are the same - a good guess of how many shingles are shared.
+    private static double similarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) same++;
+        }
+        return (double) same / NUM_HASHES;
+    }
+
+    private static long bucketKey(int band, int[] signature) {
+        int hash = 1;
+        for (int i = band * ROWS_PER_BAND; i < (band + 1) * ROWS_PER_BAND; i++) {
+            hash = 31 * hash + signature[i];
+        }
+        return ((long) band << 32) | (hash & 0xffffffffL);
+    }
+
+    // Works out the MinHash signature of a job's title and description.
+    private static int[] signature(Job job) {
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int shingle : shingles(job)) {
+            long x = shingle & 0xffffffffL;
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int value = (int) ((HASH_A[i] * x + HASH_B[i]) % PRIME);
+                if (value < signature[i]) {
+                    signature[i] = value; // Keep the smallest value for each hash function.
+                }
+            }
+        }
+        return signature;
+    }
+
+    // The hash codes of all groups of SHINGLE_WORDS words next to each other.
+    private static Set<Integer> shingles(Job job) {
+        List<String> words = TextUtil.wordList(job.getTitle() + " " + job.getDescription());
+        Set<Integer> shingles = new HashSet<>();
+        if (words.size() < SHINGLE_WORDS) {
+            shingles.add(String.join(" ", words).hashCode()); // Very short text: use it whole.
+            return shingles;
+        }
+        for (int i = 0; i + SHINGLE_WORDS <= words.size(); i++) {
+            shingles.add(String.join(" ", words.subList(i, i + SHINGLE_WORDS)).hashCode());
+        }
+        return shingles;
+    }
+}
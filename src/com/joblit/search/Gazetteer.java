@@ -0,0 +1,154 @@
+package com.joblit.search;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gazetteer.java
+ * Turns free text locations like "Windhoek, Khomas" or "walvis bay" into
+ * map coordinates (latitude/longitude), using the place list in gazetteer.csv.
+ * The list ships with the program, so no internet connection is needed.
+ * CN 2: Uses a HashMap (Data Structure) from place name to Place.
+ */
+public class Gazetteer {
+
+    /**
+     * One known place with its coordinates.
+     */
+    public static class Place {
+        private final String name;
+        private final String region;
+        private final double latitude;
+        private final double longitude;
+
+        Place(String name, String region, double latitude, double longitude) {
+            this.name = name;
+            this.region = region;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        @Override
+        public String toString() {
+            return name + ", " + region;
+        }
+    }
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final Map<String, Place> placesByName = new HashMap<>();
+    private int longestNameWords = 1; // Used when looking for place names inside longer text.
+
+    /**
+     * Loads the place list that ships next to this class.
+     */
+    public static Gazetteer loadDefault() {
+        Gazetteer gazetteer = new Gazetteer();
+        try (InputStream in = Gazetteer.class.getResourceAsStream("gazetteer.csv")) { // CN 13: try-with-resources.
+            if (in == null) {
+                System.err.println("gazetteer.csv not found, location search will not find any places.");
+                return gazetteer;
+            }
+            gazetteer.load(in);
+        } catch (IOException e) { // CN 13: Catching file errors.
+            System.err.println("Problem reading gazetteer.csv: " + e.getMessage());
+        }
+        return gazetteer;
+    }
+
+    // Reads lines like: name,region,latitude,longitude (lines starting with # are comments).
+    private void load(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) { // CN 1: While loop.
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split(",");
+            if (parts.length != 4) {
+                System.err.println("Skipping bad gazetteer line: " + line);
+                continue;
+            }
+            try {
+                Place place = new Place(parts[0].trim(), parts[1].trim(),
+                        Double.parseDouble(parts[2].trim()), Double.parseDouble(parts[3].trim()));
+                String key = normalise(place.getName());
+                placesByName.put(key, place);
+                longestNameWords = Math.max(longestNameWords, key.split(" ").length);
+            } catch (NumberFormatException e) { // CN 13: Bad numbers in the file.
+                System.err.println("Skipping bad gazetteer line: " + line);
+            }
+        }
+    }
+
+    /**
+     * Finds the place a location text is talking about, or null if we don't know it.
+     * First each comma-separated part is tried ("Windhoek, Khomas" -> "Windhoek"),
+     * then any known place name inside the text ("Central Windhoek office").
+     */
+    public Place resolve(String location) {
+        if (location == null) {
+            return null;
+        }
+        String text = normalise(location);
+        for (String part : text.split(",")) { // CN 1: For-each loop.
+            Place place = placesByName.get(part.trim());
+            if (place != null) {
+                return place;
+            }
+        }
+        // Look for place names made of 1, 2, ... words anywhere in the text.
+        String[] words = text.replace(',', ' ').trim().split("\\s+");
+        for (int length = longestNameWords; length >= 1; length--) {
+            for (int start = 0; start + length <= words.length; start++) {
+                String candidate = String.join(" ", Arrays.copyOfRange(words, start, start + length));
+                Place place = placesByName.get(candidate);
+                if (place != null) {
+                    return place;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Lower case, no accents (an accented "u" becomes a plain "u") and single spaces.
+    private static String normalise(String text) {
+        String noAccents = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return noAccents.toLowerCase().replaceAll("\\s+", " ").trim();
+    }
+
+    /**
+     * Straight-line distance over the earth's surface between two points, in km (haversine formula).
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+}
@@ -0,0 +1,176 @@
+package com.joblit.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.joblit.model.Job;
+
+/**
+ * JobColumnStore.java
+ * Keeps a list of jobs "by column" instead of "by object".
+ * Each detail we filter on (salary, posted date, location, company) lives in
+ * its own plain array, so a filter only reads the one array it needs.
+ * Locations and company names are stored once in a small dictionary and the
+ * rows only keep a number (code) pointing into it.
+ * Filters work with a "selection": an int array of the row numbers that are still in.
+ * CN 2: Uses arrays and a HashMap (Data Structures).
+ */
+public class JobColumnStore {
+
+    private final int size;
+    private final int[] jobIds;
+    private final int[] employerIds;
+    private final double[] salaries;
+    private final long[] postedAtMillis; // 0 if we don't know when it was posted.
+    private final int[] locationCodes;
+    private final int[] companyCodes;
+
+    // Dictionaries for the text columns (code -> text).
+    private final List<String> locationDictionary = new ArrayList<>();
+    private final List<String> companyDictionary = new ArrayList<>();
+
+    // The original Job objects, so we can give them back after filtering.
+    private final Job[] rows;
+
+    // CN 5: Constructor - copies the jobs into the columns once.
+    public JobColumnStore(List<Job> jobs) {
+        size = jobs.size();
+        jobIds = new int[size];
+        employerIds = new int[size];
+        salaries = new double[size];
+        postedAtMillis = new long[size];
+        locationCodes = new int[size];
+        companyCodes = new int[size];
+        rows = new Job[size];
+
+        Map<String, Integer> locationLookup = new HashMap<>();
+        Map<String, Integer> companyLookup = new HashMap<>();
+
+        for (int i = 0; i < size; i++) { // CN 1: For loop.
+            Job job = jobs.get(i);
+            rows[i] = job;
+            jobIds[i] = job.getJobId();
+            employerIds[i] = job.getEmployerId();
+            salaries[i] = job.getSalary();
+            postedAtMillis[i] = job.getPostedAt() != null ? job.getPostedAt().getTime() : 0L;
+            locationCodes[i] = encode(job.getLocation(), locationLookup, locationDictionary);
+            companyCodes[i] = encode(job.getCompanyName(), companyLookup, companyDictionary);
+        }
+    }
+
+    // Gives back the code for a text value, adding it to the dictionary if it's new.
+    // Text is compared without caring about capital letters or extra spaces.
+    private static int encode(String value, Map<String, Integer> lookup, List<String> dictionary) {
+        String key = normalise(value);
+        Integer code = lookup.get(key);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(key);
+            lookup.put(key, code);
+        }
+        return code;
+    }
+
+    private static String normalise(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * A selection with every row in it (the starting point for filters).
+     */
+    public int[] selectAll() {
+        int[] selection = new int[size];
+        for (int i = 0; i < size; i++) {
+            selection[i] = i;
+        }
+        return selection;
+    }
+
+    /**
+     * Keeps only the rows with a salary between min and max (both included).
+     */
+    public int[] filterBySalary(int[] selection, double min, double max) {
+        int[] result = new int[selection.length];
+        int count = 0;
+        for (int row : selection) { // CN 1: For-each loop - only reads the salary column.
+            double salary = salaries[row];
+            if (salary >= min && salary <= max) {
+                result[count++] = row;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Keeps only the rows posted at or after the given time (in milliseconds).
+     */
+    public int[] filterByPostedSince(int[] selection, long sinceMillis) {
+        int[] result = new int[selection.length];
+        int count = 0;
+        for (int row : selection) {
+            if (postedAtMillis[row] >= sinceMillis) {
+                result[count++] = row;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Keeps only the rows whose location matches exactly (ignoring capital letters).
+     * The text is looked up once, then we just compare numbers.
+     */
+    public int[] filterByLocation(int[] selection, String location) {
+        int code = locationDictionary.indexOf(normalise(location));
+        if (code < 0) {
+            return new int[0]; // Nobody has this location.
+        }
+        int[] result = new int[selection.length];
+        int count = 0;
+        for (int row : selection) {
+            if (locationCodes[row] == code) {
+                result[count++] = row;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Keeps only the rows posted by the given employer.
+     */
+    public int[] filterByEmployer(int[] selection, int employerId) {
+        int[] result = new int[selection.length];
+        int count = 0;
+        for (int row : selection) {
+            if (employerIds[row] == employerId) {
+                result[count++] = row;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Turns a selection back into a List of Job objects (in the original order).
+     */
+    public List<Job> toJobs(int[] selection) {
+        List<Job> jobs = new ArrayList<>(selection.length);
+        for (int row : selection) {
+            jobs.add(rows[row]);
+        }
+        return jobs;
+    }
+
+    public int getJobId(int row) {
+        return jobIds[row];
+    }
+
+    public String getCompany(int row) {
+        return companyDictionary.get(companyCodes[row]);
+    }
+}
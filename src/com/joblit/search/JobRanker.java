@@ -0,0 +1,131 @@
+package com.joblit.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import com.joblit.model.Job;
+
+/**
+ * JobRanker.java
+ * Puts jobs in "best match first" order for one seeker, instead of newest first.
+ * Each job gets a score made from four parts:
+ * - freshness: new jobs score higher, halving every FRESHNESS_HALF_LIFE_DAYS days,
+ * - skills: how many of the seeker's skills appear in the job's title/description,
+ * - history: same company or location as jobs the seeker already applied for,
+ * - salary: higher salary scores a bit higher.
+ * Only the best K jobs are kept while scoring (a small heap), so we never sort the whole list.
+ * CN 2: Uses Sets, Lists and a PriorityQueue (Data Structures).
+ */
+public class JobRanker {
+
+    private static final double FRESHNESS_HALF_LIFE_DAYS = 14.0;
+    private static final double DAY_MILLIS = 24.0 * 60 * 60 * 1000;
+
+    // How much each part counts in the final score.
+    private static final double FRESHNESS_WEIGHT = 1.0;
+    private static final double SKILLS_WEIGHT = 2.0;
+    private static final double HISTORY_WEIGHT = 0.75;
+    private static final double SALARY_WEIGHT = 0.5;
+
+    // What we work out once per job before scoring (so scoring is just sums).
+    private static class Features {
+        final Job job;
+        final Set<String> words;
+        final double ageDays;
+
+        Features(Job job, long now) {
+            this.job = job;
+            this.words = TextUtil.words(job.getTitle() + " " + job.getDescription());
+            this.ageDays = job.getPostedAt() != null ? Math.max(0, (now - job.getPostedAt().getTime()) / DAY_MILLIS) : 365;
+        }
+    }
+
+    // A job with its score (used in the heap).
+    private static class Scored {
+        final Job job;
+        final double score;
+
+        Scored(Job job, double score) {
+            this.job = job;
+            this.score = score;
+        }
+    }
+
+    private final List<Features> features = new ArrayList<>();
+    private final double maxSalaryLog;
+
+    // CN 5: Constructor - works out the per-job features once.
+    public JobRanker(List<Job> jobs) {
+        long now = System.currentTimeMillis();
+        double maxSalary = 0;
+        for (Job job : jobs) { // CN 1: For-each loop.
+            features.add(new Features(job, now));
+            maxSalary = Math.max(maxSalary, job.getSalary());
+        }
+        maxSalaryLog = Math.log1p(maxSalary);
+    }
+
+    /**
+     * Gives back the best 'limit' jobs for a seeker, best first.
+     * Jobs the seeker already applied for are left out.
+     */
+    public List<Job> rank(String seekerSkills, List<Job> appliedJobs, int limit) {
+        Set<String> skills = TextUtil.words(seekerSkills == null ? "" : seekerSkills);
+
+        Set<Integer> appliedIds = new HashSet<>();
+        Set<String> appliedCompanies = new HashSet<>();
+        Set<String> appliedLocations = new HashSet<>();
+        for (Job applied : appliedJobs) {
+            appliedIds.add(applied.getJobId());
+            appliedCompanies.add(TextUtil.key(applied.getCompanyName()));
+            appliedLocations.add(TextUtil.key(applied.getLocation()));
+        }
+
+        // Smallest score on top, so the weakest of the current best K is easy to drop.
+        PriorityQueue<Scored> best = new PriorityQueue<>((a, b) -> Double.compare(a.score, b.score));
+        for (Features f : features) {
+            if (appliedIds.contains(f.job.getJobId())) {
+                continue;
+            }
+            double score = score(f, skills, appliedCompanies, appliedLocations);
+            if (best.size() < limit) {
+                best.add(new Scored(f.job, score));
+            } else if (limit > 0 && score > best.peek().score) {
+                best.poll();
+                best.add(new Scored(f.job, score));
+            }
+        }
+
+        List<Job> ranked = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ranked.add(best.poll().job); // Comes out worst first...
+        }
+        Collections.reverse(ranked); // ...so turn it around.
+        return ranked;
+    }
+
+    private double score(Features f, Set<String> skills, Set<String> appliedCompanies, Set<String> appliedLocations) {
+        double freshness = Math.pow(0.5, f.ageDays / FRESHNESS_HALF_LIFE_DAYS);
+
+        double skillMatch = 0;
+        if (!skills.isEmpty()) {
+            int matches = 0;
+            for (String skill : skills) {
+                if (f.words.contains(skill)) matches++;
+            }
+            skillMatch = (double) matches / skills.size();
+        }
+
+        double history = 0;
+        if (appliedCompanies.contains(TextUtil.key(f.job.getCompanyName()))) history += 0.5;
+        if (appliedLocations.contains(TextUtil.key(f.job.getLocation()))) history += 0.5;
+
+        double salary = maxSalaryLog > 0 ? Math.log1p(f.job.getSalary()) / maxSalaryLog : 0;
+
+        return FRESHNESS_WEIGHT * freshness + SKILLS_WEIGHT * skillMatch + HISTORY_WEIGHT * history + SALARY_WEIGHT * salary;
+    }
+}
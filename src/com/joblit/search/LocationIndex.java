@@ -0,0 +1,134 @@
+package com.joblit.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.joblit.model.Job;
+
+/**
+ * LocationIndex.java
+ * Puts jobs on a map grid so we can quickly find the ones near a place.
+ * The map is cut into squares (cells) of CELL_DEGREES by CELL_DEGREES.
+ * A radius search only looks at the few cells that can be inside the circle,
+ * not at every job.
+ * Jobs whose location the Gazetteer doesn't know are simply left out.
+ * CN 2: Uses a HashMap of cell -> list of jobs (Data Structures).
+ */
+public class LocationIndex {
+
+    /**
+     * A job found by a search, with how far away it is.
+     */
+    public static class Result {
+        private final Job job;
+        private final double distanceKm;
+
+        Result(Job job, double distanceKm) {
+            this.job = job;
+            this.distanceKm = distanceKm;
+        }
+
+        public Job getJob() {
+            return job;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    private static final double CELL_DEGREES = 0.5; // About 55 km north-south.
+    private static final double KM_PER_DEGREE = 111.0;
+
+    // One job placed on the map.
+    private static class Entry {
+        final Job job;
+        final double latitude;
+        final double longitude;
+
+        Entry(Job job, double latitude, double longitude) {
+            this.job = job;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private int size;
+
+    // CN 5: Constructor - finds each job's place and puts it in its cell.
+    public LocationIndex(List<Job> jobs, Gazetteer gazetteer) {
+        for (Job job : jobs) { // CN 1: For-each loop.
+            Gazetteer.Place place = gazetteer.resolve(job.getLocation());
+            if (place == null) {
+                continue; // Unknown place, can't put it on the map.
+            }
+            Entry entry = new Entry(job, place.getLatitude(), place.getLongitude());
+            cells.computeIfAbsent(cellKey(cellOf(entry.latitude), cellOf(entry.longitude)), k -> new ArrayList<>()).add(entry);
+            size++;
+        }
+    }
+
+    private static int cellOf(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    // Packs the row and column numbers of a cell into one long number for the map key.
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    /**
+     * How many jobs are on the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * All jobs between the given corners (in degrees), in no special order.
+     */
+    public List<Job> withinBox(double minLat, double minLon, double maxLat, double maxLon) {
+        List<Job> found = new ArrayList<>();
+        for (int row = cellOf(minLat); row <= cellOf(maxLat); row++) {
+            for (int column = cellOf(minLon); column <= cellOf(maxLon); column++) {
+                List<Entry> cell = cells.get(cellKey(row, column));
+                if (cell == null) continue;
+                for (Entry entry : cell) {
+                    if (entry.latitude >= minLat && entry.latitude <= maxLat
+                            && entry.longitude >= minLon && entry.longitude <= maxLon) {
+                        found.add(entry.job);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * All jobs within radiusKm of the point, nearest first.
+     */
+    public List<Result> withinRadius(double latitude, double longitude, double radiusKm) {
+        // First work out a box around the circle, so we know which cells to look at.
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double lonDelta = radiusKm / (KM_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(latitude))));
+
+        List<Result> results = new ArrayList<>();
+        for (int row = cellOf(latitude - latDelta); row <= cellOf(latitude + latDelta); row++) {
+            for (int column = cellOf(longitude - lonDelta); column <= cellOf(longitude + lonDelta); column++) {
+                List<Entry> cell = cells.get(cellKey(row, column));
+                if (cell == null) continue;
+                for (Entry entry : cell) {
+                    double distance = Gazetteer.distanceKm(latitude, longitude, entry.latitude, entry.longitude);
+                    if (distance <= radiusKm) {
+                        results.add(new Result(entry.job, distance));
+                    }
+                }
+            }
+        }
+        results.sort((a, b) -> Double.compare(a.distanceKm, b.distanceKm)); // Nearest first.
+        return results;
+    }
+}
@@ -0,0 +1,107 @@
+package com.joblit.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.joblit.model.Job;
+import com.joblit.model.SavedSearch;
+
+/**
+ * SavedSearchIndex.java
+ * Finds which saved searches a new job matches, without running every search again.
+ * It works the other way round from a normal search (a "reverse index"):
+ * - Each saved search is filed under ONE of its words - the one with the fewest
+ *   searches filed under it so far, so no single list grows huge.
+ * - For a new job we only look at the searches filed under the job's own words,
+ *   and check that each of those has all its other words in the job too.
+ * So the work depends on the number of words in the job, not the number of saved searches.
+ * A search matches when every one of its words is in the job's title, description,
+ * location or company name.
+ * CN 2: Uses a Map of word -> List of searches (Data Structures).
+ */
+public class SavedSearchIndex {
+
+    // A saved search with its words worked out once.
+    private static class Entry {
+        final SavedSearch search;
+        final Set<String> words;
+
+        Entry(SavedSearch search, Set<String> words) {
+            this.search = search;
+            this.words = words;
+        }
+    }
+
+    private final Map<String, List<Entry>> byWord = new HashMap<>();
+    private final Map<Integer, String> wordOfSearch = new HashMap<>(); // search id -> the word it is filed under.
+
+    /**
+     * Adds a saved search. Searches without any words are ignored (they would match everything).
+     */
+    public void add(SavedSearch search) {
+        Set<String> words = TextUtil.words(search.getQuery());
+        if (words.isEmpty() || wordOfSearch.containsKey(search.getSearchId())) {
+            return;
+        }
+        String rarest = null;
+        int rarestSize = Integer.MAX_VALUE;
+        for (String word : words) { // CN 1: For-each loop.
+            List<Entry> list = byWord.get(word);
+            int size = list == null ? 0 : list.size();
+            if (size < rarestSize) {
+                rarest = word;
+                rarestSize = size;
+            }
+        }
+        byWord.computeIfAbsent(rarest, k -> new ArrayList<>()).add(new Entry(search, words));
+        wordOfSearch.put(search.getSearchId(), rarest);
+    }
+
+    /**
+     * Removes a saved search (e.g. when the seeker deletes it).
+     */
+    public void remove(int searchId) {
+        String word = wordOfSearch.remove(searchId);
+        if (word == null) {
+            return;
+        }
+        List<Entry> list = byWord.get(word);
+        for (Iterator<Entry> it = list.iterator(); it.hasNext(); ) {
+            if (it.next().search.getSearchId() == searchId) {
+                it.remove();
+            }
+        }
+        if (list.isEmpty()) {
+            byWord.remove(word);
+        }
+    }
+
+    /**
+     * Gives back all saved searches that the job matches.
+     */
+    public List<SavedSearch> match(Job job) {
+        Set<String> jobWords = TextUtil.words(job.getTitle() + " " + job.getDescription() + " "
+                + job.getLocation() + " " + job.getCompanyName());
+        List<SavedSearch> matches = new ArrayList<>();
+        for (String word : jobWords) {
+            List<Entry> list = byWord.get(word);
+            if (list == null) {
+                continue;
+            }
+            for (Entry entry : list) {
+                if (jobWords.containsAll(entry.words)) {
+                    matches.add(entry.search);
+                }
+            }
+        }
+        return matches;
+    }
+
+    public int size() {
+        return wordOfSearch.size();
+    }
+}
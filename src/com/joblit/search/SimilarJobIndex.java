@@ -0,0 +1,437 @@
+package com.joblit.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import com.joblit.model.Job;
+
+/**
+ * SimilarJobIndex.java
+ * Finds the jobs that read most like a given job ("similar jobs").
+ * How it works:
+ * - Each job becomes a TF-IDF vector of its words and word pairs. Words and pairs are
+ *   hashed into DIMENSIONS slots, so no word list has to be kept. Words that appear in
+ *   few jobs count more than common ones. Title words count twice.
+ * - Two jobs are similar if their vectors point the same way (cosine similarity).
+ * - So we don't compare with every job, the jobs are split into about sqrt(n) groups
+ *   around group centres (IVF: "inverted file"). A question only looks inside the
+ *   PROBES groups whose centres are closest to it.
+ * Building works on all CPU cores at once. New jobs are added to their closest group
+ * straight away, and sync() brings the index in line with a freshly loaded job list;
+ * the groups themselves are only worked out again on the next build, which the caller
+ * makes once changedSinceBuild() gets large.
+ * CN 2: Uses arrays, Maps, Sets and a PriorityQueue (Data Structures).
+ */
+public class SimilarJobIndex {
+
+    private static final int DIMENSIONS = 1 << 18; // Hash slots for words and word pairs.
+    private static final int CENTROID_TERMS = 64; // Group centres keep only their strongest slots.
+    private static final int PROBES = 8; // Groups looked at per question.
+    private static final float TITLE_WEIGHT = 2f;
+
+    // A sparse vector: the used slots (sorted) and their weights, with length 1.
+    private static class Vector {
+        final int[] slots;
+        final float[] weights;
+
+        Vector(int[] slots, float[] weights) {
+            this.slots = slots;
+            this.weights = weights;
+        }
+
+        float dot(Vector other) {
+            float sum = 0;
+            int i = 0;
+            int j = 0;
+            while (i < slots.length && j < other.slots.length) { // CN 1: While loop - walk both sorted lists.
+                if (slots[i] == other.slots[j]) {
+                    sum += weights[i++] * other.weights[j++];
+                } else if (slots[i] < other.slots[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return sum;
+        }
+    }
+
+    // The group centres, plus for each slot which centres use it, so a vector can be scored
+    // against all centres at once by only looking at the slots it uses.
+    private static class Centres {
+        final List<Vector> list = new ArrayList<>();
+        private final Map<Integer, int[]> centresUsing = new HashMap<>();
+        private final Map<Integer, float[]> weightsUsing = new HashMap<>();
+
+        // Works out centresUsing/weightsUsing again after the centres changed.
+        void reindex() {
+            Map<Integer, List<Integer>> users = new HashMap<>();
+            for (int c = 0; c < list.size(); c++) {
+                for (int slot : list.get(c).slots) {
+                    users.computeIfAbsent(slot, k -> new ArrayList<>()).add(c);
+                }
+            }
+            centresUsing.clear();
+            weightsUsing.clear();
+            for (Map.Entry<Integer, List<Integer>> entry : users.entrySet()) {
+                int slot = entry.getKey();
+                int[] centres = new int[entry.getValue().size()];
+                float[] weights = new float[centres.length];
+                for (int k = 0; k < centres.length; k++) {
+                    centres[k] = entry.getValue().get(k);
+                    Vector centre = list.get(centres[k]);
+                    weights[k] = centre.weights[Arrays.binarySearch(centre.slots, slot)];
+                }
+                centresUsing.put(slot, centres);
+                weightsUsing.put(slot, weights);
+            }
+        }
+
+        // The similarity of the vector to every centre.
+        float[] scores(Vector vector) {
+            float[] scores = new float[list.size()];
+            for (int i = 0; i < vector.slots.length; i++) {
+                int[] centres = centresUsing.get(vector.slots[i]);
+                if (centres == null) continue;
+                float[] weights = weightsUsing.get(vector.slots[i]);
+                for (int k = 0; k < centres.length; k++) {
+                    scores[centres[k]] += vector.weights[i] * weights[k];
+                }
+            }
+            return scores;
+        }
+
+        int closest(Vector vector) {
+            float[] scores = scores(vector);
+            int best = 0;
+            for (int c = 1; c < scores.length; c++) {
+                if (scores[c] > scores[best]) best = c;
+            }
+            return best;
+        }
+    }
+
+    // A job id (or group number) with its similarity (used in the heaps).
+    private static class Scored {
+        final int id;
+        final float score;
+
+        Scored(int id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    private final Map<Integer, Job> jobs = new HashMap<>();
+    private final Map<Integer, Map<Integer, Float>> termCounts = new HashMap<>(); // Kept so the df counts can be undone.
+    private final Map<Integer, Vector> vectors = new HashMap<>();
+    private final Map<Integer, Integer> groupOf = new HashMap<>(); // Job id -> group number.
+    private final Centres centroids = new Centres();
+    private final List<Set<Integer>> groups = new ArrayList<>(); // Job ids in each group.
+    private final int[] documentFrequency = new int[DIMENSIONS]; // How many jobs use each slot.
+    private int changedSinceBuild = 0; // Jobs added, edited or removed after build().
+
+    // Use build() to make one.
+    private SimilarJobIndex() {
+    }
+
+    /**
+     * Makes the index for these (open) jobs, using all CPU cores.
+     */
+    public static SimilarJobIndex build(List<Job> jobList) {
+        SimilarJobIndex index = new SimilarJobIndex();
+        int n = jobList.size();
+
+        // 1. Count the words of every job (in parallel), then how many jobs use each slot.
+        List<Map<Integer, Float>> counts = new ArrayList<>(Collections.nCopies(n, null));
+        IntStream.range(0, n).parallel().forEach(i -> counts.set(i, countTerms(jobList.get(i))));
+        for (int i = 0; i < n; i++) { // CN 1: For loop.
+            Job job = jobList.get(i);
+            index.jobs.put(job.getJobId(), job);
+            index.termCounts.put(job.getJobId(), counts.get(i));
+            for (int slot : counts.get(i).keySet()) {
+                index.documentFrequency[slot]++;
+            }
+        }
+
+        // 2. Turn the counts into TF-IDF vectors (in parallel).
+        Vector[] built = new Vector[n];
+        IntStream.range(0, n).parallel().forEach(i -> built[i] = index.vector(counts.get(i)));
+        for (int i = 0; i < n; i++) {
+            index.vectors.put(jobList.get(i).getJobId(), built[i]);
+        }
+
+        // 3. Start the group centres at evenly spread jobs, group every job, then move each
+        //    centre to the middle of its group and group the jobs once more.
+        int groupCount = Math.max(1, (int) Math.round(Math.sqrt(n)));
+        for (int g = 0; g < groupCount && g < n; g++) {
+            index.centroids.list.add(built[(int) ((long) g * n / groupCount)]);
+        }
+        index.centroids.reindex();
+        if (n > 0) {
+            int[][] firstGroups = members(assign(built, index.centroids), index.centroids.list.size());
+            Vector[] moved = new Vector[index.centroids.list.size()];
+            IntStream.range(0, moved.length).parallel().forEach(g -> moved[g] = centre(built, firstGroups[g]));
+            for (int g = 0; g < moved.length; g++) {
+                if (moved[g] != null) { // Keep the old centre if the group ended up empty.
+                    index.centroids.list.set(g, moved[g]);
+                }
+            }
+            index.centroids.reindex();
+            int[] assigned = assign(built, index.centroids);
+            for (int g = 0; g < index.centroids.list.size(); g++) {
+                index.groups.add(new HashSet<>());
+            }
+            for (int i = 0; i < n; i++) {
+                int jobId = jobList.get(i).getJobId();
+                index.groupOf.put(jobId, assigned[i]);
+                index.groups.get(assigned[i]).add(jobId);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Adds a new job, or puts an edited one back with its new text.
+     */
+    public synchronized void add(Job job) {
+        remove(job.getJobId());
+        Map<Integer, Float> counts = countTerms(job);
+        for (int slot : counts.keySet()) {
+            documentFrequency[slot]++;
+        }
+        Vector vector = vector(counts);
+        if (centroids.list.isEmpty()) { // The first job of an empty index starts the first group.
+            centroids.list.add(vector);
+            centroids.reindex();
+            groups.add(new HashSet<>());
+        }
+        int group = centroids.closest(vector);
+        jobs.put(job.getJobId(), job);
+        termCounts.put(job.getJobId(), counts);
+        vectors.put(job.getJobId(), vector);
+        groupOf.put(job.getJobId(), group);
+        groups.get(group).add(job.getJobId());
+        changedSinceBuild++;
+    }
+
+    /**
+     * Takes out a job that was deleted or archived.
+     */
+    public synchronized void remove(int jobId) {
+        if (jobs.remove(jobId) == null) {
+            return;
+        }
+        for (int slot : termCounts.remove(jobId).keySet()) {
+            documentFrequency[slot]--;
+        }
+        vectors.remove(jobId);
+        groups.get(groupOf.remove(jobId)).remove(jobId);
+        changedSinceBuild++;
+    }
+
+    /**
+     * Brings the index in line with a freshly loaded list of all open jobs: jobs not in the
+     * list any more are taken out, new jobs and jobs with changed text are added.
+     * Gives back how many jobs changed.
+     */
+    public synchronized int sync(List<Job> openJobs) {
+        Map<Integer, Job> fresh = new HashMap<>();
+        for (Job job : openJobs) { // CN 1: For-each loop.
+            fresh.put(job.getJobId(), job);
+        }
+        int changed = 0;
+        for (Integer jobId : new ArrayList<>(jobs.keySet())) {
+            if (!fresh.containsKey(jobId)) { // Deleted or archived (maybe by another program).
+                remove(jobId);
+                changed++;
+            }
+        }
+        for (Job job : openJobs) {
+            Job known = jobs.get(job.getJobId());
+            if (known == null || !sameText(known, job)) {
+                add(job);
+                changed++;
+            } else {
+                jobs.put(job.getJobId(), job); // Same text; keep the newest object for similarTo().
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * How many jobs were added, edited or removed since the index was built. The groups are
+     * not worked out again for these, so the caller should build again when this gets large.
+     */
+    public synchronized int changedSinceBuild() {
+        return changedSinceBuild;
+    }
+
+    /**
+     * Gives back up to 'limit' jobs most like this one, most similar first (never the job itself).
+     */
+    public synchronized List<Job> similarTo(Job job, int limit) {
+        Vector query = vectors.get(job.getJobId());
+        if (query == null) {
+            query = vector(countTerms(job)); // Not in the index (e.g. archived) - work it out now.
+        }
+
+        // The PROBES groups whose centres are closest to the question.
+        PriorityQueue<Scored> closestGroups = new PriorityQueue<>((a, b) -> Float.compare(a.score, b.score));
+        float[] groupScores = centroids.scores(query);
+        for (int g = 0; g < groupScores.length; g++) {
+            keepBest(closestGroups, new Scored(g, groupScores[g]), PROBES);
+        }
+
+        // The best 'limit' jobs inside those groups (smallest score on top, so it is easy to drop).
+        PriorityQueue<Scored> best = new PriorityQueue<>((a, b) -> Float.compare(a.score, b.score));
+        for (Scored group : closestGroups) {
+            for (int jobId : groups.get(group.id)) {
+                if (jobId != job.getJobId()) {
+                    float score = query.dot(vectors.get(jobId));
+                    if (score > 0) {
+                        keepBest(best, new Scored(jobId, score), limit);
+                    }
+                }
+            }
+        }
+
+        List<Job> similar = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            similar.add(jobs.get(best.poll().id)); // Comes out least similar first...
+        }
+        Collections.reverse(similar); // ...so turn it around.
+        return similar;
+    }
+
+    public synchronized int size() {
+        return jobs.size();
+    }
+
+    private static void keepBest(PriorityQueue<Scored> best, Scored candidate, int limit) {
+        if (best.size() < limit) {
+            best.add(candidate);
+        } else if (limit > 0 && candidate.score > best.peek().score) {
+            best.poll();
+            best.add(candidate);
+        }
+    }
+
+    private static boolean sameText(Job a, Job b) {
+        return Objects.equals(a.getTitle(), b.getTitle()) && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getLocation(), b.getLocation());
+    }
+
+    // Term counts of a job: words and word pairs of the title (counted double), description and location.
+    private static Map<Integer, Float> countTerms(Job job) {
+        Map<Integer, Float> counts = new HashMap<>();
+        addTerms(counts, TextUtil.wordList(job.getTitle()), TITLE_WEIGHT);
+        addTerms(counts, TextUtil.wordList(job.getDescription()), 1f);
+        addTerms(counts, TextUtil.wordList(job.getLocation()), 1f);
+        return counts;
+    }
+
+    private static void addTerms(Map<Integer, Float> counts, List<String> words, float weight) {
+        for (int i = 0; i < words.size(); i++) {
+            counts.merge(slot(words.get(i)), weight, Float::sum);
+            if (i + 1 < words.size()) {
+                counts.merge(slot(words.get(i) + " " + words.get(i + 1)), weight, Float::sum);
+            }
+        }
+    }
+
+    private static int slot(String term) {
+        int hash = term.hashCode();
+        return (hash ^ (hash >>> 16)) & (DIMENSIONS - 1);
+    }
+
+    // TF-IDF weights (1 + log of the count, times how rare the slot is), scaled to length 1.
+    private Vector vector(Map<Integer, Float> counts) {
+        int[] slots = new int[counts.size()];
+        int i = 0;
+        for (int slot : counts.keySet()) {
+            slots[i++] = slot;
+        }
+        Arrays.sort(slots);
+        float[] weights = new float[slots.length];
+        int jobCount = Math.max(jobs.size(), 1);
+        double length = 0;
+        for (i = 0; i < slots.length; i++) {
+            double idf = Math.log((jobCount + 1.0) / (documentFrequency[slots[i]] + 1.0)) + 1.0;
+            weights[i] = (float) ((1 + Math.log(counts.get(slots[i]))) * idf);
+            length += weights[i] * weights[i];
+        }
+        scale(weights, length);
+        return new Vector(slots, weights);
+    }
+
+    private static void scale(float[] weights, double squaredLength) {
+        if (squaredLength > 0) {
+            float inverse = (float) (1 / Math.sqrt(squaredLength));
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] *= inverse;
+            }
+        }
+    }
+
+    // The closest centre for every vector (in parallel).
+    private static int[] assign(Vector[] vectors, Centres centres) {
+        int[] assigned = new int[vectors.length];
+        IntStream.range(0, vectors.length).parallel().forEach(i -> assigned[i] = centres.closest(vectors[i]));
+        return assigned;
+    }
+
+    // The vectors in each group (positions in the vectors array), found in one pass, so each
+    // centre only has to look at its own group.
+    private static int[][] members(int[] assigned, int groupCount) {
+        int[] sizes = new int[groupCount];
+        for (int group : assigned) {
+            sizes[group]++;
+        }
+        int[][] members = new int[groupCount][];
+        for (int g = 0; g < groupCount; g++) {
+            members[g] = new int[sizes[g]];
+        }
+        int[] filled = new int[groupCount];
+        for (int i = 0; i < assigned.length; i++) {
+            members[assigned[i]][filled[assigned[i]]++] = i;
+        }
+        return members;
+    }
+
+    // The middle of one group: the sum of its vectors, keeping only the CENTROID_TERMS strongest slots.
+    private static Vector centre(Vector[] vectors, int[] members) {
+        Map<Integer, Float> sum = new HashMap<>();
+        for (int i : members) {
+            for (int k = 0; k < vectors[i].slots.length; k++) {
+                sum.merge(vectors[i].slots[k], vectors[i].weights[k], Float::sum);
+            }
+        }
+        if (sum.isEmpty()) {
+            return null;
+        }
+        List<Map.Entry<Integer, Float>> strongest = new ArrayList<>(sum.entrySet());
+        strongest.sort((a, b) -> Float.compare(b.getValue(), a.getValue()));
+        strongest = strongest.subList(0, Math.min(CENTROID_TERMS, strongest.size()));
+        strongest.sort(Map.Entry.comparingByKey());
+        int[] slots = new int[strongest.size()];
+        float[] weights = new float[strongest.size()];
+        double length = 0;
+        for (int k = 0; k < slots.length; k++) {
+            slots[k] = strongest.get(k).getKey();
+            weights[k] = strongest.get(k).getValue();
+            length += weights[k] * weights[k];
+        }
+        scale(weights, length);
+        return new Vector(slots, weights);
+    }
+}
@@ -0,0 +1,48 @@
+package com.joblit.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * TextUtil.java
+ * Small text helpers shared by the search classes.
+ */
+public class TextUtil {
+
+    // Only static methods, so nobody needs to make an object of this class.
+    private TextUtil() {
+    }
+
+    /**
+     * Splits text into lower case words (letters, digits, '+' and '#', so "C++" and "C#" survive).
+     * Commas, spaces and other punctuation separate words.
+     */
+    public static Set<String> words(String text) {
+        return new LinkedHashSet<>(wordList(text)); // Each word only once.
+    }
+
+    /**
+     * Same as words() but keeps every word in its original order (repeats included).
+     */
+    public static List<String> wordList(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : text.toLowerCase().split("[^a-z0-9+#]+")) { // CN 1: For-each loop.
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Text made ready for comparing: trimmed, lower case, never null.
+     */
+    public static String key(String text) {
+        return text == null ? "" : text.trim().toLowerCase();
+    }
+}